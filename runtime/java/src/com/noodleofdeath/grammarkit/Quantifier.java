@@ -27,6 +27,10 @@ public class Quantifier {
 	/** Quantifier for a lazy optional match. */
 	public static Quantifier OptionalLazy = new Quantifier("??", true, false, true);
 	
+	/** Pattern of a ranged quantifier such as <code>{2}</code> or <code>{1,4}</code>. */
+	private static final Pattern RangePattern = Pattern
+			.compile("\\{\\s*(\\d+)?(?:\\s*(,)\\s*(\\d+)?)?\\s*\\}(\\?)?");
+
 	/** Possible values */
 	public static Quantifier[] values() {
 		return new Quantifier[] {
@@ -41,30 +45,40 @@ public class Quantifier {
 	}
 
 	/** String representation of this quantifier. */
-	private String value;
+	private final String value;
 
 	/**
 	 * <code>true</code> if this quantifier is an optional match;
 	 * <code>false</code>, otherwise.
 	 */
-	private boolean optional = false;
+	private final boolean optional;
 
 	/**
 	 * <code>true</code> if this quantifier is a greedy match; <code>false</code>,
 	 * otherwise.
 	 */
-	private boolean greedy = false;
+	private final boolean greedy;
 
 	/**
 	 * <code>true</code> if this quantifier is a lazy match; <code>false</code>,
 	 * otherwise.
 	 */
-	private boolean lazy = false;
-	
-	private int min = -1;
-	
-	private int max = -1;
-	
+	private final boolean lazy;
+
+	/** Minimum number of matches of a ranged quantifier, or <code>-1</code>. */
+	private final int min;
+
+	/**
+	 * Maximum number of matches of a ranged quantifier, {@link Integer#MAX_VALUE}
+	 * if it is unbounded, or <code>-1</code>.
+	 */
+	private final int max;
+
+	/**
+	 * Constructs a new quantifier with no range.
+	 *
+	 * @see #Quantifier(String, boolean, boolean, boolean, int, int)
+	 */
 	public Quantifier(String value, boolean optional, boolean greedy, boolean lazy) {
 		this(value, optional, greedy, lazy, -1, -1);
 	}
@@ -80,12 +94,19 @@ public class Quantifier {
 	 *                 <code>false</code>, otherwise.
 	 * @param lazy     <code>true</code> if this quantifier is a lazy match;
 	 *                 <code>false</code>, otherwise.
+	 * @param min      minimum number of matches, or <code>-1</code> if this
+	 *                 quantifier has no range.
+	 * @param max      maximum number of matches, {@link Integer#MAX_VALUE} if
+	 *                 unbounded, or <code>-1</code> if this quantifier has no
+	 *                 range.
 	 */
 	public Quantifier(String value, boolean optional, boolean greedy, boolean lazy, int min, int max) {
 		this.value = value;
 		this.optional = optional;
 		this.greedy = greedy;
 		this.lazy = lazy;
+		this.min = min;
+		this.max = max;
 	}
 
 	/**
@@ -110,14 +131,16 @@ public class Quantifier {
 	 *         if no such quantifier exists with the specified value.
 	 */
 	public static Quantifier from(String value) {
-		if (value.indexOf("{") > 0) {
-			Matcher matcher = Pattern.compile("\\{\\s*(\\d)?(?:\\s*(,)\\s*(\\d)?)?\\s*\\}(\\?)?").matcher(value);
+		if (value.indexOf("{") > -1) {
+			Matcher matcher = RangePattern.matcher(value);
 			if (matcher.find()) {
-				int min = matcher.group(1).isEmpty() ? 0 : Integer.parseInt(matcher.group(1));
-				int max = matcher.group(2).isEmpty() ? min
-						: (matcher.group(3).isEmpty() ? 9 : Integer.parseInt(matcher.group(3)));
-				boolean lazy = !matcher.group(4).isEmpty();
-				return new Quantifier(value, min == 0, min < max, lazy, min, max);
+				int min = matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1));
+				int max = matcher.group(2) == null ? min
+						: (matcher.group(3) == null ? Integer.MAX_VALUE : Integer.parseInt(matcher.group(3)));
+				if (max < min)
+					return Once;
+				boolean lazy = matcher.group(4) != null;
+				return new Quantifier(value, min == 0, max > 1, lazy, min, max);
 			}
 			return Once;
 		}
@@ -180,28 +203,56 @@ public class Quantifier {
 		return lazy;
 	}
 
+	/** @return minimum number of matches of a ranged quantifier, or <code>-1</code>. */
 	public int min() {
 		return min;
 	}
 
-	public void setMin(int min) {
-		this.min = min;
-	}
-
+	/**
+	 * @return maximum number of matches of a ranged quantifier,
+	 *         {@link Integer#MAX_VALUE} if it is unbounded, or <code>-1</code>.
+	 */
 	public int max() {
 		return max;
 	}
 
-	public void setMax(int max) {
-		this.max = max;
-	}
-	
+	/** @return <code>true</code> if this quantifier was given as <code>{m,n}</code>. */
 	public boolean hasRange() {
 		return min > -1 && max > -1;
 	}
-	
+
+	/** @return fewest matches this quantifier accepts. */
+	public int lowerBound() {
+		return hasRange() ? min : optional ? 0 : 1;
+	}
+
+	/** @return most matches this quantifier accepts. */
+	public int upperBound() {
+		return hasRange() ? max : greedy ? Integer.MAX_VALUE : 1;
+	}
+
+	/**
+	 * Returns <code>true</code> if another match may be attempted after a
+	 * specified number of matches; <code>false</code>, otherwise.
+	 * 
+	 * @param matchCount number of matches so far.
+	 * @return <code>true</code> if another match may be attempted;
+	 *         <code>false</code>, otherwise.
+	 */
+	public boolean allowsMore(int matchCount) {
+		return matchCount < upperBound();
+	}
+
+	/**
+	 * Returns <code>true</code> if a specified number of matches satisfies this
+	 * quantifier; <code>false</code>, otherwise.
+	 * 
+	 * @param matchCount number of matches.
+	 * @return <code>true</code> if the specified number of matches satisfies this
+	 *         quantifier; <code>false</code>, otherwise.
+	 */
 	public boolean meets(int matchCount) {
-		return matchCount >= min && matchCount <= max;
+		return matchCount >= lowerBound() && matchCount <= upperBound();
 	}
 
 }
@@ -0,0 +1,29 @@
+package com.noodleofdeath.pastaparser.io;
+
+/**
+ * Specifications for a cancellation token that lexers and parsers poll
+ * before every rule attempt. Once a token reports that it is cancelled, a
+ * lexer or parser fails the rule it is matching, stops without generating
+ * another token or syntax tree and returns what it generated so far.
+ */
+public interface Cancellation {
+
+	/** Cancellation that is never cancelled. */
+	public static final Cancellation None = new Cancellation() {
+
+		@Override
+		public boolean cancelled() {
+			return false;
+		}
+
+	};
+
+	/**
+	 * Called before every rule attempt, so implementations should be cheap.
+	 * 
+	 * @return <code>true</code> if the work polling this cancellation should
+	 *         stop; <code>false</code>, otherwise.
+	 */
+	public abstract boolean cancelled();
+
+}
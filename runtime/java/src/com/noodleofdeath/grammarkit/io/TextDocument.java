@@ -0,0 +1,64 @@
+package com.noodleofdeath.pastaparser.io;
+
+import java.util.List;
+
+/**
+ * Specifications for an editable character stream that records its edits.
+ *
+ * A document is read directly by lexers and by region matching as any other
+ * character stream, so an editor can keep its text in a document and hand it
+ * to a lexer without building a string first. Every edit is recorded until
+ * the edits are cleared, so an incremental syntax engine can update only the
+ * range they damaged.
+ */
+public interface TextDocument extends CharSequence {
+
+	/**
+	 * Replaces a range of this document with new text and records the edit.
+	 *
+	 * @param start offset of the range to replace.
+	 * @param end   offset of the range to replace.
+	 * @param text  to replace the range with.
+	 */
+	public abstract void replace(int start, int end, String text);
+
+	/**
+	 * @param offset at which to insert.
+	 * @param text   to insert.
+	 */
+	public default void insert(int offset, String text) {
+		replace(offset, offset, text);
+	}
+
+	/**
+	 * @param start offset of the range to delete.
+	 * @param end   offset of the range to delete.
+	 */
+	public default void delete(int start, int end) {
+		replace(start, end, "");
+	}
+
+	/** @param edit to apply to this document. */
+	public default void apply(TextEdit edit) {
+		replace(edit.start(), edit.end(), edit.text());
+	}
+
+	/**
+	 * @return edits applied to this document since the edits were last
+	 *         cleared, in order. The range of each edit is given in offsets of
+	 *         this document before that edit.
+	 */
+	public abstract List<TextEdit> edits();
+
+	/** Forgets the edits applied to this document so far. */
+	public abstract void clearEdits();
+
+	/**
+	 * @return single edit that has the effect of every edit of
+	 *         {@link #edits()}, or <code>null</code> if there are none.
+	 */
+	public default TextEdit mergedEdit() {
+		return TextEdit.Merge(edits(), this);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.noodleofdeath.pastaparser.io;
+
+import java.util.List;
+
+/**
+ * Replacement of a range of a character stream with new text. The range is
+ * given in offsets of the stream before the edit.
+ */
+public final class TextEdit implements TextRange {
+
+	/** Start offset of the replaced range. */
+	private final int start;
+
+	/** End offset of the replaced range. */
+	private final int end;
+
+	/** Text replacing the range. */
+	private final String text;
+
+	/**
+	 * Constructs a new text edit.
+	 * 
+	 * @param start offset of the replaced range.
+	 * @param end   offset of the replaced range.
+	 * @param text  replacing the range.
+	 */
+	public TextEdit(int start, int end, String text) {
+		if (start < 0 || end < start)
+			throw new IllegalArgumentException(String.format("Invalid range: (%d, %d)", start, end));
+		this.start = start;
+		this.end = end;
+		this.text = text != null ? text : "";
+	}
+
+	/**
+	 * @param offset at which to insert.
+	 * @param text   to insert.
+	 * @return an edit that inserts text at a specified offset.
+	 */
+	public static TextEdit Insert(int offset, String text) {
+		return new TextEdit(offset, offset, text);
+	}
+
+	/**
+	 * @param start offset of the range to delete.
+	 * @param end   offset of the range to delete.
+	 * @return an edit that deletes a specified range.
+	 */
+	public static TextEdit Delete(int start, int end) {
+		return new TextEdit(start, end, "");
+	}
+
+	/**
+	 * Merges consecutive edits into a single edit that replaces the range of the
+	 * original character stream they damaged with the text of that range after
+	 * the edits.
+	 *
+	 * @param edits           to merge, in the order they were applied, each in
+	 *                        offsets of the character stream before it.
+	 * @param characterStream with every edit applied.
+	 * @return merged edit, or <code>null</code> if there are no edits.
+	 */
+	public static TextEdit Merge(List<TextEdit> edits, CharSequence characterStream) {
+		if (edits.isEmpty())
+			return null;
+		int start = edits.get(0).start(), end = start, editedEnd = start;
+		for (TextEdit edit : edits) {
+			if (edit.end() > editedEnd) {
+				end += edit.end() - editedEnd;
+				editedEnd = edit.end();
+			}
+			start = Math.min(start, edit.start());
+			editedEnd += edit.delta();
+		}
+		return new TextEdit(start, end, characterStream.subSequence(start, editedEnd).toString());
+	}
+
+	@Override
+	public int start() {
+		return start;
+	}
+
+	@Override
+	public int end() {
+		return end;
+	}
+
+	/** @return text replacing the range of this edit. */
+	public String text() {
+		return text;
+	}
+
+	/**
+	 * @return difference between the length of a character stream after and
+	 *         before this edit.
+	 */
+	public int delta() {
+		return text.length() - (end - start);
+	}
+
+	/**
+	 * @param characterStream to edit.
+	 * @return the specified character stream with this edit applied.
+	 */
+	public String apply(CharSequence characterStream) {
+		if (end > characterStream.length())
+			throw new IndexOutOfBoundsException(
+					String.format("Edit (%d, %d) exceeds length %d", start, end, characterStream.length()));
+		return new StringBuilder(characterStream.length() + delta()).append(characterStream, 0, start)
+				.append(text).append(characterStream, end, characterStream.length()).toString();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("(%d, %d) -> \"%s\"", start, end, text);
+	}
+
+}
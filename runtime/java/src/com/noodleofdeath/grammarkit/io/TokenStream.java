@@ -25,6 +25,29 @@ public interface TokenStream<R, T extends Token<R>> {
 	 */
 	public abstract T get(int index);
 
+	/**
+	 * Returns <code>true</code> if this token stream has a token at a specified
+	 * index. Streams that are still being written to may block until the token
+	 * is added or the stream ends.
+	 * 
+	 * @param index of the token.
+	 * @return <code>true</code> if a token exists at <code>index</code>;
+	 *         <code>false</code>, otherwise.
+	 */
+	public default boolean hasToken(int index) {
+		return index < length();
+	}
+
+	/**
+	 * Signals that the tokens before a specified index will not be read again,
+	 * so that streams with bounded capacity may release them.
+	 * 
+	 * @param index of the first token that may still be read.
+	 */
+	public default void commit(int index) {
+
+	}
+
 	/**
 	 * Appends a single token to the end of the token collection of this token
 	 * stream.
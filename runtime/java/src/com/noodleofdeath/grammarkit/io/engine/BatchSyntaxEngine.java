@@ -0,0 +1,65 @@
+package com.noodleofdeath.pastaparser.io.engine;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.BatchSyntaxEngineListener;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventGenerator;
+
+/**
+ * Specifications for a syntax engine that processes many files concurrently.
+ * 
+ * Files are distributed across an executor. Each task borrows a lexer and
+ * parser that no other task uses at the same time, and all of them share a
+ * single frozen grammar. Listeners are notified once per file, on the thread
+ * that processed it, and must therefore be thread safe. As long as every
+ * listener has a filter, results only hold the syntax trees of rules some
+ * filter accepts, and parsers only build those.
+ * 
+ * @param <R> raw type used by tokens generated by this engine.
+ * @param <T> type of token used by this engine.
+ */
+public interface BatchSyntaxEngine<R, T extends Token<R>>
+		extends GrammarEventGenerator<BatchSyntaxEngineListener<R, T>> {
+
+	/** @return frozen grammar shared by every worker of this engine. */
+	public abstract Grammar grammar();
+
+	/** @return executor the files processed by this engine are submitted to. */
+	public abstract ExecutorService executor();
+
+	/**
+	 * Processes a single file on the caller's thread.
+	 * 
+	 * @param path of the file to process.
+	 * @return result of processing the file.
+	 */
+	public abstract SyntaxEngineResult<R, T> process(Path path);
+
+	/**
+	 * Submits every file of a collection to the executor of this engine.
+	 * 
+	 * @param paths of the files to process.
+	 * @return futures of the results, in the order of <code>paths</code>.
+	 */
+	public abstract List<Future<SyntaxEngineResult<R, T>>> processAll(Collection<Path> paths);
+
+	/**
+	 * Submits every file of a stream to the executor of this engine.
+	 * 
+	 * @param paths of the files to process.
+	 * @return futures of the results, in the encounter order of
+	 *         <code>paths</code>.
+	 */
+	public default List<Future<SyntaxEngineResult<R, T>>> processAll(Stream<Path> paths) {
+		return processAll(paths.collect(Collectors.toList()));
+	}
+
+}
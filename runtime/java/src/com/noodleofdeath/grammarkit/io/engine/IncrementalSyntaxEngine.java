@@ -0,0 +1,68 @@
+package com.noodleofdeath.pastaparser.io.engine;
+
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.io.TextDocument;
+import com.noodleofdeath.pastaparser.io.TextEdit;
+import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventGenerator;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.IncrementalParserListener;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Specifications for a syntax engine that keeps the tokens and top level
+ * syntax trees of a character stream and updates them as the stream is
+ * edited. An edit only retokenizes and reparses the region it damaged, and
+ * listeners are notified of the syntax trees it removed and added.
+ * 
+ * @param <R> raw type used by tokens generated by this engine.
+ * @param <T> type of token used by this engine.
+ */
+public interface IncrementalSyntaxEngine<R, T extends Token<R>>
+		extends GrammarEventGenerator<IncrementalParserListener<R, T>> {
+
+	/** @return grammar of this engine. */
+	public abstract Grammar grammar();
+
+	/** @return current character stream of this engine. */
+	public abstract CharSequence characterStream();
+
+	/** @return current tokens of the character stream of this engine. */
+	public abstract List<T> tokens();
+
+	/**
+	 * @return current top level syntax trees of this engine, in order. As long
+	 *         as every listener has a filter, only syntax trees of rules some
+	 *         filter accepts are kept.
+	 */
+	public abstract List<ParserSyntaxTree<T>> syntaxTrees();
+
+	/**
+	 * Replaces the character stream of this engine and processes it from
+	 * scratch.
+	 * 
+	 * @param characterStream to process.
+	 */
+	public abstract void process(CharSequence characterStream);
+
+	/**
+	 * Applies an edit to the character stream of this engine and updates its
+	 * tokens and syntax trees. If the character stream is a
+	 * {@link TextDocument}, the edit is applied to the document in place.
+	 * 
+	 * @param edit to apply.
+	 */
+	public abstract void edit(TextEdit edit);
+
+	/**
+	 * Updates the tokens and syntax trees of this engine after the edits
+	 * recorded by a document, which is read in place, and clears its edits. If
+	 * the document is not the character stream of this engine, it replaces the
+	 * character stream and is processed from scratch.
+	 * 
+	 * @param document to update from.
+	 */
+	public abstract void update(TextDocument document);
+
+}
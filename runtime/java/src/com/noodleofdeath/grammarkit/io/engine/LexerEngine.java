@@ -31,6 +31,18 @@ public interface LexerEngine<R, T extends Token<R>, L extends Lexer<R, T>> exten
 		return lexer().tokenize(characterStream, 0);
 	}
 
+	/**
+	 * @param characterStream
+	 * @param start
+	 * @param end
+	 * @param spans
+	 * @return
+	 * @see Lexer#highlight(CharSequence, int, int, int[])
+	 */
+	public default int highlight(CharSequence characterStream, int start, int end, int[] spans) {
+		return lexer().highlight(characterStream, start, end, spans);
+	}
+
 	/**
 	 * @param characterStream
 	 * @param lexerRule
@@ -1,19 +1,32 @@
 package com.noodleofdeath.pastaparser.io.engine;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import com.noodleofdeath.pastaparser.io.Cancellation;
+import com.noodleofdeath.pastaparser.io.impl.PipedTokenStream;
 import com.noodleofdeath.pastaparser.io.lexer.Lexer;
 import com.noodleofdeath.pastaparser.io.parser.Parser;
 import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventGenerator;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
 
 /**
  * Specifications for a syntax engine.
  * 
+ * Listeners of a syntax engine are notified of the syntax trees and skipped
+ * tokens of its parser. The engine is notified by its parser with the union of
+ * the filters of its listeners, so the parser only builds the syntax trees of
+ * rules some listener observes, as long as every listener has a filter.
+ * 
  * @param <R> raw type used by tokens generated by this engine.
  * @param <T> type of token used by this engine.
  * @param <L> type of lexer used by this engine.
  * @param <P> type of parser used by this engine.
  */
 public interface SyntaxEngine<R, T extends Token<R>, L extends Lexer<R, T>, P extends Parser<R, T>>
-		extends LexerEngine<R, T, L>, ParserEngine<R, T, P> {
+		extends LexerEngine<R, T, L>, ParserEngine<R, T, P>, GrammarEventGenerator<ParserListener<R, T>> {
 
 	/**
 	 * Processes a character sequence by first tokenizing and then parsing it with
@@ -35,4 +48,104 @@ public interface SyntaxEngine<R, T extends Token<R>, L extends Lexer<R, T>, P ex
 	 */
 	public abstract void process(CharSequence characterStream, boolean verbose);
 
+	/**
+	 * Processes a character sequence like {@link #process(CharSequence)}, but
+	 * stops promptly once a specified cancellation is cancelled. The lexer and
+	 * the parser poll the cancellation before every rule attempt; listeners
+	 * will have been notified of every token and syntax tree generated before
+	 * that.
+	 * 
+	 * @param characterStream to process.
+	 * @param cancellation    to poll while processing.
+	 * @return <code>false</code> if <code>cancellation</code> was cancelled, so
+	 *         the character sequence may only have been processed partially;
+	 *         <code>true</code>, otherwise.
+	 */
+	public default boolean process(CharSequence characterStream, Cancellation cancellation) {
+		Lexer<R, T> lexer = lexer();
+		Parser<R, T> parser = parser();
+		Cancellation lexerCancellation = lexer.cancellation();
+		Cancellation parserCancellation = parser.cancellation();
+		lexer.setCancellation(cancellation);
+		parser.setCancellation(cancellation);
+		try {
+			process(characterStream);
+		} finally {
+			lexer.setCancellation(lexerCancellation);
+			parser.setCancellation(parserCancellation);
+		}
+		return !cancellation.cancelled();
+	}
+
+	/**
+	 * Processes a character sequence by tokenizing it on a new thread while it
+	 * is parsed on the calling thread. Alias for
+	 * <code>processPipelined(characterStream, PipedTokenStream.DefaultCapacity)</code>.
+	 * 
+	 * @param characterStream to process.
+	 */
+	public default void processPipelined(CharSequence characterStream) {
+		processPipelined(characterStream, PipedTokenStream.DefaultCapacity);
+	}
+
+	/**
+	 * Processes a character sequence by tokenizing it on a new thread while it
+	 * is parsed on the calling thread.
+	 * 
+	 * @param characterStream to process.
+	 * @param capacity        most tokens held between the lexer and the parser,
+	 *                        unless the parser looks ahead further.
+	 */
+	public default void processPipelined(CharSequence characterStream, int capacity) {
+		processPipelined(characterStream, capacity, new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				Thread thread = new Thread(command, "lexer");
+				thread.setDaemon(true);
+				thread.start();
+			}
+
+		});
+	}
+
+	/**
+	 * Processes a character sequence by tokenizing it on a thread of a
+	 * specified executor while it is parsed on the calling thread. Tokens are
+	 * passed from the lexer to the parser through a {@link PipedTokenStream},
+	 * so lexer listeners are notified on the lexer thread and parser listeners
+	 * on the calling thread.
+	 * 
+	 * @param characterStream to process.
+	 * @param capacity        most tokens held between the lexer and the parser,
+	 *                        unless the parser looks ahead further.
+	 * @param executor        to run the lexer on.
+	 */
+	public abstract void processPipelined(CharSequence characterStream, int capacity, Executor executor);
+
+	/**
+	 * Returns a publisher of the tokens of a character sequence. Every
+	 * subscription tokenizes the sequence again with its own lexer, on a thread
+	 * of a specified executor, and advances only as far as its subscriber has
+	 * requested tokens.
+	 * 
+	 * @param characterStream to tokenize.
+	 * @param executor        to tokenize on.
+	 * @return publisher of the tokens of <code>characterStream</code>.
+	 */
+	public abstract Flow.Publisher<T> tokenPublisher(CharSequence characterStream, Executor executor);
+
+	/**
+	 * Returns a publisher of the syntax trees of a character sequence. Every
+	 * subscription processes the sequence again with its own lexer and parser,
+	 * on a thread of a specified executor, and advances only as far as its
+	 * subscriber has requested syntax trees.
+	 * 
+	 * @param characterStream to process.
+	 * @param executor        to process on.
+	 * @return publisher of the syntax trees of <code>characterStream</code>.
+	 */
+	public abstract Flow.Publisher<ParserSyntaxTree<T>> syntaxTreePublisher(CharSequence characterStream,
+			Executor executor);
+
 }
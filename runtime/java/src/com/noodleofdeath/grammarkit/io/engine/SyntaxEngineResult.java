@@ -0,0 +1,52 @@
+package com.noodleofdeath.pastaparser.io.engine;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Specifications for the result of processing a single file with a
+ * {@link BatchSyntaxEngine}.
+ * 
+ * @param <R> raw type used by the tokens of this result.
+ * @param <T> type of token of this result.
+ */
+public interface SyntaxEngineResult<R, T extends Token<R>> {
+
+	/** @return path of the processed file. */
+	public abstract Path path();
+
+	/**
+	 * @return token stream generated by the lexer, or <code>null</code> if the
+	 *         file could not be tokenized.
+	 */
+	public abstract TokenStream<R, T> tokenStream();
+
+	/** @return syntax trees generated by the parser, in order. */
+	public abstract List<ParserSyntaxTree<T>> syntaxTrees();
+
+	/** @return tokens the lexer did not match, in order. */
+	public abstract List<T> unmatchedTokens();
+
+	/** @return tokens the parser skipped, in order. */
+	public abstract List<TextToken> skippedTokens();
+
+	/**
+	 * @return exception that stopped processing of the file, or
+	 *         <code>null</code> if it was processed completely.
+	 */
+	public abstract Throwable error();
+
+	/**
+	 * @return <code>true</code> if the file was processed completely;
+	 *         <code>false</code>, otherwise.
+	 */
+	public default boolean succeeded() {
+		return error() == null;
+	}
+
+}
@@ -7,6 +7,9 @@ import com.noodleofdeath.pastaparser.io.lexer.Lexer;
 import com.noodleofdeath.pastaparser.io.parser.Parser;
 import com.noodleofdeath.pastaparser.io.token.TextToken;
 import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventFilter;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.impl.BaseGrammarEventGenerator;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.LexerSyntaxTree;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
 
@@ -19,7 +22,7 @@ import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTre
  * @param <P>
  */
 public abstract class AbstractSyntaxEngine<R, T extends Token<R>, L extends Lexer<R, T>, P extends Parser<R, T>>
-		implements SyntaxEngine<R, T, L, P> {
+		extends BaseGrammarEventGenerator<ParserListener<R, T>> implements SyntaxEngine<R, T, L, P> {
 
 	protected boolean verbose = false;
 
@@ -44,10 +47,49 @@ public abstract class AbstractSyntaxEngine<R, T extends Token<R>, L extends Lexe
 	 */
 	public AbstractSyntaxEngine(LexerEngine<R, T, Lexer<R, T>> lexerEngine,
 			ParserEngine<R, T, Parser<R, T>> parserEngine) {
-		lexerEngine.lexer().addGrammarEventListener(this);
-		parserEngine.parser().addGrammarEventListener(this);
 		this.lexerEngine = lexerEngine;
 		this.parserEngine = parserEngine;
+		lexerEngine.lexer().addGrammarEventListener(this);
+		parserEngine.parser().addGrammarEventListener(this, parserFilter());
+	}
+
+	@Override
+	public boolean addGrammarEventListener(ParserListener<R, T> listener) {
+		return addGrammarEventListener(listener, null);
+	}
+
+	@Override
+	public boolean addGrammarEventListener(ParserListener<R, T> listener, GrammarEventFilter filter) {
+		boolean added = super.addGrammarEventListener(listener, filter);
+		updateParserFilter();
+		return added;
+	}
+
+	@Override
+	public boolean removeGrammarEventListener(ParserListener<R, T> listener) {
+		boolean removed = super.removeGrammarEventListener(listener);
+		updateParserFilter();
+		return removed;
+	}
+
+	@Override
+	public void removeAllGrammarEventListeners() {
+		super.removeAllGrammarEventListeners();
+		updateParserFilter();
+	}
+
+	/**
+	 * @return filter of the syntax trees the parser of this engine notifies it
+	 *         of, which is the union of the filters of its listeners, or
+	 *         <code>null</code> for every syntax tree if it has no listeners.
+	 */
+	protected GrammarEventFilter parserFilter() {
+		return listeners.isEmpty() ? null : union();
+	}
+
+	/** Registers this engine on its parser with {@link #parserFilter()}. */
+	protected void updateParserFilter() {
+		parserEngine.parser().setFilter(this, parserFilter());
 	}
 
 	@Override
@@ -66,12 +108,17 @@ public abstract class AbstractSyntaxEngine<R, T extends Token<R>, L extends Lexe
 	public void didGenerateSyntaxTree(Parser<R, T> parser, ParserSyntaxTree<T> syntaxTree) {
 		if (verbose)
 			System.out.println(String.format("Parser did generate syntax tree: %s", syntaxTree));
+		for (ParserListener<R, T> listener : listeners)
+			if (notifies(listener, syntaxTree.rule()))
+				listener.didGenerateSyntaxTree(parser, syntaxTree);
 	}
 
 	@Override
 	public void didSkipToken(Parser<R, T> parser, TextToken token) {
 		if (verbose)
 			System.out.println(String.format("Parser did skip token: %s", token));
+		for (ParserListener<R, T> listener : listeners)
+			listener.didSkipToken(parser, token);
 	}
 
 }
@@ -0,0 +1,94 @@
+package com.noodleofdeath.pastaparser.io.engine.impl;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.engine.SyntaxEngineResult;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Base implementation of {@link SyntaxEngineResult}.
+ * 
+ * @param <R>
+ * @param <T>
+ */
+public class BaseSyntaxEngineResult<R, T extends Token<R>> implements SyntaxEngineResult<R, T> {
+
+	/** Path of the processed file. */
+	protected Path path;
+
+	/** Token stream generated by the lexer. */
+	protected TokenStream<R, T> tokenStream;
+
+	/** Syntax trees generated by the parser. */
+	protected List<ParserSyntaxTree<T>> syntaxTrees = new ArrayList<>();
+
+	/** Tokens the lexer did not match. */
+	protected List<T> unmatchedTokens = new ArrayList<>();
+
+	/** Tokens the parser skipped. */
+	protected List<TextToken> skippedTokens = new ArrayList<>();
+
+	/** Exception that stopped processing of the file. */
+	protected Throwable error;
+
+	/**
+	 *
+	 * @param path
+	 */
+	public BaseSyntaxEngineResult(Path path) {
+		this.path = path;
+	}
+
+	@Override
+	public Path path() {
+		return path;
+	}
+
+	@Override
+	public TokenStream<R, T> tokenStream() {
+		return tokenStream;
+	}
+
+	/** @param tokenStream */
+	public void setTokenStream(TokenStream<R, T> tokenStream) {
+		this.tokenStream = tokenStream;
+	}
+
+	@Override
+	public List<ParserSyntaxTree<T>> syntaxTrees() {
+		return syntaxTrees;
+	}
+
+	@Override
+	public List<T> unmatchedTokens() {
+		return unmatchedTokens;
+	}
+
+	@Override
+	public List<TextToken> skippedTokens() {
+		return skippedTokens;
+	}
+
+	@Override
+	public Throwable error() {
+		return error;
+	}
+
+	/** @param error */
+	public void setError(Throwable error) {
+		this.error = error;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d syntax trees, %d unmatched tokens, %d skipped tokens%s", path,
+				syntaxTrees.size(), unmatchedTokens.size(), skippedTokens.size(),
+				error != null ? String.format(" (%s)", error) : "");
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.noodleofdeath.pastaparser.io.engine.impl;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.noodleofdeath.pastaparser.io.engine.BatchSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.engine.SyntaxEngineResult;
+import com.noodleofdeath.pastaparser.io.lexer.Lexer;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.BatchSyntaxEngineListener;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventFilter;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.impl.BaseGrammarEventGenerator;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Base implementation of a text {@link BatchSyntaxEngine}.
+ * 
+ * Lexers and parsers keep per-call state, so they are never shared between
+ * tasks. A task borrows an idle worker engine, or creates one if every worker
+ * is busy, and returns it once its file is processed. The number of workers
+ * therefore never exceeds the number of files processed at the same time.
+ */
+public class BaseTextBatchSyntaxEngine extends BaseGrammarEventGenerator<BatchSyntaxEngineListener<String, TextToken>>
+		implements BatchSyntaxEngine<String, TextToken> {
+
+	/** Frozen grammar shared by every worker. */
+	protected final Grammar grammar;
+
+	/** Executor files are submitted to. */
+	protected final ExecutorService executor;
+
+	/** Charset used to decode the processed files. */
+	protected final Charset charset;
+
+	/**
+	 * <code>true</code> if the grammar has rules with the retokenize option, so
+	 * workers are notified of every syntax tree.
+	 */
+	private final boolean retokenizes;
+
+	/** Worker engines that are not processing a file. */
+	private final Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+
+	/**
+	 *
+	 * @param grammar  to process files with. It is frozen if it is not frozen
+	 *                 already.
+	 * @param executor to submit files to.
+	 */
+	public BaseTextBatchSyntaxEngine(Grammar grammar, ExecutorService executor) {
+		this(grammar, executor, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 *
+	 * @param grammar  to process files with. It is frozen if it is not frozen
+	 *                 already.
+	 * @param executor to submit files to.
+	 * @param charset  to decode files with.
+	 */
+	public BaseTextBatchSyntaxEngine(Grammar grammar, ExecutorService executor, Charset charset) {
+		this.grammar = grammar.freeze();
+		this.executor = executor;
+		this.charset = charset;
+		retokenizes = BaseTextSyntaxEngine.Retokenizes(this.grammar);
+		listeners = new CopyOnWriteArrayList<>();
+	}
+
+	@Override
+	public Grammar grammar() {
+		return grammar;
+	}
+
+	@Override
+	public ExecutorService executor() {
+		return executor;
+	}
+
+	@Override
+	public SyntaxEngineResult<String, TextToken> process(Path path) {
+		BaseSyntaxEngineResult<String, TextToken> result = new BaseSyntaxEngineResult<>(path);
+		Worker worker = workers.poll();
+		if (worker == null)
+			worker = new Worker(grammar);
+		worker.result = result;
+		worker.filter = retokenizes || listeners.isEmpty() ? null : union();
+		worker.updateParserFilter();
+		try {
+			String characterStream = new String(Files.readAllBytes(path), charset);
+			result.setTokenStream(worker.tokenize(characterStream));
+			worker.parser().parse(result.tokenStream());
+		} catch (IOException | RuntimeException | StackOverflowError e) {
+			result.setError(e);
+		} finally {
+			worker.result = null;
+			workers.offer(worker);
+		}
+		for (BatchSyntaxEngineListener<String, TextToken> listener : listeners)
+			listener.didProcessFile(this, result);
+		return result;
+	}
+
+	@Override
+	public List<Future<SyntaxEngineResult<String, TextToken>>> processAll(Collection<Path> paths) {
+		List<Future<SyntaxEngineResult<String, TextToken>>> results = new ArrayList<>(paths.size());
+		for (final Path path : paths)
+			results.add(executor.submit(new Callable<SyntaxEngineResult<String, TextToken>>() {
+
+				@Override
+				public SyntaxEngineResult<String, TextToken> call() {
+					return process(path);
+				}
+
+			}));
+		return results;
+	}
+
+	/** Syntax engine that records its events into the result of its current file. */
+	private static class Worker extends BaseTextSyntaxEngine {
+
+		/** Result of the file this worker is processing. */
+		private BaseSyntaxEngineResult<String, TextToken> result;
+
+		/** Union of the filters of the listeners of the batch engine. */
+		private GrammarEventFilter filter;
+
+		/**
+		 *
+		 * @param grammar
+		 */
+		private Worker(Grammar grammar) {
+			super(grammar);
+		}
+
+		@Override
+		protected GrammarEventFilter parserFilter() {
+			return filter;
+		}
+
+		@Override
+		public void didNotMatchToken(Lexer<String, TextToken> lexer, TextToken token) {
+			result.unmatchedTokens().add(token);
+		}
+
+		@Override
+		public void didGenerateSyntaxTree(Parser<String, TextToken> parser, ParserSyntaxTree<TextToken> syntaxTree) {
+			result.syntaxTrees().add(syntaxTree);
+			super.didGenerateSyntaxTree(parser, syntaxTree);
+		}
+
+		@Override
+		public void didSkipToken(Parser<String, TextToken> parser, TextToken token) {
+			result.skippedTokens().add(token);
+		}
+
+	}
+
+}
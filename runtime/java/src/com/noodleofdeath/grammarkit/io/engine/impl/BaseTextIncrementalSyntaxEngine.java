@@ -0,0 +1,549 @@
+package com.noodleofdeath.pastaparser.io.engine.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.io.TextDocument;
+import com.noodleofdeath.pastaparser.io.TextEdit;
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.engine.IncrementalSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.lexer.Lexer;
+import com.noodleofdeath.pastaparser.io.lexer.impl.BaseTextLexer;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.parser.impl.BaseTextParser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventFilter;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.IncrementalParserListener;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.impl.BaseGrammarEventGenerator;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Base implementation of a text {@link IncrementalSyntaxEngine}.
+ *
+ * Every top level syntax tree and every skipped token is kept as an entry that
+ * records the range of tokens it covers and how far the parser looked ahead
+ * while matching it. The lexer reads the character stream through a probe
+ * that records, for every token, how far the lexer looked ahead while
+ * matching it. After an edit, tokens are relexed from the first token whose
+ * lookahead reaches the edit until the lexer reaches the start of an old token
+ * following the edit, and the remaining tokens are only shifted. Entries
+ * whose lookahead ends before the first relexed token are kept, parsing
+ * resumes at the first other entry, and it stops as soon as it reaches the
+ * start of an old entry following the relexed tokens. Both the lexer and the
+ * parser only read forward from the offset they resume at, so everything past
+ * such a synchronization point is unchanged.
+ *
+ * Blocks with the retokenize option are not retokenized.
+ */
+public class BaseTextIncrementalSyntaxEngine
+		extends BaseGrammarEventGenerator<IncrementalParserListener<String, TextToken>>
+		implements IncrementalSyntaxEngine<String, TextToken>, ParserListener<String, TextToken> {
+
+	/** Top level syntax tree or skipped token, and the tokens it covers. */
+	private static final class Entry {
+
+		/** Syntax tree of this entry, or <code>null</code> for a skipped token. */
+		private final ParserSyntaxTree<TextToken> syntaxTree;
+
+		/** Index of the first token covered by this entry. */
+		private int start;
+
+		/** Number of tokens covered by this entry. */
+		private final int count;
+
+		/** Index past the last token read while matching this entry. */
+		private int lookahead;
+
+		/**
+		 *
+		 * @param syntaxTree
+		 * @param start
+		 * @param count
+		 * @param lookahead
+		 */
+		private Entry(ParserSyntaxTree<TextToken> syntaxTree, int start, int count, int lookahead) {
+			this.syntaxTree = syntaxTree;
+			this.start = start;
+			this.count = count;
+			this.lookahead = lookahead;
+		}
+
+	}
+
+	/** Token stream over the current tokens that records parser progress. */
+	private final class Cursor implements TokenStream<String, TextToken> {
+
+		/** Index at which the parser must stop. */
+		private int limit = Integer.MAX_VALUE;
+
+		/** Index of the first token of the entry being matched. */
+		private int start;
+
+		/** Index past the last token read while matching the current entry. */
+		private int lookahead;
+
+		/** Old entries that follow the damaged tokens, in order. */
+		private List<Entry> following = Collections.emptyList();
+
+		/** Index of the next old entry to synchronize with. */
+		private int next;
+
+		/** Difference between new and old token indices past the damage. */
+		private int delta;
+
+		/** First new token index at which parsing may synchronize. */
+		private int threshold;
+
+		@Override
+		public int length() {
+			return Math.min(limit, tokens.size());
+		}
+
+		@Override
+		public boolean hasToken(int index) {
+			lookahead = Math.max(lookahead, index + 1);
+			return index < length();
+		}
+
+		@Override
+		public TextToken get(int index) {
+			lookahead = Math.max(lookahead, index + 1);
+			return tokens.get(index);
+		}
+
+		@Override
+		public void commit(int index) {
+			parsed.add(new Entry(pending, start, index - start, Math.max(lookahead, index)));
+			pending = null;
+			start = lookahead = index;
+			if (index < threshold)
+				return;
+			while (next < following.size() && following.get(next).start + delta < index)
+				++next;
+			if (next < following.size() && following.get(next).start + delta == index)
+				limit = index;
+		}
+
+		@Override
+		public boolean addToken(TextToken token) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public TextToken removeToken(int index) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean removeToken(TextToken token) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	/** Lexer of this engine. */
+	protected final Lexer<String, TextToken> lexer;
+
+	/** Parser of this engine. */
+	protected final Parser<String, TextToken> parser;
+
+	/** Current character stream. */
+	protected CharSequence characterStream = "";
+
+	/** Current tokens. */
+	protected final List<TextToken> tokens = new ArrayList<>();
+
+	/**
+	 * Character offset past the last character the lexer read while matching
+	 * each current token and any skipped characters before it.
+	 */
+	private final List<Integer> lookaheads = new ArrayList<>();
+
+	/** Current entries, in order. */
+	private List<Entry> entries = new ArrayList<>();
+
+	/** Entries generated by the current parse. */
+	private List<Entry> parsed;
+
+	/** Syntax tree generated since the last commit of the current parse. */
+	private ParserSyntaxTree<TextToken> pending;
+
+	/**
+	 *
+	 * @param grammar
+	 */
+	public BaseTextIncrementalSyntaxEngine(Grammar grammar) {
+		lexer = new BaseTextLexer(grammar);
+		parser = new BaseTextParser(grammar, this);
+	}
+
+	@Override
+	public Grammar grammar() {
+		return parser.grammar();
+	}
+
+	@Override
+	public boolean addGrammarEventListener(IncrementalParserListener<String, TextToken> listener) {
+		return addGrammarEventListener(listener, null);
+	}
+
+	@Override
+	public boolean addGrammarEventListener(IncrementalParserListener<String, TextToken> listener,
+			GrammarEventFilter filter) {
+		boolean added = super.addGrammarEventListener(listener, filter);
+		updateParserFilter();
+		return added;
+	}
+
+	@Override
+	public boolean removeGrammarEventListener(IncrementalParserListener<String, TextToken> listener) {
+		boolean removed = super.removeGrammarEventListener(listener);
+		updateParserFilter();
+		return removed;
+	}
+
+	@Override
+	public void removeAllGrammarEventListeners() {
+		super.removeAllGrammarEventListeners();
+		updateParserFilter();
+	}
+
+	/**
+	 * Registers this engine on its parser with the union of the filters of its
+	 * listeners, so the parser matches rules no listener observes as spans and
+	 * they are kept like skipped tokens. Syntax trees already kept are not
+	 * affected.
+	 */
+	private void updateParserFilter() {
+		parser.setFilter(this, listeners.isEmpty() ? null : union());
+	}
+
+	@Override
+	public CharSequence characterStream() {
+		return characterStream;
+	}
+
+	@Override
+	public List<TextToken> tokens() {
+		return Collections.unmodifiableList(tokens);
+	}
+
+	@Override
+	public List<ParserSyntaxTree<TextToken>> syntaxTrees() {
+		List<ParserSyntaxTree<TextToken>> syntaxTrees = new ArrayList<>();
+		for (Entry entry : entries)
+			if (entry.syntaxTree != null)
+				syntaxTrees.add(entry.syntaxTree);
+		return syntaxTrees;
+	}
+
+	@Override
+	public void process(CharSequence characterStream) {
+		List<Entry> removed = entries;
+		this.characterStream = characterStream;
+		if (characterStream instanceof TextDocument)
+			((TextDocument) characterStream).clearEdits();
+		tokens.clear();
+		lookaheads.clear();
+		Probe probe = new Probe(characterStream);
+		lexer.tokenize(probe, 0, new TokenList(tokens, lookaheads, probe));
+		entries = new ArrayList<>();
+		reparse(0, new Cursor(), removed);
+	}
+
+	@Override
+	public void edit(TextEdit edit) {
+		if (characterStream instanceof TextDocument) {
+			TextDocument document = (TextDocument) characterStream;
+			document.apply(edit);
+			update(document);
+		} else
+			edit(edit, edit.apply(characterStream));
+	}
+
+	@Override
+	public void update(TextDocument document) {
+		if (document != characterStream) {
+			process(document);
+			return;
+		}
+		TextEdit edit = document.mergedEdit();
+		document.clearEdits();
+		if (edit != null)
+			edit(edit, document);
+	}
+
+	/**
+	 * Updates the tokens and syntax trees of the current character stream after
+	 * an edit.
+	 *
+	 * @param edit            applied to the current character stream.
+	 * @param characterStream with the edit applied.
+	 */
+	protected void edit(TextEdit edit, final CharSequence characterStream) {
+
+		final int delta = edit.delta();
+		final int oldTokenCount = tokens.size();
+
+		int relexStart = 0;
+		while (relexStart < oldTokenCount && lookaheads.get(relexStart) <= edit.start())
+			++relexStart;
+
+		final int[] sync = { firstTokenStartingAtOrAfter(edit.end()), -1 };
+		final List<TextToken> relexed = new ArrayList<>();
+		final List<Integer> relexedLookaheads = new ArrayList<>();
+		final Probe probe = new Probe(characterStream);
+		lexer.tokenize(probe, relexStart > 0 ? tokens.get(relexStart - 1).end() : 0,
+				new TokenList(relexed, relexedLookaheads, probe) {
+
+					@Override
+					public boolean addToken(TextToken token) {
+						while (sync[0] < oldTokenCount && tokens.get(sync[0]).start() + delta < token.start())
+							++sync[0];
+						if (sync[0] < oldTokenCount && tokens.get(sync[0]).start() + delta == token.start()) {
+							sync[1] = probe.take();
+							return false;
+						}
+						return super.addToken(token);
+					}
+
+				});
+
+		if (sync[1] < 0)
+			sync[0] = oldTokenCount;
+		for (int i = sync[0]; i < oldTokenCount; ++i) {
+			TextToken token = tokens.get(i);
+			token.setStart(token.start() + delta);
+			token.setEnd(token.end() + delta);
+			lookaheads.set(i, lookaheads.get(i) + delta);
+		}
+		if (sync[0] < oldTokenCount)
+			lookaheads.set(sync[0], Math.max(lookaheads.get(sync[0]), sync[1]));
+		tokens.subList(relexStart, sync[0]).clear();
+		tokens.addAll(relexStart, relexed);
+		lookaheads.subList(relexStart, sync[0]).clear();
+		lookaheads.addAll(relexStart, relexedLookaheads);
+		this.characterStream = characterStream;
+
+		int tokenDelta = relexed.size() - (sync[0] - relexStart);
+
+		int first = 0;
+		while (first < entries.size() && entries.get(first).lookahead <= relexStart)
+			++first;
+		int following = first;
+		while (following < entries.size() && entries.get(following).start < sync[0])
+			++following;
+
+		Cursor cursor = new Cursor();
+		cursor.following = entries.subList(following, entries.size());
+		cursor.delta = tokenDelta;
+		cursor.threshold = relexStart + relexed.size();
+
+		List<Entry> removed = new ArrayList<>(entries.subList(first, entries.size()));
+		List<Entry> kept = new ArrayList<>(entries.subList(0, first));
+		int start = first < entries.size() ? entries.get(first).start : tokenEnd(kept);
+		entries = kept;
+		reparse(start, cursor, removed);
+
+	}
+
+	/**
+	 * Parses the current tokens from a specified index until the cursor
+	 * synchronizes with an old entry, then appends the old entries from there
+	 * on and notifies listeners of the removed and added syntax trees.
+	 *
+	 * @param start   token index to parse from.
+	 * @param cursor  to parse through.
+	 * @param removed old entries from the first reparsed entry on.
+	 */
+	private void reparse(int start, Cursor cursor, List<Entry> removed) {
+
+		parsed = new ArrayList<>();
+		cursor.start = cursor.lookahead = start;
+		parser.parse(cursor, start);
+
+		List<Entry> added = parsed;
+		parsed = null;
+		entries.addAll(added);
+
+		int reused = 0;
+		if (cursor.limit < Integer.MAX_VALUE) {
+			for (Entry entry : cursor.following.subList(cursor.next, cursor.following.size())) {
+				entry.start += cursor.delta;
+				entry.lookahead += cursor.delta;
+				entries.add(entry);
+				++reused;
+			}
+		}
+
+		for (Entry entry : removed.subList(0, removed.size() - reused))
+			if (entry.syntaxTree != null)
+				didRemoveSyntaxTree(entry.syntaxTree);
+		for (Entry entry : added)
+			if (entry.syntaxTree != null)
+				didAddSyntaxTree(entry.syntaxTree);
+
+	}
+
+	/**
+	 * @param offset character offset.
+	 * @return index of the first token that starts at or after the specified
+	 *         offset, or the number of tokens if none does.
+	 */
+	private int firstTokenStartingAtOrAfter(int offset) {
+		int low = 0, high = tokens.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (tokens.get(mid).start() < offset)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @param entries
+	 * @return index past the last token covered by the specified entries.
+	 */
+	private static int tokenEnd(List<Entry> entries) {
+		if (entries.isEmpty())
+			return 0;
+		Entry last = entries.get(entries.size() - 1);
+		return last.start + last.count;
+	}
+
+	@Override
+	public void didGenerateSyntaxTree(Parser<String, TextToken> parser, ParserSyntaxTree<TextToken> syntaxTree) {
+		pending = syntaxTree;
+	}
+
+	@Override
+	public void didSkipToken(Parser<String, TextToken> parser, TextToken token) {
+		pending = null;
+	}
+
+	/** @param syntaxTree */
+	private void didAddSyntaxTree(ParserSyntaxTree<TextToken> syntaxTree) {
+		for (IncrementalParserListener<String, TextToken> listener : listeners())
+			if (notifies(listener, syntaxTree.rule()))
+				listener.didAddSyntaxTree(this, syntaxTree);
+	}
+
+	/** @param syntaxTree */
+	private void didRemoveSyntaxTree(ParserSyntaxTree<TextToken> syntaxTree) {
+		for (IncrementalParserListener<String, TextToken> listener : listeners())
+			if (notifies(listener, syntaxTree.rule()))
+				listener.didRemoveSyntaxTree(this, syntaxTree);
+	}
+
+	/** Character stream that records how far the lexer has read it. */
+	private static final class Probe implements CharSequence {
+
+		/** Character stream read through this probe. */
+		private final CharSequence characterStream;
+
+		/** Offset past the last character read since the last take. */
+		private int lookahead = 0;
+
+		/** @param characterStream */
+		private Probe(CharSequence characterStream) {
+			this.characterStream = characterStream;
+		}
+
+		/**
+		 * @return offset past the last character read since the last call,
+		 *         counting a read of the last character as a read past the end,
+		 *         since the lexer may have stopped there only for lack of input.
+		 */
+		private int take() {
+			int lookahead = this.lookahead >= characterStream.length() ? characterStream.length() + 1
+					: this.lookahead;
+			this.lookahead = 0;
+			return lookahead;
+		}
+
+		@Override
+		public int length() {
+			return characterStream.length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index >= lookahead)
+				lookahead = index + 1;
+			return characterStream.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (end > lookahead)
+				lookahead = end;
+			return characterStream.subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return characterStream.toString();
+		}
+
+	}
+
+	/**
+	 * Token stream that appends the tokens added to it to a list, together with
+	 * the lookahead of the lexer for each of them.
+	 */
+	private static class TokenList implements TokenStream<String, TextToken> {
+
+		/** Tokens of this stream. */
+		private final List<TextToken> tokens;
+
+		/** Lookaheads of the tokens of this stream. */
+		private final List<Integer> lookaheads;
+
+		/** Probe the tokens of this stream are lexed through. */
+		private final Probe probe;
+
+		/**
+		 * @param tokens
+		 * @param lookaheads
+		 * @param probe
+		 */
+		private TokenList(List<TextToken> tokens, List<Integer> lookaheads, Probe probe) {
+			this.tokens = tokens;
+			this.lookaheads = lookaheads;
+			this.probe = probe;
+		}
+
+		@Override
+		public int length() {
+			return tokens.size();
+		}
+
+		@Override
+		public TextToken get(int index) {
+			return tokens.get(index);
+		}
+
+		@Override
+		public boolean addToken(TextToken token) {
+			lookaheads.add(probe.take());
+			return tokens.add(token);
+		}
+
+		@Override
+		public TextToken removeToken(int index) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean removeToken(TextToken token) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
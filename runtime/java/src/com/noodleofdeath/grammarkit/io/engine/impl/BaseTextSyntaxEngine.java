@@ -1,12 +1,23 @@
 package com.noodleofdeath.pastaparser.io.engine.impl;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
 import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.impl.AbstractPublisher;
+import com.noodleofdeath.pastaparser.io.impl.BaseTokenStream;
+import com.noodleofdeath.pastaparser.io.impl.PipedTokenStream;
 import com.noodleofdeath.pastaparser.io.lexer.Lexer;
 import com.noodleofdeath.pastaparser.io.lexer.impl.BaseTextLexer;
 import com.noodleofdeath.pastaparser.io.parser.Parser;
 import com.noodleofdeath.pastaparser.io.parser.impl.BaseTextParser;
 import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.jfr.Recorder;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventFilter;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.LexerListener;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.LexerSyntaxTree;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
@@ -17,6 +28,18 @@ import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTre
 public class BaseTextSyntaxEngine
 		extends AbstractSyntaxEngine<String, TextToken, Lexer<String, TextToken>, Parser<String, TextToken>> {
 
+	/**
+	 * Lexer used for retokenized blocks while the lexer of this engine is busy
+	 * on the lexer thread of a pipelined process.
+	 */
+	private volatile Lexer<String, TextToken> blockLexer;
+
+	/**
+	 * Character stream being processed, whose ranges are retokenized in place
+	 * for blocks.
+	 */
+	private CharSequence characterStream = "";
+
 	/**
 	 *
 	 * @param grammar
@@ -40,7 +63,7 @@ public class BaseTextSyntaxEngine
 	public void didGenerateSyntaxTree(Parser<String, TextToken> parser, ParserSyntaxTree<TextToken> syntaxTree) {
 		super.didGenerateSyntaxTree(parser, syntaxTree);
 		for (TextToken token : syntaxTree.tokens())
-			if (token.lexerRule().options().contains("retokenize"))
+			if (token.lexerRule().retokenize())
 				tokenize(token);
 	}
 
@@ -49,6 +72,15 @@ public class BaseTextSyntaxEngine
 		super.didSkipToken(parser, token);
 	}
 
+	/**
+	 * Blocks are retokenized within any syntax tree, so this engine is notified
+	 * of every syntax tree if its grammar has rules with the retokenize option.
+	 */
+	@Override
+	protected GrammarEventFilter parserFilter() {
+		return Retokenizes(parser().grammar()) ? null : super.parserFilter();
+	}
+
 	@Override
 	public Lexer<String, TextToken> lexer() {
 		return lexerEngine.lexer();
@@ -59,10 +91,21 @@ public class BaseTextSyntaxEngine
 		return parserEngine.parser();
 	}
 
+	/**
+	 * Tokenizes a character stream and keeps it, so blocks are retokenized in
+	 * place when its tokens are parsed.
+	 */
+	@Override
+	public TokenStream<String, TextToken> tokenize(CharSequence characterStream) {
+		this.characterStream = characterStream;
+		return lexerEngine.tokenize(characterStream);
+	}
+
 	@Override
 	public void process(CharSequence characterStream, boolean verbose) {
 
 		this.verbose = verbose;
+		this.characterStream = characterStream;
 
 		if (verbose) {
 			System.out.println();
@@ -93,7 +136,91 @@ public class BaseTextSyntaxEngine
 
 	}
 
+	@Override
+	public void processPipelined(final CharSequence characterStream, int capacity, Executor executor) {
+
+		final PipedTokenStream<String, TextToken> tokenStream = new PipedTokenStream<>(capacity);
+		final Lexer<String, TextToken> lexer = lexer();
+
+		this.characterStream = characterStream;
+		blockLexer = new BaseTextLexer(lexer.grammar());
+		for (LexerListener<String, TextToken> listener : lexer.listeners())
+			blockLexer.addGrammarEventListener(listener);
+
+		executor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					lexer.tokenize(characterStream, 0, tokenStream);
+					tokenStream.close();
+				} catch (CancellationException e) {
+					tokenStream.close();
+				} catch (RuntimeException | Error e) {
+					tokenStream.fail(e);
+				}
+			}
+
+		});
+
+		try {
+			parserEngine.parse(tokenStream);
+		} finally {
+			tokenStream.cancel();
+			blockLexer = null;
+		}
+
+	}
+
+	@Override
+	public Flow.Publisher<TextToken> tokenPublisher(final CharSequence characterStream, Executor executor) {
+		final Grammar grammar = lexer().grammar();
+		return new AbstractPublisher<TextToken>(executor) {
+
+			@Override
+			protected void publish(final Emission<TextToken> emission) {
+				new BaseTextLexer(grammar).tokenize(characterStream, 0, new BaseTokenStream<String, TextToken>() {
+
+					@Override
+					public boolean addToken(TextToken token) {
+						emission.emit(token);
+						return true;
+					}
+
+				});
+			}
+
+		};
+	}
+
+	@Override
+	public Flow.Publisher<ParserSyntaxTree<TextToken>> syntaxTreePublisher(final CharSequence characterStream,
+			Executor executor) {
+		final Grammar grammar = parser().grammar();
+		return new AbstractPublisher<ParserSyntaxTree<TextToken>>(executor) {
+
+			@Override
+			protected void publish(final Emission<ParserSyntaxTree<TextToken>> emission) {
+				new BaseTextSyntaxEngine(grammar) {
+
+					@Override
+					public void didGenerateSyntaxTree(Parser<String, TextToken> parser,
+							ParserSyntaxTree<TextToken> syntaxTree) {
+						emission.emit(syntaxTree);
+						super.didGenerateSyntaxTree(parser, syntaxTree);
+					}
+
+				}.process(characterStream);
+			}
+
+		};
+	}
+
 	/**
+	 * Retokenizes and parses the range of a block token, without its outer
+	 * braces, in place in the character stream being processed, so the tokens
+	 * of the block keep their offsets in the stream.
+	 * 
 	 * @param token
 	 */
 	private void tokenize(TextToken token) {
@@ -104,9 +231,29 @@ public class BaseTextSyntaxEngine
 					token.end(), token.length()));
 			System.out.println();
 		}
-		TokenStream<String, TextToken> tokenStream = lexer()
-				.tokenize(token.text(TextToken.StringOptionStripOuterBraces));
+		Object event = Recorder.Instance.beginRetokenize();
+		int start = token.start(), end = token.end();
+		if (end - start > 1 && characterStream.charAt(start) == '{' && characterStream.charAt(end - 1) == '}') {
+			++start;
+			--end;
+		}
+		TokenStream<String, TextToken> tokenStream = (blockLexer != null ? blockLexer : lexer())
+				.tokenize(characterStream, start, end);
 		parser().parse(tokenStream);
+		Recorder.Instance.endRetokenize(event, parser().grammar().id(), token.lexerRule().id(), token.length(),
+				tokenStream.length());
+	}
+
+	/**
+	 * @param grammar
+	 * @return <code>true</code> if the specified grammar has lexer rules with
+	 *         the retokenize option; <code>false</code>, otherwise.
+	 */
+	protected static boolean Retokenizes(Grammar grammar) {
+		for (GrammarRule rule : grammar.rules(GrammarRuleType.LexerRule))
+			if (rule.retokenize())
+				return true;
+		return false;
 	}
 
 }
@@ -0,0 +1,149 @@
+package com.noodleofdeath.pastaparser.io.impl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Publisher that generates the items of each subscription on a thread of an
+ * executor.
+ * 
+ * Items are handed to {@link Emission#emit(Object)}, which blocks until the
+ * subscriber has requested them. A slow subscriber therefore throttles the
+ * generating lexer or parser instead of items queuing up. Cancelling a
+ * subscription makes the next <code>emit</code> throw
+ * {@link CancellationException}, which unwinds the generator.
+ * 
+ * @param <E> type of published item.
+ */
+public abstract class AbstractPublisher<E> implements Flow.Publisher<E> {
+
+	/** Executor items are generated on. */
+	protected final Executor executor;
+
+	/**
+	 *
+	 * @param executor to generate items on.
+	 */
+	public AbstractPublisher(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Generates the items of a subscription by passing each of them to
+	 * {@link Emission#emit(Object)}.
+	 * 
+	 * @param emission of the subscription.
+	 */
+	protected abstract void publish(Emission<E> emission);
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super E> subscriber) {
+		final Emission<E> emission = new Emission<>(subscriber);
+		subscriber.onSubscribe(emission);
+		executor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				Throwable failure;
+				try {
+					publish(emission);
+					failure = emission.failure();
+				} catch (CancellationException e) {
+					failure = emission.failure();
+				} catch (RuntimeException | Error e) {
+					failure = e;
+				}
+				if (failure != null)
+					subscriber.onError(failure);
+				else if (!emission.cancelled())
+					subscriber.onComplete();
+			}
+
+		});
+	}
+
+	/**
+	 * Subscription whose items are emitted as its subscriber demands them.
+	 * 
+	 * @param <E> type of published item.
+	 */
+	protected static final class Emission<E> implements Flow.Subscription {
+
+		/** Subscriber of this emission. */
+		private final Flow.Subscriber<? super E> subscriber;
+
+		/** Number of items requested and not yet emitted. */
+		private long demand;
+
+		/** <code>true</code> if this emission was cancelled. */
+		private boolean cancelled;
+
+		/** Invalid request that cancelled this emission, if one exists. */
+		private Throwable failure;
+
+		/**
+		 *
+		 * @param subscriber
+		 */
+		private Emission(Flow.Subscriber<? super E> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public synchronized void request(long n) {
+			if (n <= 0) {
+				failure = new IllegalArgumentException(String.format("Non-positive request: %d", n));
+				cancelled = true;
+			} else {
+				demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+			}
+			notifyAll();
+		}
+
+		@Override
+		public synchronized void cancel() {
+			cancelled = true;
+			notifyAll();
+		}
+
+		/** @return <code>true</code> if this emission was cancelled. */
+		public synchronized boolean cancelled() {
+			return cancelled;
+		}
+
+		/** @return invalid request that cancelled this emission, if one exists. */
+		private synchronized Throwable failure() {
+			return failure;
+		}
+
+		/**
+		 * Passes an item to the subscriber of this emission once it has been
+		 * requested, blocking the calling thread until then.
+		 * 
+		 * @param item to emit.
+		 * @throws CancellationException if this emission is cancelled, or the
+		 *                               calling thread is interrupted, before
+		 *                               the item is requested.
+		 */
+		public void emit(E item) {
+			synchronized (this) {
+				while (demand == 0 && !cancelled) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						cancelled = true;
+					}
+				}
+				if (cancelled)
+					throw new CancellationException("Subscription was cancelled");
+				if (demand != Long.MAX_VALUE)
+					--demand;
+			}
+			subscriber.onNext(item);
+		}
+
+	}
+
+}
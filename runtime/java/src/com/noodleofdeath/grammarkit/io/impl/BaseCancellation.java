@@ -0,0 +1,73 @@
+package com.noodleofdeath.pastaparser.io.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import com.noodleofdeath.pastaparser.io.Cancellation;
+
+/**
+ * Base implementation of a {@link Cancellation} that is cancelled explicitly
+ * by {@link #cancel()} from any thread or once an optional deadline passes.
+ * The clock is only read every {@link #ClockInterval} polls, so a deadline may
+ * be overrun by that many rule attempts.
+ */
+public class BaseCancellation implements Cancellation {
+
+	/** Number of polls between two reads of the clock. */
+	public static final int ClockInterval = 64;
+
+	/** <code>true</code> once this cancellation is cancelled. */
+	private volatile boolean cancelled = false;
+
+	/** {@link System#nanoTime()} at which this cancellation expires. */
+	private final long deadline;
+
+	/** <code>true</code> if this cancellation has a deadline. */
+	private final boolean expires;
+
+	/** Polls since the clock was last read. */
+	private int polls = 0;
+
+	/** Constructs a new cancellation without a deadline. */
+	public BaseCancellation() {
+		deadline = 0;
+		expires = false;
+	}
+
+	/**
+	 * Constructs a new cancellation that expires after a specified timeout.
+	 * 
+	 * @param timeout after which this cancellation expires.
+	 * @param unit    of <code>timeout</code>.
+	 */
+	public BaseCancellation(long timeout, TimeUnit unit) {
+		deadline = System.nanoTime() + unit.toNanos(timeout);
+		expires = true;
+	}
+
+	/**
+	 * @param timeout after which the returned cancellation expires.
+	 * @param unit    of <code>timeout</code>.
+	 * @return new cancellation that expires after the specified timeout.
+	 */
+	public static BaseCancellation Deadline(long timeout, TimeUnit unit) {
+		return new BaseCancellation(timeout, unit);
+	}
+
+	/** Cancels this cancellation. */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	@Override
+	public boolean cancelled() {
+		if (cancelled)
+			return true;
+		if (expires && ++polls >= ClockInterval) {
+			polls = 0;
+			if (System.nanoTime() - deadline >= 0)
+				cancelled = true;
+		}
+		return cancelled;
+	}
+
+}
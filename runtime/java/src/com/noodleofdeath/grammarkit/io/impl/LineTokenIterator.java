@@ -0,0 +1,99 @@
+package com.noodleofdeath.pastaparser.io.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import com.noodleofdeath.pastaparser.io.lexer.Lexer;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+
+/**
+ * Iterator over the tokens of a character stream read from a reader one line
+ * at a time, for use as the source of a {@link WindowedTokenStream}. Each line
+ * is tokenized together with its line terminator as soon as it is read, and
+ * the offsets of its tokens are shifted to offsets in the whole stream, so
+ * only the current line is held in memory. Lines are tokenized separately, so
+ * tokens of the grammar of the lexer must not span lines.
+ */
+public class LineTokenIterator implements Iterator<TextToken> {
+
+	/** Lexer that tokenizes each line. */
+	private final Lexer<String, TextToken> lexer;
+
+	/** Reader the lines are read from. */
+	private final BufferedReader reader;
+
+	/** Tokens of the current line not yet returned. */
+	private final Queue<TextToken> pending = new ArrayDeque<>();
+
+	/** Offset of the next line in the whole character stream. */
+	private int offset = 0;
+
+	/**
+	 * Constructs a new line token iterator.
+	 * 
+	 * @param lexer  to tokenize each line with.
+	 * @param reader to read lines from.
+	 */
+	public LineTokenIterator(Lexer<String, TextToken> lexer, Reader reader) {
+		this.lexer = lexer;
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * @throws UncheckedIOException if reading the next line fails.
+	 */
+	@Override
+	public boolean hasNext() {
+		while (pending.isEmpty()) {
+			String line = readLine();
+			if (line == null)
+				return false;
+			final int offset = this.offset;
+			lexer.tokenize(line, 0, new BaseTokenStream<String, TextToken>() {
+
+				@Override
+				public boolean addToken(TextToken token) {
+					token.setStart(token.start() + offset);
+					token.setEnd(token.end() + offset);
+					return pending.add(token);
+				}
+
+			});
+			this.offset += line.length();
+		}
+		return true;
+	}
+
+	@Override
+	public TextToken next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		return pending.remove();
+	}
+
+	/**
+	 * @return next line including its line terminator, or <code>null</code> at
+	 *         the end of the reader.
+	 */
+	private String readLine() {
+		try {
+			StringBuilder line = new StringBuilder();
+			int c;
+			while ((c = reader.read()) > -1) {
+				line.append((char) c);
+				if (c == '\n')
+					break;
+			}
+			return line.length() > 0 ? line.toString() : null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
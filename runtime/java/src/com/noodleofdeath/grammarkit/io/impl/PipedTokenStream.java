@@ -0,0 +1,243 @@
+package com.noodleofdeath.pastaparser.io.impl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.LockSupport;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.token.Token;
+
+/**
+ * Bounded token stream written by one producer thread and read by one consumer
+ * thread.
+ * 
+ * Tokens are kept in a ring buffer. The producer blocks while the buffer holds
+ * <code>capacity</code> tokens the consumer has not committed. The consumer
+ * blocks in {@link #hasToken(int)} and {@link #get(int)} until the requested
+ * token is added or the stream is closed. A consumer that looks ahead further
+ * than the buffer holds past its last commit asks the producer to grow the
+ * buffer, which the producer does instead of blocking once the buffer is
+ * full. The buffer never shrinks.
+ * 
+ * @param <R>
+ * @param <T>
+ */
+public class PipedTokenStream<R, T extends Token<R>> implements TokenStream<R, T> {
+
+	/** Default capacity of a piped token stream. */
+	public static final int DefaultCapacity = 4096;
+
+	/**
+	 * Tokens of this stream, indexed by token index modulo its length, which is
+	 * a power of two. Only the producer replaces it.
+	 */
+	private volatile Object[] buffer;
+
+	/** Capacity the consumer needs to look ahead as far as it has. */
+	private volatile int requiredCapacity;
+
+	/** Index of the first token not yet committed by the consumer. */
+	private volatile int head;
+
+	/** Number of tokens added by the producer. */
+	private volatile int tail;
+
+	/** <code>true</code> if the producer will add no more tokens. */
+	private volatile boolean closed;
+
+	/** <code>true</code> if the consumer will read no more tokens. */
+	private volatile boolean cancelled;
+
+	/** Exception that stopped the producer, if one exists. */
+	private volatile Throwable failure;
+
+	/** Producer thread while it waits for room, if it is waiting. */
+	private volatile Thread waitingProducer;
+
+	/** Consumer thread while it waits for a token, if it is waiting. */
+	private volatile Thread waitingConsumer;
+
+	/** Constructs a new piped token stream with the default capacity. */
+	public PipedTokenStream() {
+		this(DefaultCapacity);
+	}
+
+	/**
+	 * Constructs a new piped token stream.
+	 * 
+	 * @param capacity most tokens held at once, rounded up to a power of two,
+	 *                 until the consumer looks ahead further.
+	 */
+	public PipedTokenStream(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException(String.format("Invalid capacity: %d", capacity));
+		buffer = new Object[Size(capacity)];
+	}
+
+	/**
+	 * @param capacity positive number of tokens.
+	 * @return smallest power of two not less than the specified capacity.
+	 */
+	private static int Size(int capacity) {
+		return capacity > 1 ? Integer.highestOneBit(capacity - 1) << 1 : 1;
+	}
+
+	/** @return most tokens this stream holds at once. */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/** @return number of tokens added to this stream so far. */
+	@Override
+	public int length() {
+		return tail;
+	}
+
+	@Override
+	public boolean hasToken(int index) {
+		if (index < tail)
+			return true;
+		waitingConsumer = Thread.currentThread();
+		try {
+			while (index >= tail) {
+				if (closed) {
+					if (index < tail)
+						return true;
+					if (failure != null)
+						throw new IllegalStateException("Token stream producer failed", failure);
+					return false;
+				}
+				if (index - head >= buffer.length && index - head >= requiredCapacity) {
+					requiredCapacity = index - head + 1;
+					Thread producer = waitingProducer;
+					if (producer != null)
+						LockSupport.unpark(producer);
+				}
+				LockSupport.park(this);
+			}
+			return true;
+		} finally {
+			waitingConsumer = null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index < head)
+			throw new IndexOutOfBoundsException(String.format("Token %d was already committed", index));
+		if (!hasToken(index))
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Length: %d", index, tail));
+		Object[] buffer = this.buffer;
+		return (T) buffer[index & (buffer.length - 1)];
+	}
+
+	@Override
+	public void commit(int index) {
+		int head = this.head;
+		if (index <= head)
+			return;
+		Object[] buffer = this.buffer;
+		for (int i = head, end = Math.min(index, tail); i < end; ++i)
+			buffer[i & (buffer.length - 1)] = null;
+		this.head = index;
+		Thread producer = waitingProducer;
+		if (producer != null)
+			LockSupport.unpark(producer);
+	}
+
+	/**
+	 * Adds a token to the end of this stream, blocking while the stream is full
+	 * unless the consumer looks ahead further than the stream holds.
+	 * 
+	 * @throws CancellationException if the consumer cancelled this stream.
+	 */
+	@Override
+	public boolean addToken(T token) {
+		if (closed)
+			throw new IllegalStateException("Cannot add a token to a closed token stream");
+		int tail = this.tail;
+		Object[] buffer = this.buffer;
+		if (tail - head >= buffer.length) {
+			waitingProducer = Thread.currentThread();
+			try {
+				while (tail - head >= buffer.length && !cancelled) {
+					if (requiredCapacity > buffer.length) {
+						buffer = grow(requiredCapacity);
+						break;
+					}
+					LockSupport.park(this);
+				}
+			} finally {
+				waitingProducer = null;
+			}
+		}
+		if (cancelled)
+			throw new CancellationException("Token stream was cancelled by its consumer");
+		buffer[tail & (buffer.length - 1)] = token;
+		this.tail = tail + 1;
+		Thread consumer = waitingConsumer;
+		if (consumer != null)
+			LockSupport.unpark(consumer);
+		return true;
+	}
+
+	/**
+	 * Replaces the buffer of this stream with a larger copy. Called by the
+	 * producer only.
+	 * 
+	 * @param capacity fewest tokens the new buffer holds.
+	 * @return the new buffer.
+	 */
+	private Object[] grow(int capacity) {
+		Object[] buffer = this.buffer;
+		Object[] grown = new Object[Size(capacity)];
+		for (int i = head, end = tail; i < end; ++i)
+			grown[i & (grown.length - 1)] = buffer[i & (buffer.length - 1)];
+		this.buffer = grown;
+		return grown;
+	}
+
+	/** Signals that the producer will add no more tokens. */
+	public void close() {
+		closed = true;
+		Thread consumer = waitingConsumer;
+		if (consumer != null)
+			LockSupport.unpark(consumer);
+	}
+
+	/**
+	 * Closes this stream because the producer failed. The consumer reads the
+	 * tokens added so far and then receives an {@link IllegalStateException}
+	 * caused by <code>failure</code>.
+	 * 
+	 * @param failure that stopped the producer.
+	 */
+	public void fail(Throwable failure) {
+		this.failure = failure;
+		close();
+	}
+
+	/** Signals that the consumer will read no more tokens. */
+	public void cancel() {
+		cancelled = true;
+		Thread producer = waitingProducer;
+		if (producer != null)
+			LockSupport.unpark(producer);
+	}
+
+	/** @return <code>true</code> if the producer will add no more tokens. */
+	public boolean closed() {
+		return closed;
+	}
+
+	@Override
+	public T removeToken(int index) {
+		throw new UnsupportedOperationException("Cannot remove a token from a piped token stream");
+	}
+
+	@Override
+	public boolean removeToken(T token) {
+		throw new UnsupportedOperationException("Cannot remove a token from a piped token stream");
+	}
+
+}
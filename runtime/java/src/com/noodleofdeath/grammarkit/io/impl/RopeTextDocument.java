@@ -0,0 +1,269 @@
+package com.noodleofdeath.pastaparser.io.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.io.TextDocument;
+import com.noodleofdeath.pastaparser.io.TextEdit;
+
+/**
+ * Implementation of {@link TextDocument} backed by a rope.
+ *
+ * The text is kept in leaves of at most {@link #MaxLeafLength} characters at
+ * the bottom of a height balanced binary tree whose branches record the length
+ * of their subtree, so an edit splits and joins <code>O(log n)</code> nodes and
+ * copies no more than a leaf of the existing text. Reading a character descends
+ * the tree once per leaf: the leaf of the last character read is cached, so a
+ * lexer reading the document in order reads most characters in constant time.
+ * Small adjacent leaves are merged as they are joined, so a series of single
+ * character edits does not fragment the text. A document is not thread safe.
+ */
+public class RopeTextDocument implements TextDocument {
+
+	/** Most characters of a single leaf of a rope. */
+	public static final int MaxLeafLength = 512;
+
+	/** Node of a rope. Nodes are immutable and shared between edits. */
+	private static final class Node {
+
+		/** Text of this node if it is a leaf, or <code>null</code>. */
+		private final String text;
+
+		/** Left subtree of this node if it is a branch, or <code>null</code>. */
+		private final Node left;
+
+		/** Right subtree of this node if it is a branch, or <code>null</code>. */
+		private final Node right;
+
+		/** Number of characters of the subtree of this node. */
+		private final int length;
+
+		/** Height of the subtree of this node; leaves have height 0. */
+		private final int height;
+
+		/** @param text */
+		private Node(String text) {
+			this.text = text;
+			left = right = null;
+			length = text.length();
+			height = 0;
+		}
+
+		/**
+		 * @param left
+		 * @param right
+		 */
+		private Node(Node left, Node right) {
+			text = null;
+			this.left = left;
+			this.right = right;
+			length = left.length + right.length;
+			height = Math.max(left.height, right.height) + 1;
+		}
+
+		/** @return <code>true</code> if this node is a leaf. */
+		private boolean leaf() {
+			return text != null;
+		}
+
+	}
+
+	/** Root of the rope, or <code>null</code> if this document is empty. */
+	private Node root;
+
+	/** Edits applied since the edits were last cleared. */
+	private final List<TextEdit> edits = new ArrayList<>();
+
+	/** Text of the leaf of the last character read. */
+	private String leaf = "";
+
+	/** Offset of the first character of {@link #leaf}. */
+	private int leafStart = 0;
+
+	/** Constructs a new empty document. */
+	public RopeTextDocument() {
+		this("");
+	}
+
+	/**
+	 * Constructs a new document with an initial text.
+	 *
+	 * @param text of the document.
+	 */
+	public RopeTextDocument(CharSequence text) {
+		String string = text.toString();
+		root = Build(string, 0, string.length());
+	}
+
+	@Override
+	public int length() {
+		return root != null ? root.length : 0;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < leafStart || index >= leafStart + leaf.length()) {
+			if (index < 0 || index >= length())
+				throw new IndexOutOfBoundsException(String.format("Index %d exceeds length %d", index, length()));
+			Node node = root;
+			int start = 0;
+			while (!node.leaf()) {
+				if (index - start < node.left.length)
+					node = node.left;
+				else {
+					start += node.left.length;
+					node = node.right;
+				}
+			}
+			leaf = node.text;
+			leafStart = start;
+		}
+		return leaf.charAt(index - leafStart);
+	}
+
+	/**
+	 * Returns the text of a range of this document as a string, which copies
+	 * only the characters of the range.
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end < start || end > length())
+			throw new IndexOutOfBoundsException(String.format("Range (%d, %d) exceeds length %d", start, end, length()));
+		if (start >= leafStart && end <= leafStart + leaf.length())
+			return leaf.substring(start - leafStart, end - leafStart);
+		StringBuilder text = new StringBuilder(end - start);
+		Append(root, 0, start, end, text);
+		return text.toString();
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length()).toString();
+	}
+
+	@Override
+	public void replace(int start, int end, String text) {
+		if (start < 0 || end < start || end > length())
+			throw new IndexOutOfBoundsException(String.format("Range (%d, %d) exceeds length %d", start, end, length()));
+		if (text == null)
+			text = "";
+		if (start == end && text.isEmpty())
+			return;
+		Node[] head = Split(root, start);
+		Node[] tail = Split(head[1], end - start);
+		root = Join(Join(head[0], Build(text, 0, text.length())), tail[1]);
+		leaf = "";
+		leafStart = 0;
+		edits.add(new TextEdit(start, end, text));
+	}
+
+	@Override
+	public List<TextEdit> edits() {
+		return Collections.unmodifiableList(edits);
+	}
+
+	@Override
+	public void clearEdits() {
+		edits.clear();
+	}
+
+	/**
+	 * @param text  to build a rope of.
+	 * @param start offset of the first character of the rope in the text.
+	 * @param end   offset after the last character of the rope in the text.
+	 * @return balanced rope of a range of the specified text, or
+	 *         <code>null</code> if the range is empty.
+	 */
+	private static Node Build(String text, int start, int end) {
+		if (start == end)
+			return null;
+		if (end - start <= MaxLeafLength)
+			return new Node(text.substring(start, end));
+		int middle = start + (end - start) / 2;
+		return new Node(Build(text, start, middle), Build(text, middle, end));
+	}
+
+	/**
+	 * Appends the characters of a rope within a range of this document.
+	 *
+	 * @param node   root of the rope.
+	 * @param offset of the first character of the rope in this document.
+	 * @param start  offset of the range.
+	 * @param end    offset of the range.
+	 * @param text   to append to.
+	 */
+	private static void Append(Node node, int offset, int start, int end, StringBuilder text) {
+		if (node == null || end <= offset || start >= offset + node.length)
+			return;
+		if (node.leaf()) {
+			text.append(node.text, Math.max(0, start - offset), Math.min(node.length, end - offset));
+			return;
+		}
+		Append(node.left, offset, start, end, text);
+		Append(node.right, offset + node.left.length, start, end, text);
+	}
+
+	/**
+	 * @param node  root of the rope to split.
+	 * @param index offset at which to split.
+	 * @return ropes of the characters before and after the specified offset,
+	 *         either of which is <code>null</code> if it is empty.
+	 */
+	private static Node[] Split(Node node, int index) {
+		if (node == null || index <= 0)
+			return new Node[] { null, node };
+		if (index >= node.length)
+			return new Node[] { node, null };
+		if (node.leaf())
+			return new Node[] { new Node(node.text.substring(0, index)), new Node(node.text.substring(index)) };
+		if (index < node.left.length) {
+			Node[] split = Split(node.left, index);
+			return new Node[] { split[0], Join(split[1], node.right) };
+		}
+		Node[] split = Split(node.right, index - node.left.length);
+		return new Node[] { Join(node.left, split[0]), split[1] };
+	}
+
+	/**
+	 * @param left  rope of the first characters, or <code>null</code>.
+	 * @param right rope of the last characters, or <code>null</code>.
+	 * @return balanced rope of the characters of both ropes.
+	 */
+	private static Node Join(Node left, Node right) {
+		if (left == null)
+			return right;
+		if (right == null)
+			return left;
+		if (left.leaf() && right.leaf() && left.length + right.length <= MaxLeafLength)
+			return new Node(left.text + right.text);
+		if (left.height > right.height + 1 || (right.leaf() && !left.leaf() && left.right.leaf()
+				&& left.right.length + right.length <= MaxLeafLength))
+			return Balance(left.left, Join(left.right, right));
+		if (right.height > left.height + 1 || (left.leaf() && !right.leaf() && right.left.leaf()
+				&& left.length + right.left.length <= MaxLeafLength))
+			return Balance(Join(left, right.left), right.right);
+		return new Node(left, right);
+	}
+
+	/**
+	 * @param left  rope of the first characters.
+	 * @param right rope of the last characters, whose height differs from the
+	 *              height of <code>left</code> by at most two.
+	 * @return branch of both ropes, rotated if their heights differ by two.
+	 */
+	private static Node Balance(Node left, Node right) {
+		if (left.height > right.height + 1) {
+			if (left.left.height >= left.right.height)
+				return new Node(left.left, new Node(left.right, right));
+			return new Node(new Node(left.left, left.right.left), new Node(left.right.right, right));
+		}
+		if (right.height > left.height + 1) {
+			if (right.right.height >= right.left.height)
+				return new Node(new Node(left, right.left), right.right);
+			return new Node(new Node(left, right.left.left), new Node(right.left.right, right.right));
+		}
+		return new Node(left, right);
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.noodleofdeath.pastaparser.io.impl;
+
+import java.util.Iterator;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.token.Token;
+
+/**
+ * Token stream that pulls its tokens lazily from an iterator and only keeps
+ * the window of tokens between the last commit and the furthest token read.
+ * 
+ * Tokens are kept in a ring buffer that grows to fit the longest lookahead of
+ * the reader, so a parser that commits after every top level syntax tree
+ * holds a number of tokens bounded by the grammar rather than by the input,
+ * and can parse a source that never ends. Reading a token before the last
+ * commit throws {@link IndexOutOfBoundsException}.
+ * 
+ * @param <R>
+ * @param <T>
+ */
+public class WindowedTokenStream<R, T extends Token<R>> implements TokenStream<R, T> {
+
+	/** Initial capacity of a windowed token stream. */
+	public static final int InitialCapacity = 64;
+
+	/** Source of the tokens of this stream. */
+	private final Iterator<? extends T> source;
+
+	/** Tokens of the window, indexed by token index modulo its length. */
+	private Object[] buffer = new Object[InitialCapacity];
+
+	/** Index of the first token not yet committed. */
+	private int head = 0;
+
+	/** Number of tokens pulled from the source or added so far. */
+	private int tail = 0;
+
+	/**
+	 * Constructs a new windowed token stream.
+	 * 
+	 * @param source of the tokens of this stream.
+	 */
+	public WindowedTokenStream(Iterator<? extends T> source) {
+		this.source = source;
+	}
+
+	/** @return number of tokens currently held by this stream. */
+	public int window() {
+		return tail - head;
+	}
+
+	/** @return number of tokens pulled from the source or added so far. */
+	@Override
+	public int length() {
+		return tail;
+	}
+
+	@Override
+	public boolean hasToken(int index) {
+		while (index >= tail && source.hasNext())
+			addToken(source.next());
+		return index < tail;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index < head)
+			throw new IndexOutOfBoundsException(String.format("Token %d was already committed", index));
+		if (!hasToken(index))
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Length: %d", index, tail));
+		return (T) buffer[index & (buffer.length - 1)];
+	}
+
+	@Override
+	public void commit(int index) {
+		if (index <= head)
+			return;
+		int mask = buffer.length - 1;
+		for (int i = head, end = Math.min(index, tail); i < end; ++i)
+			buffer[i & mask] = null;
+		head = Math.min(index, tail);
+	}
+
+	/**
+	 * Adds a token to the end of this stream, after every token of the source
+	 * pulled so far.
+	 */
+	@Override
+	public boolean addToken(T token) {
+		if (tail - head == buffer.length) {
+			Object[] buffer = new Object[this.buffer.length << 1];
+			int mask = this.buffer.length - 1;
+			for (int i = head; i < tail; ++i)
+				buffer[i & (buffer.length - 1)] = this.buffer[i & mask];
+			this.buffer = buffer;
+		}
+		buffer[tail & (buffer.length - 1)] = token;
+		++tail;
+		return true;
+	}
+
+	@Override
+	public T removeToken(int index) {
+		throw new UnsupportedOperationException("Cannot remove a token from a windowed token stream");
+	}
+
+	@Override
+	public boolean removeToken(T token) {
+		throw new UnsupportedOperationException("Cannot remove a token from a windowed token stream");
+	}
+
+}
@@ -2,12 +2,16 @@ package com.noodleofdeath.pastaparser.io.lexer;
 
 import java.util.List;
 
+import com.noodleofdeath.pastaparser.io.Cancellation;
 import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.impl.BaseTokenStream;
 import com.noodleofdeath.pastaparser.io.token.TextToken;
 import com.noodleofdeath.pastaparser.io.token.Token;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventGenerator;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.LexerListener;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.profiler.GrammarProfiler;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.LexerSyntaxTree;
 
@@ -30,6 +34,29 @@ public interface Lexer<R, T extends Token<R>> extends GrammarEventGenerator<Lexe
 	/** @param Grammar */
 	public abstract void setGrammar(Grammar grammar);
 
+	/** @return cancellation polled by this lexer before every rule attempt. */
+	public abstract Cancellation cancellation();
+
+	/**
+	 * Sets the cancellation polled by this lexer before every rule attempt.
+	 * Once it is cancelled, tokenizing and highlighting stop before the token
+	 * or span being matched.
+	 * 
+	 * @param cancellation to poll, or {@link Cancellation#None}.
+	 */
+	public abstract void setCancellation(Cancellation cancellation);
+
+	/** @return profiler of this lexer, or <code>null</code> if it has none. */
+	public abstract GrammarProfiler profiler();
+
+	/**
+	 * Sets the profiler this lexer notifies of every attempt to match a top
+	 * level or referenced lexer rule while tokenizing.
+	 * 
+	 * @param profiler to notify, or <code>null</code> to stop profiling.
+	 */
+	public abstract void setProfiler(GrammarProfiler profiler);
+
 	/** @return */
 	public abstract List<T> unmatchedAtoms();
 
@@ -49,7 +76,67 @@ public interface Lexer<R, T extends Token<R>> extends GrammarEventGenerator<Lexe
 	 * @param offset
 	 * @return
 	 */
-	public abstract TokenStream<String, TextToken> tokenize(CharSequence characterStream, int offset);
+	public default TokenStream<String, TextToken> tokenize(CharSequence characterStream, int offset) {
+		return tokenize(characterStream, offset, new BaseTokenStream<>());
+	}
+
+	/**
+	 * Tokenizes a character stream into a specified token stream, adding each
+	 * token as soon as it is matched. Tokenizing stops early if the token
+	 * stream refuses a token by returning <code>false</code> from
+	 * {@link TokenStream#addToken(Token)}.
+	 * 
+	 * @param characterStream to tokenize.
+	 * @param offset          at which to begin tokenizing.
+	 * @param tokenStream     to add the generated tokens to.
+	 * @return <code>tokenStream</code>.
+	 */
+	public abstract TokenStream<String, TextToken> tokenize(CharSequence characterStream, int offset,
+			TokenStream<String, TextToken> tokenStream);
+
+	/**
+	 * @param characterStream
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public default TokenStream<String, TextToken> tokenize(CharSequence characterStream, int start, int end) {
+		return tokenize(characterStream, start, end, new BaseTokenStream<>());
+	}
+
+	/**
+	 * Tokenizes the range <code>[start, end)</code> of a character stream into a
+	 * specified token stream, as {@link #tokenize(CharSequence, int, TokenStream)}
+	 * does for the rest of the stream. No match extends past <code>end</code>,
+	 * and the range is lexed in place, so the offsets of the generated tokens
+	 * are offsets into the whole stream and no part of it is copied other than
+	 * the values of the tokens.
+	 * 
+	 * @param characterStream to tokenize.
+	 * @param start           offset at which to begin tokenizing.
+	 * @param end             offset at which to stop tokenizing.
+	 * @param tokenStream     to add the generated tokens to.
+	 * @return <code>tokenStream</code>.
+	 */
+	public abstract TokenStream<String, TextToken> tokenize(CharSequence characterStream, int start, int end,
+			TokenStream<String, TextToken> tokenStream);
+
+	/**
+	 * Highlights a range of a character stream without generating tokens or
+	 * syntax trees. Writes one span of three ints for every match of a lexer
+	 * rule that has a category: its start offset, its end offset and the
+	 * {@link GrammarAnalysis#categoryId(GrammarRule) category id} of the rule.
+	 * Matching begins at <code>start</code>, which should be a token boundary
+	 * such as the beginning of a line, and stops at the first match that ends
+	 * at or after <code>end</code>, or when the buffer is full.
+	 * 
+	 * @param characterStream to highlight.
+	 * @param start           offset at which to begin.
+	 * @param end             offset at which to stop.
+	 * @param spans           buffer to write spans to.
+	 * @return number of spans written.
+	 */
+	public abstract int highlight(CharSequence characterStream, int start, int end, int[] spans);
 
 	/**
 	 * @param characterStream
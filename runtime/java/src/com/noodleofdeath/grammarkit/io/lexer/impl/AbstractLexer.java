@@ -5,11 +5,13 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import com.noodleofdeath.pastaparser.io.Cancellation;
 import com.noodleofdeath.pastaparser.io.lexer.Lexer;
 import com.noodleofdeath.pastaparser.io.token.Token;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.LexerListener;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.impl.BaseGrammarEventGenerator;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.profiler.GrammarProfiler;
 
 /** @param <R> */
 public abstract class AbstractLexer<R, T extends Token<R>> extends BaseGrammarEventGenerator<LexerListener<R, T>>
@@ -18,6 +20,12 @@ public abstract class AbstractLexer<R, T extends Token<R>> extends BaseGrammarEv
 	/** Lexer grammar of this lexer. */
 	protected Grammar grammar;
 
+	/** Cancellation polled by this lexer. */
+	protected Cancellation cancellation = Cancellation.None;
+
+	/** Profiler of this lexer, if one exists. */
+	protected GrammarProfiler profiler;
+
 	/** Scope map generated by this lexer. */
 	protected HashMap<String, Integer> scopeMap = new LinkedHashMap<>();
 
@@ -57,6 +65,26 @@ public abstract class AbstractLexer<R, T extends Token<R>> extends BaseGrammarEv
 		this.grammar = grammar;
 	}
 
+	@Override
+	public Cancellation cancellation() {
+		return cancellation;
+	}
+
+	@Override
+	public void setCancellation(Cancellation cancellation) {
+		this.cancellation = cancellation != null ? cancellation : Cancellation.None;
+	}
+
+	@Override
+	public GrammarProfiler profiler() {
+		return profiler;
+	}
+
+	@Override
+	public void setProfiler(GrammarProfiler profiler) {
+		this.profiler = profiler;
+	}
+
 	@Override
 	public List<T> unmatchedAtoms() {
 		return unmatchedAtoms;
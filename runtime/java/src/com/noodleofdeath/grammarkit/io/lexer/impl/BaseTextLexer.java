@@ -1,14 +1,21 @@
 package com.noodleofdeath.pastaparser.io.lexer.impl;
 
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.noodleofdeath.pastaparser.io.TokenStream;
-import com.noodleofdeath.pastaparser.io.impl.BaseTokenStream;
 import com.noodleofdeath.pastaparser.io.lexer.Lexer;
 import com.noodleofdeath.pastaparser.io.token.TextToken;
 import com.noodleofdeath.pastaparser.io.token.impl.BaseTextToken;
+import com.noodleofdeath.pastaparser.io.token.impl.TokenValuePool;
+import com.noodleofdeath.pastaparser.jfr.Recorder;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarRecursion;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.LexerListener;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
@@ -21,6 +28,18 @@ import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.impl.TextLexerS
  */
 public class BaseTextLexer extends AbstractLexer<String, TextToken> implements Lexer<String, TextToken> {
 
+	/** Span of a rule that does not match. */
+	private static final long NoSpan = -1;
+
+	/** Offsets at which each left recursive rule is currently being matched. */
+	private final Map<GrammarRule, Set<Integer>> leftRecursions = new IdentityHashMap<>();
+
+	/**
+	 * Pool of the values of the tokens matched by expressions, so that tokens of
+	 * repeated identifiers, keywords and operators share their value.
+	 */
+	protected final TokenValuePool values = new TokenValuePool();
+
 	/** Constructs a new text lexer with no lexer grammar. */
 	public BaseTextLexer() {
 
@@ -46,31 +65,92 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 	}
 
 	@Override
-	public TokenStream<String, TextToken> tokenize(CharSequence characterStream, int offset) {
+	public TokenStream<String, TextToken> tokenize(CharSequence characterStream, int offset,
+			TokenStream<String, TextToken> tokenStream) {
+		return tokenize(characterStream, offset, characterStream.length(), tokenStream);
+	}
+
+	@Override
+	public TokenStream<String, TextToken> tokenize(CharSequence characterStream, int offset, int end,
+			TokenStream<String, TextToken> tokenStream) {
+		if (offset < 0 || end < offset || end > characterStream.length())
+			throw new IndexOutOfBoundsException(
+					String.format("Range (%d, %d) exceeds length %d", offset, end, characterStream.length()));
 		if (grammar == null)
-			return null;
-		TokenStream<String, TextToken> tokenStream = new BaseTokenStream<>();
+			return tokenStream;
+		if (end < characterStream.length())
+			characterStream = new Window(characterStream, end);
+		Object event = Recorder.Instance.beginTokenize();
+		GrammarAnalysis analysis = grammar.analysis();
+		if (profiler != null)
+			profiler.didBegin(true);
+		int start = offset, tokenCount = 0;
 		while (offset < characterStream.length()) {
 			LexerSyntaxTree<String, TextToken> syntaxTree = new TextLexerSyntaxTree();
 			for (GrammarRule rule : grammar.rules(GrammarRuleType.LexerRule)) {
-				syntaxTree = tokenize(characterStream, rule, offset);
+				if (!admits(analysis, rule, characterStream, offset))
+					continue;
+				syntaxTree = tokenizeReference(characterStream, rule, offset);
 				if (syntaxTree.matches()) {
 					syntaxTree.setRule(rule);
 					break;
 				}
 			}
+			if (cancellation.cancelled())
+				break;
 			if (syntaxTree.matches() && !syntaxTree.rule().skip()) {
-				tokenStream.addToken(syntaxTree.generateToken());
+				TextToken token = syntaxTree.generateToken();
+				if (!tokenStream.addToken(token))
+					break;
+				++tokenCount;
 				if (syntaxTree.rule().equals(grammar.unmatchedRule()))
-					didNotMatchToken(syntaxTree.generateToken());
+					didNotMatchToken(token);
 				else
 					didGenerateSyntaxTree(syntaxTree);
 			}
 			offset += syntaxTree.matches() ? syntaxTree.length() : 1;
 		}
+		Recorder.Instance.endTokenize(event, grammar.id(), characterStream.length() - start, tokenCount);
 		return tokenStream;
 	}
 
+	@Override
+	public int highlight(CharSequence characterStream, int start, int end, int[] spans) {
+		if (grammar == null)
+			return 0;
+		GrammarAnalysis analysis = grammar.analysis();
+		int count = 0;
+		int offset = start;
+		while (offset < end && (count + 1) * 3 <= spans.length) {
+			GrammarRule match = null;
+			long span = NoSpan;
+			for (GrammarRule rule : grammar.rules(GrammarRuleType.LexerRule)) {
+				if (rule.retokenize() || !admits(analysis, rule, characterStream, offset))
+					continue;
+				span = spanReference(characterStream, rule, offset);
+				if (span != NoSpan) {
+					match = rule;
+					break;
+				}
+			}
+			if (cancellation.cancelled())
+				break;
+			if (match == null) {
+				offset += 1;
+				continue;
+			}
+			int categoryId = analysis.categoryId(match);
+			if (categoryId > -1) {
+				spans[count * 3] = offset;
+				spans[count * 3 + 1] = offset + SpanLength(span);
+				spans[count * 3 + 2] = categoryId;
+				++count;
+			}
+			offset += SpanLength(span);
+		}
+		return count;
+	}
+
 	@Override
 	public LexerSyntaxTree<String, TextToken> tokenize(CharSequence characterStream, GrammarRule rule, int offset,
 			LexerSyntaxTree<String, TextToken> syntaxTree) {
@@ -79,12 +159,16 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 			syntaxTree = new TextLexerSyntaxTree();
 		syntaxTree.setRule(rule);
 
-		if (!(rule.exists() && offset < characterStream.length()))
+		// A rule that allows no match, such as x{0}, matches nothing, even at
+		// the end of the character stream.
+		if (rule.exists() && !rule.quantifier().allowsMore(0) && !cancellation.cancelled()) {
+			if (rule.next() != null)
+				return tokenize(characterStream, rule.next(), offset, syntaxTree);
+			syntaxTree.resolve();
 			return syntaxTree;
+		}
 
-		String stream = characterStream.subSequence(offset, characterStream.length()).toString();
-
-		if (stream.length() < 1)
+		if (!(rule.exists() && offset < characterStream.length()) || cancellation.cancelled())
 			return syntaxTree;
 
 		LexerSyntaxTree<String, TextToken> subtree = new TextLexerSyntaxTree();
@@ -96,15 +180,18 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 		case LexerRule:
 		case LexerFragment:
 
-			GrammarRule lexerRuleRef = grammar().rule(rule.value());
+			GrammarRule lexerRuleRef = rule.reference() != null ? rule.reference() : grammar().rule(rule.value());
 			if (lexerRuleRef == null) {
 				return syntaxTree;
 			}
 
-			subtree = tokenize(characterStream, lexerRuleRef, offset, null);
+			subtree = tokenizeReference(characterStream, lexerRuleRef, offset);
 			while (rule.inverted() != subtree.absoluteMatch()) {
 				if (rule.inverted()) {
-					TextToken token = new BaseTextToken(rule, Character.toString(stream.charAt(0)), offset + dlength,
+					if (offset + dlength >= characterStream.length())
+						break;
+					TextToken token = new BaseTextToken(rule,
+							TokenValuePool.Character(characterStream.charAt(offset + dlength)), offset + dlength,
 							offset + dlength + 1);
 					subtree = new TextLexerSyntaxTree();
 					subtree.addToken(token);
@@ -112,15 +199,38 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 				syntaxTree.addTokens(subtree.tokens());
 				matchCount += 1;
 				dlength += subtree.length();
-				if (!rule.quantifier().greedy())
+				if (!rule.quantifier().allowsMore(matchCount) || subtree.length() < 1)
 					break;
-				subtree = tokenize(characterStream, lexerRuleRef, offset + dlength, null);
+				subtree = tokenizeReference(characterStream, lexerRuleRef, offset + dlength);
 			}
 
 			break;
 
 		case Composite:
 
+			if (rule.dictionary() != null) {
+
+				String word = rule.dictionary().match(characterStream, offset);
+				while (rule.inverted() != (word != null)) {
+					TextToken token = null;
+					if (rule.inverted()) {
+						token = new BaseTextToken(rule, TokenValuePool.Character(characterStream.charAt(offset + dlength)),
+								offset + dlength, offset + dlength + 1);
+					} else {
+						token = new BaseTextToken(rule, word, offset + dlength, offset + dlength + word.length());
+					}
+					syntaxTree.addToken(token);
+					matchCount += 1;
+					dlength += token.length();
+					if (!rule.quantifier().allowsMore(matchCount) || offset + dlength >= characterStream.length())
+						break;
+					word = rule.dictionary().match(characterStream, offset + dlength);
+				}
+
+				break;
+
+			}
+
 			if (rule.subrules().size() > 0) {
 
 				for (GrammarRule subrule : rule.subrules()) {
@@ -131,15 +241,18 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 
 				while (rule.inverted() != subtree.absoluteMatch()) {
 					if (rule.inverted()) {
-						TextToken token = new BaseTextToken(rule, Character.toString(stream.charAt(0)),
-								offset + dlength, offset + dlength + 1);
+						if (offset + dlength >= characterStream.length())
+							break;
+						TextToken token = new BaseTextToken(rule,
+								TokenValuePool.Character(characterStream.charAt(offset + dlength)), offset + dlength,
+								offset + dlength + 1);
 						subtree = new TextLexerSyntaxTree();
 						subtree.addToken(token);
 					}
 					syntaxTree.addTokens(subtree.tokens());
 					matchCount += 1;
 					dlength += subtree.length();
-					if (!rule.quantifier().greedy())
+					if (!rule.quantifier().allowsMore(matchCount) || subtree.length() < 1)
 						break;
 					for (GrammarRule subrule : rule.subrules()) {
 						subtree = tokenize(characterStream, subrule, offset + dlength);
@@ -156,30 +269,33 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 		case Literal:
 		default:
 
-			Matcher matcher = Pattern.compile(String.format("^%s", rule.value())).matcher(stream);
+			Matcher matcher = rule.literal() == null ? rule.pattern().matcher(characterStream) : null;
+			int end = match(characterStream, rule, matcher, offset);
 
-			while (rule.inverted() != matcher.find()) {
+			while (rule.inverted() != (end > -1)) {
 				TextToken token = null;
 				if (rule.inverted()) {
-					token = new BaseTextToken(rule, Character.toString(stream.charAt(0)), offset + dlength,
-							offset + dlength + 1);
+					token = new BaseTextToken(rule, TokenValuePool.Character(characterStream.charAt(offset + dlength)),
+							offset + dlength, offset + dlength + 1);
 				} else {
-					int start = offset + dlength + matcher.start();
-					int end = offset + dlength + matcher.end();
-					token = new BaseTextToken(rule, matcher.group(), start, end);
+					String value = rule.literal() != null ? rule.literal()
+							: values.value(characterStream, offset + dlength, end);
+					token = new BaseTextToken(rule, value, offset + dlength, end);
 				}
 				syntaxTree.addToken(token);
 				matchCount += 1;
 				dlength += token.length();
-				if (!rule.quantifier().greedy())
+				if (!rule.quantifier().allowsMore(matchCount) || token.length() < 1
+						|| offset + dlength >= characterStream.length())
 					break;
+				end = match(characterStream, rule, matcher, offset + dlength);
 			}
 
 			break;
 
 		}
 
-		if (matchCount > 0 || rule.quantifier().optional()) {
+		if (rule.quantifier().meets(matchCount)) {
 			if (rule.next() != null)
 				return tokenize(characterStream, rule.next(), offset + dlength, syntaxTree);
 			syntaxTree.resolve();
@@ -189,12 +305,334 @@ public class BaseTextLexer extends AbstractLexer<String, TextToken> implements L
 
 	}
 
+	/**
+	 * Matches a character stream with a specified rule exactly like
+	 * {@link #tokenize(CharSequence, GrammarRule, int, LexerSyntaxTree)}, but
+	 * only measures the match instead of generating tokens and syntax trees.
+	 * 
+	 * @param characterStream to match.
+	 * @param rule            to match with.
+	 * @param offset          at which to begin.
+	 * @return the span of the match, or {@link #NoSpan} if the rule does not
+	 *         match.
+	 */
+	private long span(CharSequence characterStream, GrammarRule rule, int offset) {
+
+		if (rule.exists() && !rule.quantifier().allowsMore(0) && !cancellation.cancelled())
+			return rule.next() == null ? Span(0, false) : span(characterStream, rule.next(), offset);
+
+		if (!(rule.exists() && offset < characterStream.length()) || cancellation.cancelled())
+			return NoSpan;
+
+		long subspan = NoSpan;
+		int matchCount = 0;
+		int dlength = 0;
+
+		switch (rule.componentType()) {
+
+		case LexerRule:
+		case LexerFragment:
+
+			GrammarRule lexerRuleRef = rule.reference() != null ? rule.reference() : grammar().rule(rule.value());
+			if (lexerRuleRef == null)
+				return NoSpan;
+
+			subspan = spanReference(characterStream, lexerRuleRef, offset);
+			while (rule.inverted() != SpanAbsolute(subspan)) {
+				if (rule.inverted()) {
+					if (offset + dlength >= characterStream.length())
+						break;
+					subspan = Span(1, true);
+				}
+				matchCount += 1;
+				dlength += SpanLength(subspan);
+				if (!rule.quantifier().allowsMore(matchCount) || SpanLength(subspan) < 1)
+					break;
+				subspan = spanReference(characterStream, lexerRuleRef, offset + dlength);
+			}
+
+			break;
+
+		case Composite:
+
+			if (rule.dictionary() != null) {
+
+				String word = rule.dictionary().match(characterStream, offset);
+				while (rule.inverted() != (word != null)) {
+					matchCount += 1;
+					dlength += rule.inverted() ? 1 : word.length();
+					if (!rule.quantifier().allowsMore(matchCount) || offset + dlength >= characterStream.length())
+						break;
+					word = rule.dictionary().match(characterStream, offset + dlength);
+				}
+
+				break;
+
+			}
+
+			if (rule.subrules().size() > 0) {
+
+				for (GrammarRule subrule : rule.subrules()) {
+					subspan = span(characterStream, subrule, offset);
+					if (rule.inverted() != SpanAbsolute(subspan))
+						break;
+				}
+
+				while (rule.inverted() != SpanAbsolute(subspan)) {
+					if (rule.inverted()) {
+						if (offset + dlength >= characterStream.length())
+							break;
+						subspan = Span(1, true);
+					}
+					matchCount += 1;
+					dlength += SpanLength(subspan);
+					if (!rule.quantifier().allowsMore(matchCount) || SpanLength(subspan) < 1)
+						break;
+					for (GrammarRule subrule : rule.subrules()) {
+						subspan = span(characterStream, subrule, offset + dlength);
+						if (rule.inverted() != SpanAbsolute(subspan))
+							break;
+					}
+				}
+
+			}
+
+			break;
+
+		case Expression:
+		case Literal:
+		default:
+
+			Matcher matcher = rule.literal() == null ? rule.pattern().matcher(characterStream) : null;
+			int end = match(characterStream, rule, matcher, offset);
+
+			while (rule.inverted() != (end > -1)) {
+				int length = rule.inverted() ? 1 : end - offset - dlength;
+				matchCount += 1;
+				dlength += length;
+				if (!rule.quantifier().allowsMore(matchCount) || length < 1
+						|| offset + dlength >= characterStream.length())
+					break;
+				end = match(characterStream, rule, matcher, offset + dlength);
+			}
+
+			break;
+
+		}
+
+		if (!rule.quantifier().meets(matchCount))
+			return NoSpan;
+		if (rule.next() == null)
+			return Span(dlength, matchCount > 0);
+		long next = span(characterStream, rule.next(), offset + dlength);
+		return next == NoSpan ? NoSpan : Span(dlength + SpanLength(next), matchCount > 0 || SpanAbsolute(next));
+
+	}
+
+	/**
+	 * Measures a match of a specified referenced rule, failing instead of
+	 * reentering a left recursive rule at an offset it is already being matched
+	 * at.
+	 * 
+	 * @param characterStream to match.
+	 * @param rule            referenced rule to match with.
+	 * @param offset          at which to begin.
+	 * @return the span of the match, or {@link #NoSpan} if the rule does not
+	 *         match.
+	 */
+	private long spanReference(CharSequence characterStream, GrammarRule rule, int offset) {
+		if (grammar().analysis().recursion(rule) != GrammarRecursion.Left)
+			return span(characterStream, rule, offset);
+		Set<Integer> offsets = leftRecursions.get(rule);
+		if (offsets == null)
+			leftRecursions.put(rule, offsets = new HashSet<>());
+		if (!offsets.add(offset))
+			return NoSpan;
+		try {
+			return span(characterStream, rule, offset);
+		} finally {
+			offsets.remove(offset);
+		}
+	}
+
+	/**
+	 * @param length   of a match.
+	 * @param absolute <code>true</code> if the match consists of at least one
+	 *                 token, even an empty one.
+	 * @return the span of the match.
+	 */
+	private static long Span(int length, boolean absolute) {
+		return (long) length << 1 | (absolute ? 1 : 0);
+	}
+
+	/**
+	 * @param span of a match.
+	 * @return length of the match.
+	 */
+	private static int SpanLength(long span) {
+		return (int) (span >> 1);
+	}
+
+	/**
+	 * @param span of a match, or {@link #NoSpan}.
+	 * @return <code>true</code> if the span would be an absolute match of a
+	 *         syntax tree.
+	 */
+	private static boolean SpanAbsolute(long span) {
+		return span != NoSpan && (span & 1) != 0;
+	}
+
+	/**
+	 * Tokenizes a character stream with a specified referenced rule and
+	 * reports the attempt to the profiler of this lexer, if one exists.
+	 * 
+	 * @param characterStream to tokenize.
+	 * @param rule            referenced rule to tokenize with.
+	 * @param offset          at which to begin.
+	 * @return the syntax tree generated by the referenced rule.
+	 */
+	private LexerSyntaxTree<String, TextToken> tokenizeReference(CharSequence characterStream, GrammarRule rule,
+			int offset) {
+		if (profiler == null)
+			return tokenizeGuarded(characterStream, rule, offset);
+		long started = profiler.willAttempt(rule, offset);
+		LexerSyntaxTree<String, TextToken> syntaxTree = null;
+		try {
+			return syntaxTree = tokenizeGuarded(characterStream, rule, offset);
+		} finally {
+			profiler.didAttempt(rule, offset, started,
+					syntaxTree != null && syntaxTree.matches() ? syntaxTree.length() : -1);
+		}
+	}
+
+	/**
+	 * Tokenizes a character stream with a specified referenced rule, failing
+	 * instead of reentering a left recursive rule at an offset it is already
+	 * being matched at.
+	 * 
+	 * @param characterStream to tokenize.
+	 * @param rule            referenced rule to tokenize with.
+	 * @param offset          at which to begin.
+	 * @return the syntax tree generated by the referenced rule.
+	 */
+	private LexerSyntaxTree<String, TextToken> tokenizeGuarded(CharSequence characterStream, GrammarRule rule,
+			int offset) {
+		if (grammar().analysis().recursion(rule) != GrammarRecursion.Left)
+			return tokenize(characterStream, rule, offset, null);
+		Set<Integer> offsets = leftRecursions.get(rule);
+		if (offsets == null)
+			leftRecursions.put(rule, offsets = new HashSet<>());
+		if (!offsets.add(offset))
+			return new TextLexerSyntaxTree();
+		try {
+			return tokenize(characterStream, rule, offset, null);
+		} finally {
+			offsets.remove(offset);
+		}
+	}
+
+	/**
+	 * Returns <code>false</code> if a specified lexer rule cannot match at a
+	 * specified offset according to the analysis of its grammar, because the
+	 * remaining input is too short or begins with a character the rule cannot
+	 * begin with.
+	 * 
+	 * @param analysis        of the grammar of the rule.
+	 * @param rule            to check.
+	 * @param characterStream to match against.
+	 * @param offset          at which the match would begin.
+	 * @return <code>false</code> if the rule cannot match; <code>true</code>,
+	 *         otherwise.
+	 */
+	private static boolean admits(GrammarAnalysis analysis, GrammarRule rule, CharSequence characterStream,
+			int offset) {
+		if (characterStream.length() - offset < analysis.minLength(rule))
+			return false;
+		BitSet first = analysis.firstCharacters(rule);
+		return first == null || first.get(characterStream.charAt(offset));
+	}
+
+	/**
+	 * Matches the value of a specified expression or literal rule at a specified
+	 * offset, comparing characters directly when the rule matches a fixed string.
+	 * 
+	 * @param characterStream to match against.
+	 * @param rule            to match.
+	 * @param matcher         of the pattern of the rule over the character
+	 *                        stream, or <code>null</code> if the rule matches a
+	 *                        fixed string.
+	 * @param offset          at which the match must begin.
+	 * @return end offset of the match, or <code>-1</code> if the rule does not
+	 *         match at the specified offset.
+	 */
+	private static int match(CharSequence characterStream, GrammarRule rule, Matcher matcher, int offset) {
+		String literal = rule.literal();
+		if (literal != null) {
+			if (offset + literal.length() > characterStream.length())
+				return -1;
+			for (int i = 0; i < literal.length(); ++i)
+				if (characterStream.charAt(offset + i) != literal.charAt(i))
+					return -1;
+			return offset + literal.length();
+		}
+		matcher.region(offset, characterStream.length());
+		return matcher.lookingAt() ? matcher.end() : -1;
+	}
+
+	/**
+	 * Character stream that ends at an offset of another without copying it, so
+	 * offsets into the window are offsets into the other stream.
+	 */
+	private static final class Window implements CharSequence {
+
+		/** Character stream viewed through this window. */
+		private final CharSequence characterStream;
+
+		/** Offset of the other stream at which this window ends. */
+		private final int end;
+
+		/**
+		 * @param characterStream
+		 * @param end
+		 */
+		private Window(CharSequence characterStream, int end) {
+			this.characterStream = characterStream;
+			this.end = end;
+		}
+
+		@Override
+		public int length() {
+			return end;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index >= end)
+				throw new IndexOutOfBoundsException(String.format("Index %d exceeds length %d", index, end));
+			return characterStream.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (end > this.end)
+				throw new IndexOutOfBoundsException(String.format("Index %d exceeds length %d", end, this.end));
+			return characterStream.subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return characterStream.subSequence(0, end).toString();
+		}
+
+	}
+
 	/**
 	 * @param syntaxTree
 	 */
 	private void didGenerateSyntaxTree(LexerSyntaxTree<String, TextToken> syntaxTree) {
 		for (LexerListener<String, TextToken> listener : listeners())
-			listener.didGenerateSyntaxTree(this, syntaxTree);
+			if (notifies(listener, syntaxTree.rule()))
+				listener.didGenerateSyntaxTree(this, syntaxTree);
 	}
 
 	/**
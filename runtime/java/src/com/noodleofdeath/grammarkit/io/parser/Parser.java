@@ -1,10 +1,12 @@
 package com.noodleofdeath.pastaparser.io.parser;
 
+import com.noodleofdeath.pastaparser.io.Cancellation;
 import com.noodleofdeath.pastaparser.io.TokenStream;
 import com.noodleofdeath.pastaparser.io.token.Token;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventGenerator;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
+import com.noodleofdeath.pastaparser.model.grammar.profiler.GrammarProfiler;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
 
@@ -21,6 +23,29 @@ public interface Parser<R, T extends Token<R>> extends GrammarEventGenerator<Par
 	 */
 	public abstract void setGrammar(Grammar grammar);
 
+	/** @return cancellation polled by this parser before every rule attempt. */
+	public abstract Cancellation cancellation();
+
+	/**
+	 * Sets the cancellation polled by this parser before every rule attempt.
+	 * Once it is cancelled, parsing stops before the syntax tree or skipped
+	 * token being matched.
+	 * 
+	 * @param cancellation to poll, or {@link Cancellation#None}.
+	 */
+	public abstract void setCancellation(Cancellation cancellation);
+
+	/** @return profiler of this parser, or <code>null</code> if it has none. */
+	public abstract GrammarProfiler profiler();
+
+	/**
+	 * Sets the profiler this parser notifies of every attempt to match a top
+	 * level or referenced parser rule.
+	 * 
+	 * @param profiler to notify, or <code>null</code> to stop profiling.
+	 */
+	public abstract void setProfiler(GrammarProfiler profiler);
+
 	/**
 	 * @param tokenStream
 	 */
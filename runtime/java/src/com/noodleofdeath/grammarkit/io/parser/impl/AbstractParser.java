@@ -1,10 +1,12 @@
 package com.noodleofdeath.pastaparser.io.parser.impl;
 
+import com.noodleofdeath.pastaparser.io.Cancellation;
 import com.noodleofdeath.pastaparser.io.parser.Parser;
 import com.noodleofdeath.pastaparser.io.token.Token;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.impl.BaseGrammarEventGenerator;
+import com.noodleofdeath.pastaparser.model.grammar.profiler.GrammarProfiler;
 
 /**
  * @param <R>
@@ -16,6 +18,12 @@ public abstract class AbstractParser<R, T extends Token<R>> extends BaseGrammarE
 	/**   */
 	protected Grammar grammar;
 
+	/** Cancellation polled by this parser. */
+	protected Cancellation cancellation = Cancellation.None;
+
+	/** Profiler of this parser, if one exists. */
+	protected GrammarProfiler profiler;
+
 	/**  */
 	public AbstractParser() {
 
@@ -39,4 +47,24 @@ public abstract class AbstractParser<R, T extends Token<R>> extends BaseGrammarE
 		this.grammar = grammar;
 	}
 
+	@Override
+	public Cancellation cancellation() {
+		return cancellation;
+	}
+
+	@Override
+	public void setCancellation(Cancellation cancellation) {
+		this.cancellation = cancellation != null ? cancellation : Cancellation.None;
+	}
+
+	@Override
+	public GrammarProfiler profiler() {
+		return profiler;
+	}
+
+	@Override
+	public void setProfiler(GrammarProfiler profiler) {
+		this.profiler = profiler;
+	}
+
 }
@@ -1,16 +1,22 @@
 package com.noodleofdeath.pastaparser.io.parser.impl;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import com.noodleofdeath.pastaparser.io.TokenStream;
 import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.jfr.Recorder;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarRecursion;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.impl.TextParserSpanTree;
 import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.impl.TextParserSyntaxTree;
 
 /**
@@ -19,6 +25,15 @@ import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.impl.TextParser
  */
 public class BaseTextParser extends AbstractParser<String, TextToken> {
 
+	/** Offsets at which each left recursive rule is currently being matched. */
+	private final Map<GrammarRule, Set<Integer>> leftRecursions = new IdentityHashMap<>();
+
+	/**
+	 * <code>true</code> while matching a top level rule that no listener
+	 * observes, so only the number of tokens it spans is recorded.
+	 */
+	private boolean spanOnly = false;
+
 	/**   */
 	public enum Option {
 
@@ -63,21 +78,40 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 	public void parse(TokenStream<String, TextToken> tokenStream, int offset) {
 		if (grammar == null)
 			return;
-		while (offset < tokenStream.length()) {
+		Object event = Recorder.Instance.beginParse();
+		GrammarAnalysis analysis = grammar.analysis();
+		if (profiler != null)
+			profiler.didBegin(false);
+		int start = offset, treeCount = 0, skippedCount = 0;
+		while (tokenStream.hasToken(offset)) {
 			ParserSyntaxTree<TextToken> syntaxTree = new TextParserSyntaxTree();
 			for (GrammarRule parserRule : grammar.rules(GrammarRuleType.ParserRule)) {
-				syntaxTree = parse(tokenStream, parserRule, offset);
+				if (!admits(analysis, parserRule, tokenStream, offset))
+					continue;
+				spanOnly = !observes(parserRule);
+				try {
+					syntaxTree = parseReference(tokenStream, parserRule, offset);
+				} finally {
+					spanOnly = false;
+				}
 				if (syntaxTree.matches()) {
 					syntaxTree.setRule(parserRule);
 					break;
 				}
 			}
-			if (syntaxTree.matches())
+			if (cancellation.cancelled())
+				break;
+			if (syntaxTree.matches()) {
 				didGenerateSyntaxTree(syntaxTree);
-			else
-				didSkipToken(tokenStream.get(0));
+				++treeCount;
+			} else {
+				didSkipToken(tokenStream.get(offset));
+				++skippedCount;
+			}
 			offset += syntaxTree.matches() ? syntaxTree.tokenCount() : 1;
+			tokenStream.commit(offset);
 		}
+		Recorder.Instance.endParse(event, grammar.id(), offset - start, treeCount, skippedCount);
 	}
 
 	@Override
@@ -85,14 +119,23 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 			GrammarRule parserRule, int offset, ParserSyntaxTree<TextToken> syntaxTree) {
 
 		if (syntaxTree == null)
-			syntaxTree = new TextParserSyntaxTree();
+			syntaxTree = newSyntaxTree();
 		
 		syntaxTree.setRule(parserRule);
 
-		if (!(parserRule.exists() && offset < tokenStream.length()))
+		// A rule that allows no match, such as x{0}, matches nothing, even at
+		// the end of the token stream.
+		if (parserRule.exists() && !parserRule.quantifier().allowsMore(0) && !cancellation.cancelled()) {
+			if (parserRule.next() != null)
+				return parse(tokenStream, parserRule.next(), offset, syntaxTree);
+			syntaxTree.resolve();
+			return syntaxTree;
+		}
+
+		if (!(parserRule.exists() && tokenStream.hasToken(offset)) || cancellation.cancelled())
 			return syntaxTree;
 
-		ParserSyntaxTree<TextToken> subtree = new TextParserSyntaxTree();
+		ParserSyntaxTree<TextToken> subtree = newSyntaxTree();
 		int matchCount = 0;
 		int dx = 0;
 
@@ -100,28 +143,45 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 
 		case ParserRule:
 
-			GrammarRule parserRuleRef = grammar().rule(parserRule.value());
+			GrammarRule parserRuleRef = parserRule.reference() != null ? parserRule.reference()
+					: grammar().rule(parserRule.value());
 			if (parserRuleRef == null) 
 				return syntaxTree;
 
-			subtree = parse(tokenStream, parserRuleRef, offset);
+			subtree = parseReference(tokenStream, parserRuleRef, offset);
 			while (parserRule.inverted() != subtree.absoluteMatch()) {
 				if (parserRule.inverted()) {
-					subtree = new TextParserSyntaxTree();
+					subtree = newSyntaxTree();
 					subtree.addToken(tokenStream.get(offset + dx));
 				}
-				syntaxTree.addTokens(subtree.tokens());
+				syntaxTree.addTokens(subtree);
 				matchCount += 1;
 				dx += subtree.tokenCount();
-				if (!parserRule.quantifier().greedy())
+				if (!parserRule.quantifier().allowsMore(matchCount) || subtree.tokenCount() < 1)
 					break;
-				subtree = parse(tokenStream, parserRuleRef, offset + dx);
+				subtree = parseReference(tokenStream, parserRuleRef, offset + dx);
 			}
 
 			break;
 
 		case Composite:
 
+			if (parserRule.dictionary() != null) {
+
+				TextToken word = tokenStream.get(offset);
+				while (parserRule.inverted() != parserRule.dictionary().containsPrefixOf(word.value())) {
+					syntaxTree.addToken(word);
+					matchCount += 1;
+					dx += 1;
+					if (!parserRule.quantifier().allowsMore(matchCount) || !tokenStream.hasToken(offset + dx))
+						break;
+					word = tokenStream.get(offset + dx);
+				}
+
+				break;
+
+			}
+
 			if (parserRule.subrules().size() > 0) {
 
 				for (GrammarRule subrule : parserRule.subrules()) {
@@ -132,13 +192,13 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 
 				while (parserRule.inverted() != subtree.absoluteMatch()) {
 					if (parserRule.inverted()) {
-						subtree = new TextParserSyntaxTree();
+						subtree = newSyntaxTree();
 						subtree.addToken(tokenStream.get(offset + dx));
 					}
-					syntaxTree.addTokens(subtree.tokens());
+					syntaxTree.addTokens(subtree);
 					matchCount += 1;
 					dx += subtree.tokenCount();
-					if (!parserRule.quantifier().greedy())
+					if (!parserRule.quantifier().allowsMore(matchCount) || subtree.tokenCount() < 1)
 						break;
 					for (GrammarRule subrule : parserRule.subrules()) {
 						subtree = parse(tokenStream, subrule, offset + dx);
@@ -159,7 +219,7 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 				syntaxTree.addToken(token);
 				matchCount += 1;
 				dx += 1;
-				if (parserRule.quantifier().greedy() || offset + dx >= tokenStream.length())
+				if (!parserRule.quantifier().allowsMore(matchCount) || !tokenStream.hasToken(offset + dx))
 					break;
 				token = tokenStream.get(offset + dx);
 			}
@@ -171,12 +231,11 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 		default:
 
 			token = tokenStream.get(offset);
-			Matcher matcher = Pattern.compile(String.format("^%s", parserRule.value())).matcher(token.value());
-			while (parserRule.inverted() != matcher.find()) {
+			while (parserRule.inverted() != matches(parserRule, token.value())) {
 				syntaxTree.addToken(token);
 				matchCount += 1;
 				dx += 1;
-				if (!parserRule.quantifier().greedy() || offset + dx >= tokenStream.length())
+				if (!parserRule.quantifier().allowsMore(matchCount) || !tokenStream.hasToken(offset + dx))
 					break;
 				token = tokenStream.get(offset + dx);
 			}
@@ -185,7 +244,7 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 			
 		}
 
-		if (matchCount > 0 || parserRule.quantifier().optional()) {
+		if (parserRule.quantifier().meets(matchCount)) {
 			if (parserRule.next() != null)
 				return parse(tokenStream, parserRule.next(), offset + dx, syntaxTree);
 			syntaxTree.resolve();
@@ -195,6 +254,101 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 
 	}
 
+	/**
+	 * @return a new syntax tree, which only counts its tokens while matching a
+	 *         rule no listener observes.
+	 */
+	private ParserSyntaxTree<TextToken> newSyntaxTree() {
+		return spanOnly ? new TextParserSpanTree() : new TextParserSyntaxTree();
+	}
+
+	/**
+	 * Parses a token stream with a specified referenced rule and reports the
+	 * attempt to the profiler of this parser, if one exists.
+	 * 
+	 * @param tokenStream to parse.
+	 * @param rule        referenced rule to parse with.
+	 * @param offset      at which to begin.
+	 * @return the syntax tree generated by the referenced rule.
+	 */
+	private ParserSyntaxTree<TextToken> parseReference(TokenStream<String, TextToken> tokenStream, GrammarRule rule,
+			int offset) {
+		if (profiler == null)
+			return parseGuarded(tokenStream, rule, offset);
+		long started = profiler.willAttempt(rule, offset);
+		ParserSyntaxTree<TextToken> syntaxTree = null;
+		try {
+			return syntaxTree = parseGuarded(tokenStream, rule, offset);
+		} finally {
+			profiler.didAttempt(rule, offset, started,
+					syntaxTree != null && syntaxTree.matches() ? syntaxTree.tokenCount() : -1);
+		}
+	}
+
+	/**
+	 * Parses a token stream with a specified referenced rule, failing instead of
+	 * reentering a left recursive rule at an offset it is already being matched
+	 * at.
+	 * 
+	 * @param tokenStream to parse.
+	 * @param rule        referenced rule to parse with.
+	 * @param offset      at which to begin.
+	 * @return the syntax tree generated by the referenced rule.
+	 */
+	private ParserSyntaxTree<TextToken> parseGuarded(TokenStream<String, TextToken> tokenStream, GrammarRule rule,
+			int offset) {
+		if (grammar().analysis().recursion(rule) != GrammarRecursion.Left)
+			return parse(tokenStream, rule, offset);
+		Set<Integer> offsets = leftRecursions.get(rule);
+		if (offsets == null)
+			leftRecursions.put(rule, offsets = new HashSet<>());
+		if (!offsets.add(offset))
+			return newSyntaxTree();
+		try {
+			return parse(tokenStream, rule, offset);
+		} finally {
+			offsets.remove(offset);
+		}
+	}
+
+	/**
+	 * Returns <code>false</code> if a specified parser rule cannot match at a
+	 * specified offset according to the analysis of its grammar, because too few
+	 * tokens remain or the next token is of a type the rule cannot begin with.
+	 * 
+	 * @param analysis    of the grammar of the rule.
+	 * @param rule        to check.
+	 * @param tokenStream to match against.
+	 * @param offset      at which the match would begin.
+	 * @return <code>false</code> if the rule cannot match; <code>true</code>,
+	 *         otherwise.
+	 */
+	private static boolean admits(GrammarAnalysis analysis, GrammarRule rule,
+			TokenStream<String, TextToken> tokenStream, int offset) {
+		int minLength = analysis.minLength(rule);
+		if (minLength == GrammarAnalysis.Unbounded || (minLength > 0 && !tokenStream.hasToken(offset + minLength - 1)))
+			return false;
+		Set<String> first = analysis.first(rule);
+		return first == null || first.contains(tokenStream.get(offset).lexerRule().id());
+	}
+
+	/**
+	 * Returns <code>true</code> if a specified token value begins with a match of
+	 * a specified expression or literal rule, comparing characters directly when
+	 * the rule matches a fixed string.
+	 * 
+	 * @param rule  to match.
+	 * @param value of the token to match against.
+	 * @return <code>true</code> if the token value begins with a match of the
+	 *         rule; <code>false</code>, otherwise.
+	 */
+	private static boolean matches(GrammarRule rule, String value) {
+		String literal = rule.literal();
+		if (literal != null)
+			return value.startsWith(literal);
+		return rule.pattern().matcher(value).lookingAt();
+	}
+
 	/**
 	 * @param token
 	 */
@@ -208,7 +362,8 @@ public class BaseTextParser extends AbstractParser<String, TextToken> {
 	 */
 	private void didGenerateSyntaxTree(ParserSyntaxTree<TextToken> syntaxTree) {
 		for (ParserListener<String, TextToken> listener : listeners())
-			listener.didGenerateSyntaxTree(this, syntaxTree);
+			if (notifies(listener, syntaxTree.rule()))
+				listener.didGenerateSyntaxTree(this, syntaxTree);
 	}
 
 }
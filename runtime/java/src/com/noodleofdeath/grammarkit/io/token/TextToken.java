@@ -1,8 +1,5 @@
 package com.noodleofdeath.pastaparser.io.token;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import com.noodleofdeath.pastaparser.io.TextRange;
 
 /**   */
@@ -56,17 +53,14 @@ public interface TextToken extends Token<String>, TextRange {
 		String value = value();
 
 		if ((options & StringOptionStripOuterBraces) != 0) {
-			Matcher matcher = (Pattern.compile("^\\{((?s:.*))\\}$")).matcher(value);
-			if (matcher.find())
-				value = matcher.group(1);
+			if (value.length() > 1 && value.charAt(0) == '{' && value.charAt(value.length() - 1) == '}')
+				value = value.substring(1, value.length() - 1);
 		} else if ((options & StringOptionStripOuterBrackets) != 0) {
-			Matcher matcher = (Pattern.compile("^\\[((?s:.*))\\]$")).matcher(value);
-			if (matcher.find())
-				value = matcher.group(1);
+			if (value.length() > 1 && value.charAt(0) == '[' && value.charAt(value.length() - 1) == ']')
+				value = value.substring(1, value.length() - 1);
 		} else if ((options & StringOptionStripOuterParentheses) != 0) {
-			Matcher matcher = (Pattern.compile("^\\(((?s:.*))\\)$")).matcher(value);
-			if (matcher.find())
-				value = matcher.group(1);
+			if (value.length() > 1 && value.charAt(0) == '(' && value.charAt(value.length() - 1) == ')')
+				value = value.substring(1, value.length() - 1);
 		}
 
 		if ((options & StringOptionEscaped) != 0) {
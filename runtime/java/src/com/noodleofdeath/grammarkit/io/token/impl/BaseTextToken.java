@@ -1,6 +1,6 @@
 package com.noodleofdeath.pastaparser.io.token.impl;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.noodleofdeath.pastaparser.io.token.TextToken;
@@ -21,12 +21,6 @@ public class BaseTextToken extends AbstractToken<String> implements TextToken {
 	/**   */
 	protected GrammarRule parserRule = null;
 
-	/**   */
-	protected List<String> categories = new ArrayList<>();
-
-	/**   */
-	protected List<String> options = new ArrayList<>();
-
 	/**  */
 	public BaseTextToken() {
 	}
@@ -78,8 +72,6 @@ public class BaseTextToken extends AbstractToken<String> implements TextToken {
 	@Override
 	public void setLexerRule(GrammarRule lexerRule) {
 		this.lexerRule = lexerRule;
-		categories = lexerRule.categories();
-		options = lexerRule.options();
 	}
 
 	@Override
@@ -94,12 +86,13 @@ public class BaseTextToken extends AbstractToken<String> implements TextToken {
 
 	@Override
 	public List<String> categories() {
-		return categories;
+		return lexerRule != null && lexerRule.categories() != null ? lexerRule.categories()
+				: Collections.<String>emptyList();
 	}
 
 	@Override
 	public List<String> options() {
-		return options;
+		return lexerRule != null && lexerRule.options() != null ? lexerRule.options() : Collections.<String>emptyList();
 	}
 
 }
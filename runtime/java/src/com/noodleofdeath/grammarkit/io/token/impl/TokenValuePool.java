@@ -0,0 +1,111 @@
+package com.noodleofdeath.pastaparser.io.token.impl;
+
+import java.util.Arrays;
+
+/**
+ * Bounded pool of the values of text tokens, so that the tokens of repeated
+ * keywords, operators and punctuation share a single string instead of each
+ * keeping its own copy.
+ *
+ * The pool is a direct mapped cache: a value replaces the value in its slot
+ * when they differ, which bounds the memory of the pool regardless of the
+ * input and keeps lookups of pooled values free of allocation. Single
+ * characters of the Latin-1 range are shared by every pool, and values longer
+ * than {@link #MaxLength} are never pooled. A pool is not thread safe.
+ */
+public class TokenValuePool {
+
+	/** Default number of slots of a pool. */
+	public static final int DefaultCapacity = 4096;
+
+	/** Length of the longest value that is pooled. */
+	public static final int MaxLength = 32;
+
+	/** Single character values of the Latin-1 range. */
+	private static final String[] Characters = new String[256];
+
+	static {
+		for (int i = 0; i < Characters.length; ++i)
+			Characters[i] = String.valueOf((char) i).intern();
+	}
+
+	/** Slots of this pool. */
+	private final String[] values;
+
+	/** Mask of the slot index of a hash code. */
+	private final int mask;
+
+	/** Constructs a new pool with {@link #DefaultCapacity} slots. */
+	public TokenValuePool() {
+		this(DefaultCapacity);
+	}
+
+	/**
+	 * Constructs a new pool with a specified number of slots, rounded up to a
+	 * power of two.
+	 *
+	 * @param capacity fewest slots of the pool.
+	 */
+	public TokenValuePool(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		values = new String[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * @param ch character of the value.
+	 * @return shared single character value of the specified character.
+	 */
+	public static String Character(char ch) {
+		return ch < Characters.length ? Characters[ch] : String.valueOf(ch);
+	}
+
+	/**
+	 * Returns the value of a range of a character stream, reusing the string
+	 * of an equal value returned before if this pool still holds it.
+	 *
+	 * @param characterStream containing the value.
+	 * @param start           offset of the first character of the value.
+	 * @param end             offset after the last character of the value.
+	 * @return value of the specified range.
+	 */
+	public String value(CharSequence characterStream, int start, int end) {
+		int length = end - start;
+		if (length == 1)
+			return Character(characterStream.charAt(start));
+		if (length < 1)
+			return "";
+		if (length > MaxLength)
+			return characterStream.subSequence(start, end).toString();
+		int hash = 0;
+		for (int i = start; i < end; ++i)
+			hash = 31 * hash + characterStream.charAt(i);
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		String value = values[slot];
+		if (value != null && value.length() == length && Matches(value, characterStream, start))
+			return value;
+		value = characterStream.subSequence(start, end).toString();
+		values[slot] = value;
+		return value;
+	}
+
+	/** Removes every value from this pool. */
+	public void clear() {
+		Arrays.fill(values, null);
+	}
+
+	/**
+	 * @param value           to compare.
+	 * @param characterStream to compare with.
+	 * @param start           offset of the range to compare with.
+	 * @return <code>true</code> if the specified value equals the range of the
+	 *         character stream of the same length at the specified offset.
+	 */
+	private static boolean Matches(String value, CharSequence characterStream, int start) {
+		for (int i = 0; i < value.length(); ++i)
+			if (value.charAt(i) != characterStream.charAt(start + i))
+				return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.noodleofdeath.pastaparser.jfr;
+
+/**
+ * Recorder of the events of this package with <code>jdk.jfr</code>. This class
+ * is loaded by {@link Recorder#Instance} only if <code>jdk.jfr</code> is
+ * available.
+ *
+ * Fields are filled in only when an event should be committed, so the cost
+ * while recording is off is a begin/end pair.
+ */
+class FlightRecorder extends Recorder {
+
+	@Override
+	public Object beginTokenize() {
+		TokenizeEvent event = new TokenizeEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endTokenize(Object event, String grammar, int inputLength, int tokenCount) {
+		TokenizeEvent tokenizeEvent = (TokenizeEvent) event;
+		tokenizeEvent.end();
+		if (tokenizeEvent.shouldCommit()) {
+			tokenizeEvent.grammar = grammar;
+			tokenizeEvent.inputLength = inputLength;
+			tokenizeEvent.tokenCount = tokenCount;
+			tokenizeEvent.commit();
+		}
+	}
+
+	@Override
+	public Object beginParse() {
+		ParseEvent event = new ParseEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endParse(Object event, String grammar, int tokenCount, int treeCount, int skippedCount) {
+		ParseEvent parseEvent = (ParseEvent) event;
+		parseEvent.end();
+		if (parseEvent.shouldCommit()) {
+			parseEvent.grammar = grammar;
+			parseEvent.tokenCount = tokenCount;
+			parseEvent.treeCount = treeCount;
+			parseEvent.skippedCount = skippedCount;
+			parseEvent.commit();
+		}
+	}
+
+	@Override
+	public Object beginRetokenize() {
+		RetokenizeEvent event = new RetokenizeEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endRetokenize(Object event, String grammar, String rule, int inputLength, int tokenCount) {
+		RetokenizeEvent retokenizeEvent = (RetokenizeEvent) event;
+		retokenizeEvent.end();
+		if (retokenizeEvent.shouldCommit()) {
+			retokenizeEvent.grammar = grammar;
+			retokenizeEvent.rule = rule;
+			retokenizeEvent.inputLength = inputLength;
+			retokenizeEvent.tokenCount = tokenCount;
+			retokenizeEvent.commit();
+		}
+	}
+
+	@Override
+	public Object beginGrammarLoad() {
+		GrammarLoadEvent event = new GrammarLoadEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endGrammarLoad(Object event, String grammar, int ruleCount, boolean succeeded) {
+		GrammarLoadEvent grammarLoadEvent = (GrammarLoadEvent) event;
+		grammarLoadEvent.end();
+		if (grammarLoadEvent.shouldCommit()) {
+			grammarLoadEvent.grammar = grammar;
+			grammarLoadEvent.ruleCount = ruleCount;
+			grammarLoadEvent.succeeded = succeeded;
+			grammarLoadEvent.commit();
+		}
+	}
+
+}
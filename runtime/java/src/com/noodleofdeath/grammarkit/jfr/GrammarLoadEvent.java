@@ -0,0 +1,30 @@
+package com.noodleofdeath.pastaparser.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for loading a grammar, including its parents. */
+@Name("com.noodleofdeath.pastaparser.GrammarLoad")
+@Label("Grammar Load")
+@Category("PastaParser")
+@Description("Loading of a grammar definition")
+@StackTrace(false)
+public class GrammarLoadEvent extends Event {
+
+	/** Id of the loaded grammar. */
+	@Label("Grammar")
+	public String grammar;
+
+	/** Number of rules in the rule map of the loaded grammar. */
+	@Label("Rule Count")
+	public int ruleCount;
+
+	/** <code>true</code> if the grammar was loaded. */
+	@Label("Succeeded")
+	public boolean succeeded;
+
+}
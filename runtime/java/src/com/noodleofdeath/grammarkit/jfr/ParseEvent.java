@@ -0,0 +1,34 @@
+package com.noodleofdeath.pastaparser.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for parsing a token stream. */
+@Name("com.noodleofdeath.pastaparser.Parse")
+@Label("Parse")
+@Category("PastaParser")
+@Description("Parsing of a token stream by a parser")
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+	/** Id of the grammar of the parser. */
+	@Label("Grammar")
+	public String grammar;
+
+	/** Number of tokens parsed. */
+	@Label("Token Count")
+	public int tokenCount;
+
+	/** Number of top level syntax trees generated. */
+	@Label("Tree Count")
+	public int treeCount;
+
+	/** Number of tokens skipped. */
+	@Label("Skipped Count")
+	public int skippedCount;
+
+}
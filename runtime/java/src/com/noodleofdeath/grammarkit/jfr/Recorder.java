@@ -0,0 +1,102 @@
+package com.noodleofdeath.pastaparser.jfr;
+
+/**
+ * Records the events of this package.
+ *
+ * The events extend <code>jdk.jfr.Event</code>, which only exists from Java 11
+ * and 8u262 on, so no other class refers to them. They are created by
+ * {@link FlightRecorder}, which is loaded only if <code>jdk.jfr</code> is
+ * available. Otherwise {@link #Instance} records nothing, each method returns
+ * or ignores <code>null</code> and no event class is ever loaded.
+ */
+public class Recorder {
+
+	/**
+	 * Recorder of events, which is a {@link FlightRecorder} if
+	 * <code>jdk.jfr</code> is available.
+	 */
+	public static final Recorder Instance = Create();
+
+	/** Constructs a new recorder that records nothing. */
+	protected Recorder() {
+
+	}
+
+	/** @return begun {@link TokenizeEvent}, or <code>null</code>. */
+	public Object beginTokenize() {
+		return null;
+	}
+
+	/**
+	 * @param event       returned by {@link #beginTokenize()}.
+	 * @param grammar     id of the grammar of the lexer.
+	 * @param inputLength number of characters from the offset tokenizing began
+	 *                    at.
+	 * @param tokenCount  number of tokens generated.
+	 */
+	public void endTokenize(Object event, String grammar, int inputLength, int tokenCount) {
+
+	}
+
+	/** @return begun {@link ParseEvent}, or <code>null</code>. */
+	public Object beginParse() {
+		return null;
+	}
+
+	/**
+	 * @param event        returned by {@link #beginParse()}.
+	 * @param grammar      id of the grammar of the parser.
+	 * @param tokenCount   number of tokens from the offset parsing began at.
+	 * @param treeCount    number of syntax trees generated.
+	 * @param skippedCount number of tokens skipped.
+	 */
+	public void endParse(Object event, String grammar, int tokenCount, int treeCount, int skippedCount) {
+
+	}
+
+	/** @return begun {@link RetokenizeEvent}, or <code>null</code>. */
+	public Object beginRetokenize() {
+		return null;
+	}
+
+	/**
+	 * @param event       returned by {@link #beginRetokenize()}.
+	 * @param grammar     id of the grammar of the parser.
+	 * @param rule        id of the lexer rule of the retokenized token.
+	 * @param inputLength number of characters of the retokenized token.
+	 * @param tokenCount  number of tokens generated.
+	 */
+	public void endRetokenize(Object event, String grammar, String rule, int inputLength, int tokenCount) {
+
+	}
+
+	/** @return begun {@link GrammarLoadEvent}, or <code>null</code>. */
+	public Object beginGrammarLoad() {
+		return null;
+	}
+
+	/**
+	 * @param event     returned by {@link #beginGrammarLoad()}.
+	 * @param grammar   id of the grammar.
+	 * @param ruleCount number of rules of the grammar.
+	 * @param succeeded whether the grammar was loaded.
+	 */
+	public void endGrammarLoad(Object event, String grammar, int ruleCount, boolean succeeded) {
+
+	}
+
+	/**
+	 * @return a {@link FlightRecorder} if <code>jdk.jfr</code> is available,
+	 *         or a recorder that records nothing.
+	 */
+	private static Recorder Create() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return (Recorder) Class.forName(Recorder.class.getPackage().getName() + ".FlightRecorder")
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return new Recorder();
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.noodleofdeath.pastaparser.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for tokenizing and parsing the text of a token whose
+ * rule has the <code>retokenize</code> option, nested in the parse of the
+ * enclosing stream.
+ */
+@Name("com.noodleofdeath.pastaparser.Retokenize")
+@Label("Retokenize")
+@Category("PastaParser")
+@Description("Tokenizing and parsing of a retokenized block")
+@StackTrace(false)
+public class RetokenizeEvent extends Event {
+
+	/** Id of the grammar of the syntax engine. */
+	@Label("Grammar")
+	public String grammar;
+
+	/** Id of the lexer rule of the retokenized token. */
+	@Label("Rule")
+	public String rule;
+
+	/** Number of characters of the retokenized token. */
+	@Label("Input Length")
+	public int inputLength;
+
+	/** Number of tokens generated from the retokenized token. */
+	@Label("Token Count")
+	public int tokenCount;
+
+}
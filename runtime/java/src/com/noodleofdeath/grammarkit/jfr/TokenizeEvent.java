@@ -0,0 +1,30 @@
+package com.noodleofdeath.pastaparser.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for tokenizing a character stream. */
+@Name("com.noodleofdeath.pastaparser.Tokenize")
+@Label("Tokenize")
+@Category("PastaParser")
+@Description("Tokenizing of a character stream by a lexer")
+@StackTrace(false)
+public class TokenizeEvent extends Event {
+
+	/** Id of the grammar of the lexer. */
+	@Label("Grammar")
+	public String grammar;
+
+	/** Number of characters from the offset tokenizing began at. */
+	@Label("Input Length")
+	public int inputLength;
+
+	/** Number of tokens generated. */
+	@Label("Token Count")
+	public int tokenCount;
+
+}
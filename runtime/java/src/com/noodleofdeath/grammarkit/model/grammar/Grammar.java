@@ -1,16 +1,22 @@
 package com.noodleofdeath.pastaparser.model.grammar;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.List;
 
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
-import com.noodleofdeath.pastaparser.model.grammar.rule.impl.BaseGrammarRule;
 
 /** Specifications for a grammar. */
 public interface Grammar {
 
+	/** @return id of this grammar, or <code>null</code> if it has none. */
+	public abstract String id();
+
+	/** @param id of this grammar. */
+	public abstract void setId(String id);
+
 	/**
 	 * 
 	 * @return
@@ -47,25 +53,24 @@ public interface Grammar {
 	 * 
 	 * @return
 	 */
-	public abstract HashMap<String, GrammarRule> ruleMap();
+	public abstract Map<String, GrammarRule> ruleMap();
 
 	/**
 	 * 
 	 * @return
 	 */
-	public abstract void setRuleMap(HashMap<String, GrammarRule> ruleMap);
+	public abstract void setRuleMap(Map<String, GrammarRule> ruleMap);
 
 	/**
-	 * @param key
-	 * @return
+	 * Looks up a rule of this grammar by identifier. Lexers and parsers follow
+	 * {@link GrammarRule#reference()} instead where a grammar has been linked.
+	 * 
+	 * @param key identifier of the rule.
+	 * @return the rule with the specified identifier, or <code>null</code> if no
+	 *         such rule exists.
 	 */
 	public default GrammarRule rule(String key) {
-		GrammarRule rule = ruleMap().get(key);
-		if (rule == null) {
-			System.out.println(String.format("Cannot find rule: %s", key));
-			return new BaseGrammarRule(key);
-		}
-		return rule;
+		return ruleMap().get(key);
 	}
 
 	/**
@@ -110,4 +115,32 @@ public interface Grammar {
 	 */
 	public abstract void setUnmatchedRule(GrammarRule unmatchedRule);
 
+	/**
+	 * Gets the static analysis of the rules of this grammar. The analysis is
+	 * computed on first use and cached until the rules of this grammar are
+	 * replaced or sorted.
+	 * 
+	 * @return analysis of this grammar.
+	 */
+	public abstract GrammarAnalysis analysis();
+
+	/**
+	 * Returns a deeply immutable snapshot of this grammar that can be shared by
+	 * any number of lexers and parsers running on different threads without
+	 * locking. Rules, rule lists, and dictionaries of the snapshot are copies, so
+	 * later changes to this grammar are not reflected in it.
+	 * 
+	 * @return immutable snapshot of this grammar, or this grammar if it is
+	 *         already {@link #frozen()}.
+	 */
+	public abstract Grammar freeze();
+
+	/**
+	 * @return <code>true</code> if this grammar is an immutable snapshot created
+	 *         by {@link #freeze()}; <code>false</code>, otherwise.
+	 */
+	public default boolean frozen() {
+		return false;
+	}
+
 }
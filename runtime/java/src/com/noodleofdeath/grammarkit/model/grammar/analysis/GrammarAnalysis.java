@@ -0,0 +1,153 @@
+package com.noodleofdeath.pastaparser.model.grammar.analysis;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+
+/**
+ * Specifications for a static analysis of the rules of a grammar, computed once
+ * per grammar.
+ *
+ * Lengths are measured in characters for lexer rules and in tokens for parser
+ * rules. FIRST and FOLLOW sets contain single characters for lexer rules and
+ * lexer rule identifiers for parser rules; a <code>null</code> set means the
+ * set could not be determined and any character or token may occur.
+ */
+public interface GrammarAnalysis {
+
+	/** Length of a rule that has no upper bound. */
+	public static final int Unbounded = Integer.MAX_VALUE;
+
+	/** @return grammar this analysis was computed for. */
+	public abstract Grammar grammar();
+
+	/**
+	 * Returns <code>true</code> if a specified rule can match without consuming
+	 * any input; <code>false</code>, otherwise.
+	 *
+	 * @param rule of the analyzed grammar.
+	 * @return <code>true</code> if the specified rule can match empty input.
+	 */
+	public default boolean nullable(GrammarRule rule) {
+		return minLength(rule) == 0;
+	}
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return fewest characters or tokens a match of the specified rule
+	 *         consumes, or {@link #Unbounded} if the rule can never match.
+	 */
+	public abstract int minLength(GrammarRule rule);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return most characters or tokens a match of the specified rule consumes,
+	 *         or {@link #Unbounded} if there is no upper bound.
+	 */
+	public abstract int maxLength(GrammarRule rule);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return characters or token types a non-empty match of the specified rule
+	 *         can begin with, or <code>null</code> if unknown.
+	 */
+	public abstract Set<String> first(GrammarRule rule);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return characters or token types that can immediately follow a match of
+	 *         the specified rule, or <code>null</code> if unknown.
+	 */
+	public abstract Set<String> follow(GrammarRule rule);
+
+	/**
+	 * @param rule lexer rule of the analyzed grammar.
+	 * @return {@link #first(GrammarRule)} of the specified lexer rule as a set
+	 *         of character codes, or <code>null</code> if unknown. The returned
+	 *         set is shared and must not be modified.
+	 */
+	public abstract BitSet firstCharacters(GrammarRule rule);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return kind of recursion of the specified rule.
+	 */
+	public abstract GrammarRecursion recursion(GrammarRule rule);
+
+	/**
+	 * @return every category of the rules of the analyzed grammar, in order of
+	 *         first appearance and indexed by category id.
+	 */
+	public abstract List<String> categories();
+
+	/**
+	 * @param category name of a category.
+	 * @return id of the specified category, or <code>-1</code> if no rule of
+	 *         the analyzed grammar has it.
+	 */
+	public abstract int categoryId(String category);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return id of the first category of the specified rule, or
+	 *         <code>-1</code> if it has none.
+	 */
+	public abstract int categoryId(GrammarRule rule);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return ids of every category of the specified rule, or <code>null</code>
+	 *         if the rule does not belong to the analyzed grammar. The returned
+	 *         set is shared and must not be modified.
+	 */
+	public abstract BitSet categoryIds(GrammarRule rule);
+
+	/**
+	 * @param rule       of the analyzed grammar.
+	 * @param categoryId id of a category.
+	 * @return <code>true</code> if the specified rule has the category with the
+	 *         specified id; <code>false</code>, otherwise.
+	 */
+	public default boolean hasCategory(GrammarRule rule, int categoryId) {
+		BitSet categoryIds = categoryIds(rule);
+		return categoryId > -1 && categoryIds != null && categoryIds.get(categoryId);
+	}
+
+	/**
+	 * @return every option of the rules of the analyzed grammar, indexed by
+	 *         option id. The {@link GrammarRule#ReservedOptions reserved
+	 *         options} come first, so their ids match the bits of
+	 *         {@link GrammarRule#optionMask()}.
+	 */
+	public abstract List<String> options();
+
+	/**
+	 * @param option name of an option.
+	 * @return id of the specified option, or <code>-1</code> if it is not
+	 *         reserved and no rule of the analyzed grammar has it.
+	 */
+	public abstract int optionId(String option);
+
+	/**
+	 * @param rule of the analyzed grammar.
+	 * @return ids of every option of the specified rule, or <code>null</code>
+	 *         if the rule does not belong to the analyzed grammar. The returned
+	 *         set is shared and must not be modified.
+	 */
+	public abstract BitSet optionIds(GrammarRule rule);
+
+	/**
+	 * @param rule     of the analyzed grammar.
+	 * @param optionId id of an option.
+	 * @return <code>true</code> if the specified rule has the option with the
+	 *         specified id; <code>false</code>, otherwise.
+	 */
+	public default boolean hasOption(GrammarRule rule, int optionId) {
+		BitSet optionIds = optionIds(rule);
+		return optionId > -1 && optionIds != null && optionIds.get(optionId);
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.noodleofdeath.pastaparser.model.grammar.analysis;
+
+/** Enumerated type for the kind of recursion of a grammar rule. */
+public enum GrammarRecursion {
+
+	/** The rule cannot reach itself through rule references. */
+	None,
+
+	/**
+	 * The rule can reach itself without consuming any input, so a lexer or parser
+	 * that follows that path recurses at the same offset.
+	 */
+	Left,
+
+	/**
+	 * The rule can reach itself, but only after consuming input and only at
+	 * the end of its match, such as a list that ends with a reference to itself.
+	 */
+	Right,
+
+	/**
+	 * The rule can reach itself after consuming input with more input to
+	 * follow, such as a nested block <code>'(' expr ')'</code>, so its matches
+	 * nest.
+	 */
+	Center;
+
+}
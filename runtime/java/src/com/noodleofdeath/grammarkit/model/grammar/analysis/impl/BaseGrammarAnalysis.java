@@ -0,0 +1,769 @@
+package com.noodleofdeath.pastaparser.model.grammar.analysis.impl;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarRecursion;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
+
+/**
+ * Base implementation of {@link GrammarAnalysis}.
+ *
+ * Minimum lengths and FIRST and FOLLOW sets are computed as fixed points over
+ * all rules of the grammar; maximum lengths are computed depth first and are
+ * {@link #Unbounded} for recursive rules. Recursion is classified with a
+ * single pass of Tarjan's strongly connected components algorithm over the
+ * rule reference graph and over its subgraph of references that can be
+ * reached without consuming input. Every value is a conservative bound
+ * of what the text lexer and parser can match, so rules may be skipped safely
+ * whenever the analysis rules them out.
+ */
+public class BaseGrammarAnalysis implements GrammarAnalysis {
+
+	/** Analysis of a single rule. */
+	protected static class RuleAnalysis {
+
+		/** <code>true</code> if the rule is matched against characters. */
+		protected final boolean lexer;
+
+		/** Fewest characters or tokens a match consumes. */
+		protected int minLength = Unbounded;
+
+		/** Most characters or tokens a match consumes, or -1 if not computed. */
+		protected int maxLength = -1;
+
+		/** FIRST set, or <code>null</code> if unknown. */
+		protected Set<String> first = new HashSet<>();
+
+		/** FOLLOW set, or <code>null</code> if unknown. */
+		protected Set<String> follow = new HashSet<>();
+
+		/** FIRST set as character codes, or <code>null</code> if unknown. */
+		protected BitSet firstCharacters = null;
+
+		/** Kind of recursion of the rule. */
+		protected GrammarRecursion recursion = GrammarRecursion.None;
+
+		/** Id of the first category of the rule, or -1 if it has none. */
+		protected int categoryId = -1;
+
+		/** Ids of the categories of the rule. */
+		protected BitSet categoryIds = new BitSet();
+
+		/** Ids of the options of the rule. */
+		protected BitSet optionIds = new BitSet();
+
+		/** @param lexer */
+		protected RuleAnalysis(boolean lexer) {
+			this.lexer = lexer;
+		}
+
+	}
+
+	/** Escaped metacharacters and character classes of a regular expression. */
+	private static final Pattern CharacterClass = Pattern.compile("\\\\[^A-Za-z0-9]|\\[(?:\\\\.|[^\\]])*\\]");
+
+	/** Grammar analyzed by this analysis. */
+	protected final Grammar grammar;
+
+	/** Analyses of every rule of the grammar. */
+	protected final Map<GrammarRule, RuleAnalysis> analyses = new IdentityHashMap<>();
+
+	/** Categories of the grammar, indexed by category id. */
+	protected final List<String> categories = new ArrayList<>();
+
+	/** Ids of the categories of the grammar. */
+	protected final Map<String, Integer> categoryIds = new HashMap<>();
+
+	/** Options of the grammar, indexed by option id. */
+	protected final List<String> options = new ArrayList<>(GrammarRule.ReservedOptions);
+
+	/** Ids of the options of the grammar. */
+	protected final Map<String, Integer> optionIds = new HashMap<>();
+
+	/** Rules whose maximum length is being computed. */
+	private final Set<GrammarRule> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	/**
+	 * Constructs and computes the analysis of a specified grammar.
+	 *
+	 * @param grammar to analyze.
+	 */
+	public BaseGrammarAnalysis(Grammar grammar) {
+
+		this.grammar = grammar;
+
+		for (String option : options)
+			optionIds.put(option, optionIds.size());
+
+		for (GrammarRule rule : grammar.rules())
+			analyses.put(rule, new RuleAnalysis(rule.ruleType() != GrammarRuleType.ParserRule));
+		for (GrammarRule rule : grammar.ruleMap().values())
+			if (!analyses.containsKey(rule))
+				analyses.put(rule, new RuleAnalysis(rule.ruleType() != GrammarRuleType.ParserRule));
+
+		for (boolean changed = true; changed;) {
+			changed = false;
+			for (Map.Entry<GrammarRule, RuleAnalysis> entry : analyses.entrySet()) {
+				int minLength = minLength(entry.getKey(), entry.getValue().lexer);
+				if (minLength < entry.getValue().minLength) {
+					entry.getValue().minLength = minLength;
+					changed = true;
+				}
+			}
+		}
+
+		for (GrammarRule rule : analyses.keySet())
+			computeMaxLength(rule);
+
+		for (boolean changed = true; changed;) {
+			changed = false;
+			for (Map.Entry<GrammarRule, RuleAnalysis> entry : analyses.entrySet()) {
+				if (entry.getValue().first == null)
+					continue;
+				Set<String> first = first(entry.getKey(), entry.getValue().lexer);
+				if (!Objects.equals(first, entry.getValue().first)) {
+					entry.getValue().first = first;
+					changed = true;
+				}
+			}
+		}
+
+		for (GrammarRule rule : grammar.rules())
+			analyses.get(rule).follow = null;
+		for (boolean changed = true; changed;) {
+			changed = false;
+			for (Map.Entry<GrammarRule, RuleAnalysis> entry : analyses.entrySet())
+				for (GrammarRule alternative : entry.getKey().subrules())
+					changed |= follow(alternative, entry.getValue().follow, entry.getValue().lexer);
+		}
+
+		Map<GrammarRule, List<GrammarRule>> references = new IdentityHashMap<>();
+		Map<GrammarRule, List<GrammarRule>> leftReferences = new IdentityHashMap<>();
+		Map<GrammarRule, List<GrammarRule>> innerReferences = new IdentityHashMap<>();
+		for (Map.Entry<GrammarRule, RuleAnalysis> entry : analyses.entrySet()) {
+			List<GrammarRule> edges = new ArrayList<>();
+			List<GrammarRule> leftEdges = new ArrayList<>();
+			List<GrammarRule> innerEdges = new ArrayList<>();
+			for (GrammarRule alternative : entry.getKey().subrules())
+				references(alternative, entry.getValue().lexer, true, true, edges, leftEdges, innerEdges);
+			references.put(entry.getKey(), edges);
+			leftReferences.put(entry.getKey(), leftEdges);
+			innerReferences.put(entry.getKey(), innerEdges);
+		}
+		for (Set<GrammarRule> component : Cycles(references)) {
+			GrammarRecursion recursion = GrammarRecursion.Right;
+			for (GrammarRule rule : component)
+				for (GrammarRule reference : innerReferences.get(rule))
+					if (component.contains(reference))
+						recursion = GrammarRecursion.Center;
+			for (GrammarRule rule : component)
+				analyses.get(rule).recursion = recursion;
+		}
+		for (GrammarRule rule : Recursive(leftReferences))
+			analyses.get(rule).recursion = GrammarRecursion.Left;
+
+		for (GrammarRule rule : grammar.rules()) {
+			addCategories(rule);
+			addOptions(rule);
+		}
+		for (GrammarRule rule : grammar.ruleMap().values()) {
+			addCategories(rule);
+			addOptions(rule);
+		}
+
+		for (RuleAnalysis analysis : analyses.values()) {
+			if (analysis.lexer && analysis.first != null) {
+				analysis.firstCharacters = new BitSet();
+				for (String ch : analysis.first)
+					analysis.firstCharacters.set(ch.charAt(0));
+			}
+			if (analysis.first != null)
+				analysis.first = Collections.unmodifiableSet(analysis.first);
+			if (analysis.follow != null)
+				analysis.follow = Collections.unmodifiableSet(analysis.follow);
+		}
+
+	}
+
+	@Override
+	public Grammar grammar() {
+		return grammar;
+	}
+
+	@Override
+	public int minLength(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.minLength : 0;
+	}
+
+	@Override
+	public int maxLength(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.maxLength : Unbounded;
+	}
+
+	@Override
+	public Set<String> first(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.first : null;
+	}
+
+	@Override
+	public Set<String> follow(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.follow : null;
+	}
+
+	@Override
+	public BitSet firstCharacters(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.firstCharacters : null;
+	}
+
+	@Override
+	public GrammarRecursion recursion(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.recursion : GrammarRecursion.None;
+	}
+
+	/**
+	 * Assigns ids to the categories of a specified rule that do not have one
+	 * yet, so that ids follow the order of the rules of the grammar.
+	 *
+	 * @param rule of the analyzed grammar.
+	 */
+	protected void addCategories(GrammarRule rule) {
+		List<String> categories = rule.categories();
+		if (categories == null)
+			return;
+		RuleAnalysis analysis = analyses.get(rule);
+		for (String category : categories) {
+			if (!categoryIds.containsKey(category)) {
+				categoryIds.put(category, this.categories.size());
+				this.categories.add(category);
+			}
+			analysis.categoryIds.set(categoryIds.get(category));
+		}
+		if (categories.size() > 0)
+			analysis.categoryId = categoryIds.get(categories.get(0));
+	}
+
+	/**
+	 * Assigns ids to the options of a specified rule that do not have one yet,
+	 * after the {@link GrammarRule#ReservedOptions reserved options}.
+	 *
+	 * @param rule of the analyzed grammar.
+	 */
+	protected void addOptions(GrammarRule rule) {
+		List<String> options = rule.options();
+		if (options == null)
+			return;
+		RuleAnalysis analysis = analyses.get(rule);
+		for (String option : options) {
+			if (option.isEmpty())
+				continue;
+			if (!optionIds.containsKey(option)) {
+				optionIds.put(option, this.options.size());
+				this.options.add(option);
+			}
+			analysis.optionIds.set(optionIds.get(option));
+		}
+	}
+
+	@Override
+	public List<String> categories() {
+		return Collections.unmodifiableList(categories);
+	}
+
+	@Override
+	public int categoryId(String category) {
+		Integer id = categoryIds.get(category);
+		return id != null ? id : -1;
+	}
+
+	@Override
+	public int categoryId(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.categoryId : -1;
+	}
+
+	@Override
+	public BitSet categoryIds(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.categoryIds : null;
+	}
+
+	@Override
+	public List<String> options() {
+		return Collections.unmodifiableList(options);
+	}
+
+	@Override
+	public int optionId(String option) {
+		Integer id = optionIds.get(option);
+		return id != null ? id : -1;
+	}
+
+	@Override
+	public BitSet optionIds(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		return analysis != null ? analysis.optionIds : null;
+	}
+
+	/**
+	 * @param atom  to resolve.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return rule referenced by the specified atom, or <code>null</code> if the
+	 *         atom is not a reference within its kind of rule or the referenced
+	 *         rule is not a rule of the analyzed grammar.
+	 */
+	protected GrammarRule referencedRule(GrammarRule atom, boolean lexer) {
+		boolean reference = lexer
+				? atom.componentType().equals(GrammarRuleComponentType.LexerRule,
+						GrammarRuleComponentType.LexerFragment)
+				: atom.componentType() == GrammarRuleComponentType.ParserRule;
+		if (!reference)
+			return null;
+		GrammarRule rule = atom.reference() != null ? atom.reference() : grammar.ruleMap().get(atom.value());
+		return rule != null && analyses.containsKey(rule) ? rule : null;
+	}
+
+	/**
+	 * @param atom  to resolve.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return analysis of the rule referenced by the specified atom, or
+	 *         <code>null</code> if the atom is not a reference within its kind
+	 *         of rule or the referenced rule does not exist.
+	 */
+	protected RuleAnalysis reference(GrammarRule atom, boolean lexer) {
+		GrammarRule rule = referencedRule(atom, lexer);
+		return rule != null ? analyses.get(rule) : null;
+	}
+
+	/**
+	 * Collects the rules referenced by a sequence of atoms.
+	 *
+	 * @param head       of the sequence.
+	 * @param lexer      <code>true</code> if the sequence belongs to a lexer rule.
+	 * @param left       <code>true</code> if the sequence can be reached without
+	 *                   consuming input.
+	 * @param right      <code>true</code> if the sequence can be followed by no
+	 *                   further input of its rule.
+	 * @param edges      to add every referenced rule to.
+	 * @param leftEdges  to add every rule referenced without consuming input to.
+	 * @param innerEdges to add every rule referenced where more input of the
+	 *                   referencing rule must follow to.
+	 */
+	protected void references(GrammarRule head, boolean lexer, boolean left, boolean right,
+			List<GrammarRule> edges, List<GrammarRule> leftEdges, List<GrammarRule> innerEdges) {
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			boolean last = right;
+			for (GrammarRule next = atom.next(); last && next != null; next = next.next())
+				last = minLength(next, lexer) == 0;
+			GrammarRule rule = referencedRule(atom, lexer);
+			if (rule != null) {
+				edges.add(rule);
+				if (left)
+					leftEdges.add(rule);
+				if (!last)
+					innerEdges.add(rule);
+			}
+			if (atom.componentType() == GrammarRuleComponentType.Composite && atom.dictionary() == null)
+				for (GrammarRule alternative : atom.subrules())
+					references(alternative, lexer, left, last, edges, leftEdges, innerEdges);
+			if (minLength(atom, lexer) > 0)
+				left = false;
+		}
+	}
+
+	/**
+	 * @param graph mapping every rule to the rules it references.
+	 * @return rules that can reach themselves in the specified graph.
+	 */
+	protected static Set<GrammarRule> Recursive(Map<GrammarRule, List<GrammarRule>> graph) {
+		Set<GrammarRule> recursive = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Set<GrammarRule> component : Cycles(graph))
+			recursive.addAll(component);
+		return recursive;
+	}
+
+	/**
+	 * Finds the strongly connected components of a reference graph that contain
+	 * a cycle, using Tarjan's algorithm.
+	 *
+	 * @param graph mapping every rule to the rules it references.
+	 * @return components of rules that can reach each other and themselves in
+	 *         the specified graph.
+	 */
+	protected static List<Set<GrammarRule>> Cycles(Map<GrammarRule, List<GrammarRule>> graph) {
+
+		List<Set<GrammarRule>> cycles = new ArrayList<>();
+		Set<GrammarRule> selfReferences = Collections.newSetFromMap(new IdentityHashMap<>());
+		Map<GrammarRule, Integer> indices = new IdentityHashMap<>();
+		Map<GrammarRule, Integer> lowlinks = new IdentityHashMap<>();
+		Deque<GrammarRule> stack = new ArrayDeque<>();
+		Set<GrammarRule> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (GrammarRule root : graph.keySet()) {
+
+			if (indices.containsKey(root))
+				continue;
+
+			Deque<GrammarRule> path = new ArrayDeque<>();
+			Deque<Integer> positions = new ArrayDeque<>();
+			indices.put(root, indices.size());
+			lowlinks.put(root, indices.get(root));
+			stack.push(root);
+			onStack.add(root);
+			path.push(root);
+			positions.push(0);
+
+			while (!path.isEmpty()) {
+				GrammarRule rule = path.peek();
+				int position = positions.pop();
+				List<GrammarRule> edges = graph.get(rule);
+				if (position < edges.size()) {
+					positions.push(position + 1);
+					GrammarRule next = edges.get(position);
+					if (next == rule) {
+						selfReferences.add(rule);
+					} else if (!indices.containsKey(next)) {
+						indices.put(next, indices.size());
+						lowlinks.put(next, indices.get(next));
+						stack.push(next);
+						onStack.add(next);
+						path.push(next);
+						positions.push(0);
+					} else if (onStack.contains(next)) {
+						lowlinks.put(rule, Math.min(lowlinks.get(rule), indices.get(next)));
+					}
+					continue;
+				}
+				path.pop();
+				if (!path.isEmpty())
+					lowlinks.put(path.peek(), Math.min(lowlinks.get(path.peek()), lowlinks.get(rule)));
+				if (lowlinks.get(rule).equals(indices.get(rule))) {
+					Set<GrammarRule> component = Collections.newSetFromMap(new IdentityHashMap<>());
+					GrammarRule member;
+					do {
+						member = stack.pop();
+						onStack.remove(member);
+						component.add(member);
+					} while (member != rule);
+					if (component.size() > 1 || selfReferences.contains(rule))
+						cycles.add(component);
+				}
+			}
+
+		}
+
+		return cycles;
+
+	}
+
+	/**
+	 * @param atom  to measure, including its quantifier.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return fewest characters or tokens the specified atom consumes.
+	 */
+	protected int minLength(GrammarRule atom, boolean lexer) {
+		int lowerBound = atom.quantifier().lowerBound();
+		return lowerBound == 0 ? 0 : Multiply(unitMinLength(atom, lexer), lowerBound);
+	}
+
+	/**
+	 * @param atom  to measure, excluding its quantifier.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return fewest characters or tokens a single repetition of the specified
+	 *         atom consumes.
+	 */
+	protected int unitMinLength(GrammarRule atom, boolean lexer) {
+		if (atom.inverted())
+			return 1;
+		switch (atom.componentType()) {
+		case Composite:
+			if (atom.dictionary() != null) {
+				if (!lexer)
+					return 1;
+				int minLength = Unbounded;
+				for (String word : atom.dictionary().words())
+					minLength = Math.min(minLength, word.length());
+				return minLength;
+			}
+			if (atom.subrules().size() == 0)
+				return 0;
+			int minLength = Unbounded;
+			for (GrammarRule alternative : atom.subrules()) {
+				int length = 0;
+				for (GrammarRule part = alternative; part != null; part = part.next())
+					length = Add(length, minLength(part, lexer));
+				minLength = Math.min(minLength, length);
+			}
+			return minLength;
+		case LexerRule:
+		case LexerFragment:
+		case ParserRule:
+			if (!lexer && atom.componentType() != GrammarRuleComponentType.ParserRule)
+				return 1;
+			RuleAnalysis reference = reference(atom, lexer);
+			return reference != null ? reference.minLength : 0;
+		case Literal:
+		case Expression:
+			if (!lexer)
+				return 1;
+			if (atom.literal() != null)
+				return atom.literal().length();
+			return MatchesEmpty(atom) ? 0 : 1;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * @param rule top level rule to measure.
+	 * @return most characters or tokens a match of the specified rule consumes.
+	 */
+	protected int computeMaxLength(GrammarRule rule) {
+		RuleAnalysis analysis = analyses.get(rule);
+		if (analysis.maxLength > -1)
+			return analysis.maxLength;
+		if (!visiting.add(rule))
+			return Unbounded;
+		int maxLength = maxLength(rule, analysis.lexer);
+		visiting.remove(rule);
+		analysis.maxLength = maxLength;
+		return maxLength;
+	}
+
+	/**
+	 * @param atom  to measure, including its quantifier.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return most characters or tokens the specified atom consumes.
+	 */
+	protected int maxLength(GrammarRule atom, boolean lexer) {
+		int upperBound = atom.quantifier().upperBound();
+		if (upperBound == 0)
+			return 0;
+		int unitMaxLength = unitMaxLength(atom, lexer);
+		return unitMaxLength == 0 ? 0 : Multiply(unitMaxLength, upperBound);
+	}
+
+	/**
+	 * @param atom  to measure, excluding its quantifier.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return most characters or tokens a single repetition of the specified atom
+	 *         consumes.
+	 */
+	protected int unitMaxLength(GrammarRule atom, boolean lexer) {
+		if (atom.inverted())
+			return 1;
+		switch (atom.componentType()) {
+		case Composite:
+			if (atom.dictionary() != null) {
+				if (!lexer)
+					return 1;
+				int maxLength = 0;
+				for (String word : atom.dictionary().words())
+					maxLength = Math.max(maxLength, word.length());
+				return maxLength;
+			}
+			int maxLength = 0;
+			for (GrammarRule alternative : atom.subrules()) {
+				int length = 0;
+				for (GrammarRule part = alternative; part != null; part = part.next())
+					length = Add(length, maxLength(part, lexer));
+				maxLength = Math.max(maxLength, length);
+			}
+			return maxLength;
+		case LexerRule:
+		case LexerFragment:
+		case ParserRule:
+			if (!lexer && atom.componentType() != GrammarRuleComponentType.ParserRule)
+				return 1;
+			if (reference(atom, lexer) == null)
+				return Unbounded;
+			return computeMaxLength(atom.reference() != null ? atom.reference() : grammar.ruleMap().get(atom.value()));
+		case Literal:
+		case Expression:
+			if (!lexer)
+				return 1;
+			return atom.literal() != null ? atom.literal().length() : Unbounded;
+		default:
+			return Unbounded;
+		}
+	}
+
+	/**
+	 * @param atom  whose FIRST set to compute, regardless of its quantifier.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return FIRST set of the specified atom, or <code>null</code> if unknown.
+	 */
+	protected Set<String> first(GrammarRule atom, boolean lexer) {
+		if (atom.inverted())
+			return null;
+		Set<String> first = new HashSet<>();
+		switch (atom.componentType()) {
+		case Composite:
+			if (atom.dictionary() != null) {
+				if (!lexer)
+					return null;
+				for (String word : atom.dictionary().words())
+					first.add(word.substring(0, 1));
+				return first;
+			}
+			for (GrammarRule alternative : atom.subrules()) {
+				Set<String> set = sequenceFirst(alternative, lexer);
+				if (set == null)
+					return null;
+				first.addAll(set);
+			}
+			return first;
+		case LexerRule:
+		case LexerFragment:
+		case ParserRule:
+			if (!lexer && atom.componentType() != GrammarRuleComponentType.ParserRule) {
+				first.add(atom.value());
+				return first;
+			}
+			RuleAnalysis reference = reference(atom, lexer);
+			return reference != null && reference.first != null ? new HashSet<>(reference.first) : null;
+		case Literal:
+		case Expression:
+			if (!lexer || atom.literal() == null)
+				return null;
+			if (atom.literal().length() > 0)
+				first.add(atom.literal().substring(0, 1));
+			return first;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @param head  of a sequence of atoms.
+	 * @param lexer <code>true</code> if the sequence belongs to a lexer rule.
+	 * @return FIRST set of the specified sequence, or <code>null</code> if
+	 *         unknown.
+	 */
+	protected Set<String> sequenceFirst(GrammarRule head, boolean lexer) {
+		Set<String> first = new HashSet<>();
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			Set<String> set = first(atom, lexer);
+			if (set == null)
+				return null;
+			first.addAll(set);
+			if (minLength(atom, lexer) > 0)
+				break;
+		}
+		return first;
+	}
+
+	/**
+	 * Adds the FOLLOW sets contributed by a sequence of atoms to the rules they
+	 * reference.
+	 *
+	 * @param head   of the sequence.
+	 * @param follow set of the position after the sequence, or <code>null</code>
+	 *               if unknown.
+	 * @param lexer  <code>true</code> if the sequence belongs to a lexer rule.
+	 * @return <code>true</code> if any FOLLOW set changed.
+	 */
+	protected boolean follow(GrammarRule head, Set<String> follow, boolean lexer) {
+		boolean changed = false;
+		List<GrammarRule> atoms = new ArrayList<>();
+		for (GrammarRule atom = head; atom != null; atom = atom.next())
+			atoms.add(atom);
+		Set<String> after = follow;
+		for (int i = atoms.size() - 1; i > -1; --i) {
+			GrammarRule atom = atoms.get(i);
+			Set<String> first = first(atom, lexer);
+			Set<String> following = atom.quantifier().upperBound() > 1 ? Union(after, first) : after;
+			RuleAnalysis reference = reference(atom, lexer);
+			if (reference != null && reference.follow != null) {
+				if (following == null) {
+					reference.follow = null;
+					changed = true;
+				} else {
+					changed |= reference.follow.addAll(following);
+				}
+			}
+			if (atom.componentType() == GrammarRuleComponentType.Composite && atom.dictionary() == null)
+				for (GrammarRule alternative : atom.subrules())
+					changed |= follow(alternative, following, lexer);
+			after = minLength(atom, lexer) == 0 ? Union(first, after) : first;
+		}
+		return changed;
+	}
+
+	/**
+	 * @param atom to check.
+	 * @return <code>true</code> if the pattern of the specified atom may match
+	 *         without consuming any characters.
+	 */
+	protected static boolean MatchesEmpty(GrammarRule atom) {
+		if (atom.value() == null)
+			return true;
+		String value = CharacterClass.matcher(atom.value()).replaceAll("");
+		if (value.contains("(?=") || value.contains("(?!") || value.contains("(?<") || value.contains("\\b")
+				|| value.contains("\\B") || value.contains("^") || value.contains("$") || value.contains("\\G")
+				|| value.contains("\\A") || value.contains("\\z") || value.contains("\\Z"))
+			return true;
+		try {
+			return atom.pattern().matcher("").lookingAt();
+		} catch (PatternSyntaxException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * @param lhs set, or <code>null</code> if unknown.
+	 * @param rhs set, or <code>null</code> if unknown.
+	 * @return union of the specified sets, or <code>null</code> if either is
+	 *         unknown.
+	 */
+	protected static Set<String> Union(Set<String> lhs, Set<String> rhs) {
+		if (lhs == null || rhs == null)
+			return null;
+		Set<String> union = new HashSet<>(lhs);
+		union.addAll(rhs);
+		return union;
+	}
+
+	/**
+	 * @param lhs length.
+	 * @param rhs length.
+	 * @return sum of the specified lengths, saturated at {@link #Unbounded}.
+	 */
+	protected static int Add(int lhs, int rhs) {
+		long sum = (long) lhs + rhs;
+		return sum >= Unbounded ? Unbounded : (int) sum;
+	}
+
+	/**
+	 * @param lhs length.
+	 * @param rhs length.
+	 * @return product of the specified lengths, saturated at {@link #Unbounded}.
+	 */
+	protected static int Multiply(int lhs, int rhs) {
+		long product = (long) lhs * rhs;
+		return product >= Unbounded ? Unbounded : (int) product;
+	}
+
+}
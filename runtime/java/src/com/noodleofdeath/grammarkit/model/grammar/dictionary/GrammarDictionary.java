@@ -0,0 +1,59 @@
+package com.noodleofdeath.pastaparser.model.grammar.dictionary;
+
+import java.util.List;
+
+/**
+ * Specifications for a dictionary of fixed words matched by a single grammar
+ * rule, such as a keyword list.
+ */
+public interface GrammarDictionary {
+
+	/**
+	 * Adds a word to this dictionary.
+	 * 
+	 * @param word to add to this dictionary.
+	 * @return <code>true</code> if this dictionary did not already contain the
+	 *         specified word; <code>false</code>, otherwise.
+	 */
+	public abstract boolean add(String word);
+
+	/**
+	 * Gets the words of this dictionary in the order they were added.
+	 * 
+	 * @return words of this dictionary.
+	 */
+	public abstract List<String> words();
+
+	/**
+	 * Returns <code>true</code> if a specified character sequence is exactly one
+	 * of the words of this dictionary; <code>false</code>, otherwise.
+	 * 
+	 * @param word to look up.
+	 * @return <code>true</code> if the specified character sequence is a word of
+	 *         this dictionary; <code>false</code>, otherwise.
+	 */
+	public abstract boolean contains(CharSequence word);
+
+	/**
+	 * Returns <code>true</code> if a specified character sequence begins with a
+	 * word of this dictionary, as a token value begins with the match of a
+	 * literal parser rule; <code>false</code>, otherwise.
+	 * 
+	 * @param value to look up.
+	 * @return <code>true</code> if a word of this dictionary is a prefix of the
+	 *         specified character sequence; <code>false</code>, otherwise.
+	 */
+	public abstract boolean containsPrefixOf(CharSequence value);
+
+	/**
+	 * Finds the longest word of this dictionary that occurs in a specified
+	 * character stream at a specified offset and is not immediately followed by
+	 * a word character when it ends with one.
+	 * 
+	 * @param characterStream to match against.
+	 * @param offset          at which the word must begin.
+	 * @return the matched word, or <code>null</code> if no word matches.
+	 */
+	public abstract String match(CharSequence characterStream, int offset);
+
+}
@@ -0,0 +1,156 @@
+package com.noodleofdeath.pastaparser.model.grammar.dictionary.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
+
+/**
+ * Base implementation of {@link GrammarDictionary} backed by a trie, so that
+ * a match costs time proportional to the length of the matched word
+ * regardless of the size of the dictionary.
+ */
+public class BaseGrammarDictionary implements GrammarDictionary {
+
+	/** Node of the trie backing a dictionary. */
+	protected static class Node {
+
+		/** Sorted characters leading to the children of this node. */
+		protected char[] keys = new char[0];
+
+		/** Children of this node, parallel to {@link #keys}. */
+		protected Node[] children = new Node[0];
+
+		/** Word ending at this node, if one exists. */
+		protected String word = null;
+
+		/**
+		 * @param key character leading to the child.
+		 * @return child reached by the specified character, if one exists.
+		 */
+		protected Node child(char key) {
+			int index = Arrays.binarySearch(keys, key);
+			return index < 0 ? null : children[index];
+		}
+
+		/**
+		 * @param key character leading to the child.
+		 * @return child reached by the specified character, created if it does not
+		 *         exist yet.
+		 */
+		protected Node addChild(char key) {
+			int index = Arrays.binarySearch(keys, key);
+			if (index >= 0)
+				return children[index];
+			index = -(index + 1);
+			char[] keys = new char[this.keys.length + 1];
+			Node[] children = new Node[this.children.length + 1];
+			System.arraycopy(this.keys, 0, keys, 0, index);
+			System.arraycopy(this.children, 0, children, 0, index);
+			System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+			System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+			keys[index] = key;
+			children[index] = new Node();
+			this.keys = keys;
+			this.children = children;
+			return children[index];
+		}
+
+	}
+
+	/** Root node of the trie backing this dictionary. */
+	protected Node root = new Node();
+
+	/** Words of this dictionary in the order they were added. */
+	protected List<String> words = new ArrayList<>();
+
+	/** Constructs a new empty dictionary. */
+	public BaseGrammarDictionary() {
+
+	}
+
+	/**
+	 * Constructs a new dictionary with an initial list of words.
+	 * 
+	 * @param words to add to this dictionary.
+	 */
+	public BaseGrammarDictionary(List<String> words) {
+		for (String word : words)
+			add(word);
+	}
+
+	@Override
+	public String toString() {
+		return String.join(" | ", words);
+	}
+
+	/**
+	 * Returns <code>true</code> if a specified character can be part of a word;
+	 * <code>false</code>, otherwise.
+	 * 
+	 * @param ch to check.
+	 * @return <code>true</code> if the specified character can be part of a word;
+	 *         <code>false</code>, otherwise.
+	 */
+	public static boolean isWordCharacter(char ch) {
+		return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$';
+	}
+
+	@Override
+	public boolean add(String word) {
+		if (word.length() < 1)
+			return false;
+		Node node = root;
+		for (int i = 0; i < word.length(); ++i)
+			node = node.addChild(word.charAt(i));
+		if (node.word != null)
+			return false;
+		node.word = word;
+		return words.add(word);
+	}
+
+	@Override
+	public List<String> words() {
+		return Collections.unmodifiableList(words);
+	}
+
+	@Override
+	public boolean contains(CharSequence word) {
+		Node node = root;
+		for (int i = 0; i < word.length() && node != null; ++i)
+			node = node.child(word.charAt(i));
+		return node != null && node.word != null;
+	}
+
+	@Override
+	public boolean containsPrefixOf(CharSequence value) {
+		Node node = root;
+		for (int i = 0; i < value.length(); ++i) {
+			node = node.child(value.charAt(i));
+			if (node == null)
+				return false;
+			if (node.word != null)
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String match(CharSequence characterStream, int offset) {
+		String match = null;
+		Node node = root;
+		int length = characterStream.length();
+		for (int i = offset; i < length; ++i) {
+			node = node.child(characterStream.charAt(i));
+			if (node == null)
+				break;
+			if (node.word != null && !(i + 1 < length && isWordCharacter(characterStream.charAt(i))
+					&& isWordCharacter(characterStream.charAt(i + 1))))
+				match = node.word;
+		}
+		return match;
+	}
+
+}
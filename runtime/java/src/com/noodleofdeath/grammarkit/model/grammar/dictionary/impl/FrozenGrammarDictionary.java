@@ -0,0 +1,55 @@
+package com.noodleofdeath.pastaparser.model.grammar.dictionary.impl;
+
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
+
+/**
+ * Immutable implementation of {@link GrammarDictionary} that holds a private
+ * copy of the words of another dictionary. Used by frozen grammars.
+ */
+public final class FrozenGrammarDictionary implements GrammarDictionary {
+
+	/** Private copy of the words of this dictionary. */
+	private final GrammarDictionary dictionary;
+
+	/**
+	 * Constructs a new immutable copy of a specified dictionary.
+	 *
+	 * @param dictionary to copy.
+	 */
+	public FrozenGrammarDictionary(GrammarDictionary dictionary) {
+		this.dictionary = new BaseGrammarDictionary(dictionary.words());
+	}
+
+	@Override
+	public String toString() {
+		return dictionary.toString();
+	}
+
+	@Override
+	public boolean add(String word) {
+		throw new UnsupportedOperationException("Cannot add a word to a frozen dictionary");
+	}
+
+	@Override
+	public List<String> words() {
+		return dictionary.words();
+	}
+
+	@Override
+	public boolean contains(CharSequence word) {
+		return dictionary.contains(word);
+	}
+
+	@Override
+	public boolean containsPrefixOf(CharSequence value) {
+		return dictionary.containsPrefixOf(value);
+	}
+
+	@Override
+	public String match(CharSequence characterStream, int offset) {
+		return dictionary.match(characterStream, offset);
+	}
+
+}
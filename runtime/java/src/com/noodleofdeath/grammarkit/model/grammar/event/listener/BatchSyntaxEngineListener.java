@@ -0,0 +1,18 @@
+package com.noodleofdeath.pastaparser.model.grammar.event.listener;
+
+import com.noodleofdeath.pastaparser.io.engine.BatchSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.engine.SyntaxEngineResult;
+import com.noodleofdeath.pastaparser.io.token.Token;
+
+public interface BatchSyntaxEngineListener<R, T extends Token<R>> extends GrammarListener {
+
+	/**
+	 * Called on the worker thread that processed a file, whether or not it was
+	 * processed successfully.
+	 * 
+	 * @param engine that processed the file.
+	 * @param result of processing the file.
+	 */
+	public abstract void didProcessFile(BatchSyntaxEngine<R, T> engine, SyntaxEngineResult<R, T> result);
+
+}
@@ -0,0 +1,20 @@
+package com.noodleofdeath.pastaparser.model.grammar.event.listener;
+
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+
+/**
+ * Specifications for a filter that selects the syntax trees a grammar listener
+ * is notified of. Lexers and parsers do not need to fully build syntax trees
+ * that no listener accepts.
+ */
+public interface GrammarEventFilter {
+
+	/**
+	 * @param rule of a generated syntax tree.
+	 * @return <code>true</code> if the listener of this filter should be
+	 *         notified of syntax trees of the specified rule;
+	 *         <code>false</code>, otherwise.
+	 */
+	public abstract boolean accepts(GrammarRule rule);
+
+}
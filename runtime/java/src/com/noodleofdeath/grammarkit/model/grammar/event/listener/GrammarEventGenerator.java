@@ -1,7 +1,10 @@
 package com.noodleofdeath.pastaparser.model.grammar.event.listener;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+
 /**
  * @param <Grammar> type of grammar associated with this match tree.
  * @param <R> type of the parent, children, and root ancestor of this node.
@@ -17,6 +20,82 @@ public interface GrammarEventGenerator<R extends GrammarListener> {
 	 */
 	public abstract boolean addGrammarEventListener(R listener);
 
+	/**
+	 * Adds a listener that is only notified of syntax trees of rules accepted by
+	 * a specified filter.
+	 * 
+	 * @param listener to add.
+	 * @param filter   of the syntax trees to notify the listener of, or
+	 *                 <code>null</code> to notify it of every syntax tree.
+	 * @return
+	 */
+	public abstract boolean addGrammarEventListener(R listener, GrammarEventFilter filter);
+
+	/**
+	 * @param listener
+	 * @return filter of the specified listener, or <code>null</code> if it is
+	 *         notified of every syntax tree.
+	 */
+	public abstract GrammarEventFilter filter(R listener);
+
+	/**
+	 * Replaces the filter of a listener that was already added.
+	 * 
+	 * @param listener
+	 * @param filter   of the syntax trees to notify the listener of, or
+	 *                 <code>null</code> to notify it of every syntax tree.
+	 */
+	public abstract void setFilter(R listener, GrammarEventFilter filter);
+
+	/**
+	 * @return filter that accepts every rule any listener is notified of syntax
+	 *         trees of, or <code>null</code> if a listener is notified of every
+	 *         syntax tree.
+	 */
+	public default GrammarEventFilter union() {
+		final List<GrammarEventFilter> filters = new ArrayList<>();
+		for (R listener : listeners()) {
+			GrammarEventFilter filter = filter(listener);
+			if (filter == null)
+				return null;
+			filters.add(filter);
+		}
+		return new GrammarEventFilter() {
+
+			@Override
+			public boolean accepts(GrammarRule rule) {
+				for (GrammarEventFilter filter : filters)
+					if (filter.accepts(rule))
+						return true;
+				return false;
+			}
+
+		};
+	}
+
+	/**
+	 * @param listener
+	 * @param rule     of a generated syntax tree.
+	 * @return <code>true</code> if the specified listener is notified of syntax
+	 *         trees of the specified rule; <code>false</code>, otherwise.
+	 */
+	public default boolean notifies(R listener, GrammarRule rule) {
+		GrammarEventFilter filter = filter(listener);
+		return filter == null || filter.accepts(rule);
+	}
+
+	/**
+	 * @param rule of a syntax tree.
+	 * @return <code>true</code> if any listener is notified of syntax trees of
+	 *         the specified rule; <code>false</code>, otherwise.
+	 */
+	public default boolean observes(GrammarRule rule) {
+		for (R listener : listeners())
+			if (notifies(listener, rule))
+				return true;
+		return false;
+	}
+
 	/**
 	 * @param listener
 	 * @return
@@ -0,0 +1,26 @@
+package com.noodleofdeath.pastaparser.model.grammar.event.listener;
+
+import com.noodleofdeath.pastaparser.io.engine.IncrementalSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.token.Token;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+public interface IncrementalParserListener<R, T extends Token<R>> extends GrammarListener {
+
+	/**
+	 * Called for every top level syntax tree that an edit added. Syntax trees
+	 * are added in order, after every removal caused by the same edit.
+	 * 
+	 * @param engine
+	 * @param syntaxTree
+	 */
+	public abstract void didAddSyntaxTree(IncrementalSyntaxEngine<R, T> engine, ParserSyntaxTree<T> syntaxTree);
+
+	/**
+	 * Called for every top level syntax tree that an edit removed, in order.
+	 * 
+	 * @param engine
+	 * @param syntaxTree
+	 */
+	public abstract void didRemoveSyntaxTree(IncrementalSyntaxEngine<R, T> engine, ParserSyntaxTree<T> syntaxTree);
+
+}
@@ -0,0 +1,121 @@
+package com.noodleofdeath.pastaparser.model.grammar.event.listener.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventFilter;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+
+/**
+ * Base implementation of {@link GrammarEventFilter} that accepts rules by
+ * identifier or by category. Categories are matched as the category ids of
+ * {@link GrammarAnalysis#categoryIds(GrammarRule)}, which are resolved once
+ * per analysis.
+ */
+public class BaseGrammarEventFilter implements GrammarEventFilter {
+
+	/** Identifiers of the accepted rules. */
+	protected final Set<String> ruleIds;
+
+	/** Categories of the accepted rules. */
+	protected final Set<String> categories;
+
+	/** Ids of the accepted categories in the analysis they were last resolved in. */
+	private volatile CategoryIds categoryIds;
+
+	/** Ids of the accepted categories in an analysis. */
+	private static final class CategoryIds {
+
+		/** Analysis the ids were resolved in. */
+		private final GrammarAnalysis analysis;
+
+		/** Ids of the accepted categories. */
+		private final BitSet ids = new BitSet();
+
+		/**
+		 *
+		 * @param analysis   to resolve the ids in.
+		 * @param categories to resolve.
+		 */
+		private CategoryIds(GrammarAnalysis analysis, Set<String> categories) {
+			this.analysis = analysis;
+			for (String category : categories) {
+				int id = analysis.categoryId(category);
+				if (id > -1)
+					ids.set(id);
+			}
+		}
+
+	}
+
+	/**
+	 *
+	 * @param ruleIds    identifiers of the rules to accept.
+	 * @param categories categories of the rules to accept.
+	 */
+	public BaseGrammarEventFilter(Collection<String> ruleIds, Collection<String> categories) {
+		this.ruleIds = ruleIds != null ? new HashSet<>(ruleIds) : Collections.<String>emptySet();
+		this.categories = categories != null ? new HashSet<>(categories) : Collections.<String>emptySet();
+	}
+
+	/**
+	 * @param ruleIds identifiers of the rules to accept.
+	 * @return a filter that accepts rules with any of the specified identifiers.
+	 */
+	public static GrammarEventFilter Rules(String... ruleIds) {
+		return new BaseGrammarEventFilter(Arrays.asList(ruleIds), null);
+	}
+
+	/**
+	 * @param categories of the rules to accept.
+	 * @return a filter that accepts rules in any of the specified categories.
+	 */
+	public static GrammarEventFilter Categories(String... categories) {
+		return new BaseGrammarEventFilter(null, Arrays.asList(categories));
+	}
+
+	@Override
+	public boolean accepts(GrammarRule rule) {
+		if (rule == null)
+			return false;
+		if (ruleIds.contains(rule.id()))
+			return true;
+		if (categories.isEmpty())
+			return false;
+		Grammar grammar = rule.grammar();
+		if (grammar != null) {
+			GrammarAnalysis analysis = grammar.analysis();
+			BitSet ruleCategoryIds = analysis.categoryIds(rule);
+			if (ruleCategoryIds != null)
+				return ruleCategoryIds.intersects(categoryIds(analysis));
+		}
+		if (rule.categories() != null)
+			for (String category : rule.categories())
+				if (categories.contains(category))
+					return true;
+		return false;
+	}
+
+	/**
+	 * @param analysis of the grammar of a rule.
+	 * @return ids of the accepted categories in the specified analysis.
+	 */
+	protected BitSet categoryIds(GrammarAnalysis analysis) {
+		CategoryIds categoryIds = this.categoryIds;
+		if (categoryIds == null || categoryIds.analysis != analysis)
+			this.categoryIds = categoryIds = new CategoryIds(analysis, categories);
+		return categoryIds.ids;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("rules: %s, categories: %s", ruleIds, categories);
+	}
+
+}
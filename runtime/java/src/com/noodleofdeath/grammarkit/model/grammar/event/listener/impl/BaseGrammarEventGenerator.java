@@ -1,8 +1,11 @@
 package com.noodleofdeath.pastaparser.model.grammar.event.listener.impl;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventFilter;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarEventGenerator;
 import com.noodleofdeath.pastaparser.model.grammar.event.listener.GrammarListener;
 
@@ -14,6 +17,13 @@ public class BaseGrammarEventGenerator<GL extends GrammarListener> implements Gr
 	/** */
 	protected List<GL> listeners = new ArrayList<>();
 
+	/**
+	 * Filters of the listeners that are not notified of every syntax tree. The
+	 * map is replaced instead of modified, so it may be read by other threads,
+	 * such as the workers of a batch engine that compute {@link #union()}.
+	 */
+	protected volatile Map<GL, GrammarEventFilter> filters = new IdentityHashMap<>();
+
 	@Override
 	public List<GL> listeners() {
 		return listeners;
@@ -24,14 +34,49 @@ public class BaseGrammarEventGenerator<GL extends GrammarListener> implements Gr
 		return listeners.add(listener);
 	}
 
+	@Override
+	public boolean addGrammarEventListener(GL listener, GrammarEventFilter filter) {
+		if (filter != null)
+			putFilter(listener, filter);
+		return listeners.add(listener);
+	}
+
+	@Override
+	public GrammarEventFilter filter(GL listener) {
+		return filters.isEmpty() ? null : filters.get(listener);
+	}
+
+	@Override
+	public void setFilter(GL listener, GrammarEventFilter filter) {
+		putFilter(listener, filter);
+	}
+
 	@Override
 	public boolean removeGrammarEventListener(GL listener) {
+		putFilter(listener, null);
 		return listeners.remove(listener);
 	}
 
 	@Override
 	public void removeAllGrammarEventListeners() {
+		filters = new IdentityHashMap<>();
 		listeners.clear();
 	}
 
+	/**
+	 * Replaces {@link #filters} with a copy in which a specified listener has a
+	 * specified filter.
+	 * 
+	 * @param listener whose filter to set.
+	 * @param filter   of the listener, or <code>null</code> to remove it.
+	 */
+	protected synchronized void putFilter(GL listener, GrammarEventFilter filter) {
+		Map<GL, GrammarEventFilter> filters = new IdentityHashMap<>(this.filters);
+		if (filter != null)
+			filters.put(listener, filter);
+		else
+			filters.remove(listener);
+		this.filters = filters;
+	}
+
 }
@@ -0,0 +1,34 @@
+package com.noodleofdeath.pastaparser.model.grammar.exception;
+
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarComplexity;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLint;
+
+/**
+ * Thrown when a grammar is rejected because a rule or pattern of it exceeds the
+ * maximum complexity a grammar loader accepts.
+ */
+public class GrammarComplexityException extends GrammarException {
+
+	private static final long serialVersionUID = 4526171358069474870L;
+
+	/** Findings that exceed the maximum complexity. */
+	private final List<GrammarLint> lints;
+
+	/**
+	 *
+	 * @param maxComplexity maximum complexity that was exceeded.
+	 * @param lints         findings that exceed the maximum complexity.
+	 */
+	public GrammarComplexityException(GrammarComplexity maxComplexity, List<GrammarLint> lints) {
+		super(String.format("Grammar exceeds the maximum complexity %s: %s", maxComplexity, lints));
+		this.lints = lints;
+	}
+
+	/** @return findings that exceed the maximum complexity. */
+	public List<GrammarLint> lints() {
+		return lints;
+	}
+
+}
@@ -2,12 +2,14 @@ package com.noodleofdeath.pastaparser.model.grammar.impl;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
 import com.noodleofdeath.pastaparser.model.grammar.GrammarRuleGenerator;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.impl.BaseGrammarAnalysis;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.grammar.rule.impl.BaseGrammarRule;
 
@@ -17,6 +19,9 @@ import com.noodleofdeath.pastaparser.model.grammar.rule.impl.BaseGrammarRule;
  */
 public class BaseGrammar implements Grammar {
 
+	/** Id of this grammar, if one exists. */
+	protected String id;
+
 	/** Parent grammar of this grammar, if one exists. */
 	public Grammar parentGrammar;
 	
@@ -24,13 +29,16 @@ public class BaseGrammar implements Grammar {
 	protected GrammarRule rootRule = new BaseGrammarRule();
 	
 	/** Rule map of this grammar. */
-	protected HashMap<String, GrammarRule> ruleMap = new LinkedHashMap<>();
+	protected Map<String, GrammarRule> ruleMap = new LinkedHashMap<>();
 	
 	/**
 	 * 
 	 */
 	protected GrammarRule unmatchedRule;
 
+	/** Cached analysis of this grammar, if one has been computed. */
+	protected volatile GrammarAnalysis analysis;
+
 	/** Constructs a new grammar with no root element. */
 	public BaseGrammar() {
 
@@ -42,11 +50,21 @@ public class BaseGrammar implements Grammar {
 	 * @param filename of the grammar bundle to load this compound grammar from.
 	 * @throws Exception if an error is encountered while constructing this grammar.
 	 */
-	public BaseGrammar(GrammarRule rootRule, HashMap<String, GrammarRule> ruleMap) throws Exception {
+	public BaseGrammar(GrammarRule rootRule, Map<String, GrammarRule> ruleMap) throws Exception {
 		this.rootRule = rootRule;
 		this.ruleMap = ruleMap;
 	}
 
+	@Override
+	public String id() {
+		return id;
+	}
+
+	@Override
+	public void setId(String id) {
+		this.id = id;
+	}
+
 	@Override
 	public GrammarRule rootRule() {
 		return rootRule;
@@ -55,6 +73,7 @@ public class BaseGrammar implements Grammar {
 	@Override
 	public void setRootRule(GrammarRule rootRule) {
 		this.rootRule = rootRule;
+		analysis = null;
 	}
 
 	/**
@@ -72,13 +91,14 @@ public class BaseGrammar implements Grammar {
 	@Override
 	public void setRules(List<GrammarRule> rules) {
 		rootRule.setSubrules(rules);
+		analysis = null;
 	}
 
 	/**
 	 * @return
 	 */
 	@Override
-	public HashMap<String, GrammarRule> ruleMap() {
+	public Map<String, GrammarRule> ruleMap() {
 		return ruleMap;
 	}
 	
@@ -87,8 +107,9 @@ public class BaseGrammar implements Grammar {
 	 * @param rules
 	 */
 	@Override
-	public void setRuleMap(HashMap<String, GrammarRule> ruleMap) {
+	public void setRuleMap(Map<String, GrammarRule> ruleMap) {
 		this.ruleMap = ruleMap;
+		analysis = null;
 	}
 
 	@Override
@@ -114,6 +135,7 @@ public class BaseGrammar implements Grammar {
 				return lhsOrder > rhsOrder ? 1 : lhsOrder < rhsOrder ? -1 : 0;
 			}
 		});
+		analysis = null;
 	}
 
 	@Override
@@ -125,5 +147,18 @@ public class BaseGrammar implements Grammar {
 	public void setUnmatchedRule(GrammarRule unmatchedRule) {
 		this.unmatchedRule = unmatchedRule;
 	}
+
+	@Override
+	public GrammarAnalysis analysis() {
+		GrammarAnalysis analysis = this.analysis;
+		if (analysis == null)
+			this.analysis = analysis = new BaseGrammarAnalysis(this);
+		return analysis;
+	}
+
+	@Override
+	public Grammar freeze() {
+		return new FrozenGrammar(this);
+	}
 	
 }
@@ -0,0 +1,167 @@
+package com.noodleofdeath.pastaparser.model.grammar.impl;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.impl.BaseGrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
+import com.noodleofdeath.pastaparser.model.grammar.rule.impl.FrozenGrammarRule;
+
+/**
+ * Immutable snapshot of a {@link Grammar} created by {@link Grammar#freeze()}.
+ *
+ * The whole rule graph is copied into {@link FrozenGrammarRule} instances while
+ * this grammar is constructed and is only reachable through its final fields,
+ * so any thread that obtains a reference to a frozen grammar sees it fully
+ * initialized without further synchronization.
+ */
+public final class FrozenGrammar implements Grammar {
+
+	/** Id of this grammar, if one exists. */
+	private final String id;
+
+	/** Frozen parent grammar of this grammar, if one exists. */
+	private final Grammar parentGrammar;
+
+	/** Root rule of this grammar. */
+	private final GrammarRule rootRule;
+
+	/** Rule map of this grammar. */
+	private final Map<String, GrammarRule> ruleMap;
+
+	/** Top level rules of this grammar grouped by rule type. */
+	private final Map<GrammarRuleType, List<GrammarRule>> rulesByType;
+
+	/** Rule that matches characters no other rule of this grammar matches. */
+	private final GrammarRule unmatchedRule;
+
+	/** Analysis of this grammar. */
+	private final GrammarAnalysis analysis;
+
+	/**
+	 * Constructs a new immutable snapshot of a specified grammar.
+	 *
+	 * @param grammar to copy.
+	 */
+	public FrozenGrammar(Grammar grammar) {
+
+		Map<GrammarRule, GrammarRule> copies = new IdentityHashMap<>();
+
+		id = grammar.id();
+		parentGrammar = grammar.parentGrammar() != null ? grammar.parentGrammar().freeze() : null;
+		rootRule = FrozenGrammarRule.Freeze(grammar.rootRule(), this, copies);
+
+		Map<String, GrammarRule> ruleMap = new LinkedHashMap<>();
+		for (Map.Entry<String, GrammarRule> entry : grammar.ruleMap().entrySet())
+			ruleMap.put(entry.getKey(), FrozenGrammarRule.Freeze(entry.getValue(), this, copies));
+		this.ruleMap = Collections.unmodifiableMap(ruleMap);
+
+		Map<GrammarRuleType, List<GrammarRule>> rulesByType = new EnumMap<>(GrammarRuleType.class);
+		for (GrammarRuleType type : GrammarRuleType.values())
+			rulesByType.put(type, rootRule.subrules(type));
+		this.rulesByType = Collections.unmodifiableMap(rulesByType);
+
+		unmatchedRule = FrozenGrammarRule.Freeze(grammar.unmatchedRule(), this, copies);
+		analysis = new BaseGrammarAnalysis(this);
+
+	}
+
+	/** @return exception thrown by every mutator of a frozen grammar. */
+	private static UnsupportedOperationException Frozen() {
+		return new UnsupportedOperationException("Cannot modify a frozen grammar");
+	}
+
+	@Override
+	public String id() {
+		return id;
+	}
+
+	@Override
+	public void setId(String id) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRule rootRule() {
+		return rootRule;
+	}
+
+	@Override
+	public void setRootRule(GrammarRule rootRule) {
+		throw Frozen();
+	}
+
+	@Override
+	public List<GrammarRule> rules() {
+		return rootRule.subrules();
+	}
+
+	@Override
+	public List<GrammarRule> rules(GrammarRuleType ruleType) {
+		return rulesByType.get(ruleType);
+	}
+
+	@Override
+	public void setRules(List<GrammarRule> rules) {
+		throw Frozen();
+	}
+
+	@Override
+	public Map<String, GrammarRule> ruleMap() {
+		return ruleMap;
+	}
+
+	@Override
+	public void setRuleMap(Map<String, GrammarRule> ruleMap) {
+		throw Frozen();
+	}
+
+	@Override
+	public Grammar parentGrammar() {
+		return parentGrammar;
+	}
+
+	@Override
+	public void printRules(List<GrammarRule> rules) {
+		for (GrammarRule rule : rules)
+			System.out.println(String.format("%s [%d]: %s", rule.id(), rule.order(), rule));
+	}
+
+	@Override
+	public void sortRules() {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRule unmatchedRule() {
+		return unmatchedRule;
+	}
+
+	@Override
+	public void setUnmatchedRule(GrammarRule unmatchedRule) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarAnalysis analysis() {
+		return analysis;
+	}
+
+	@Override
+	public Grammar freeze() {
+		return this;
+	}
+
+	@Override
+	public boolean frozen() {
+		return true;
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.noodleofdeath.pastaparser.model.grammar.linter;
+
+/**
+ * Enumerated type for the estimated worst case running time of a grammar rule
+ * or pattern in the length of its input.
+ */
+public enum GrammarComplexity {
+
+	/** Every character or token is examined a bounded number of times. */
+	Linear,
+
+	/**
+	 * Input may be rescanned once per offset or per repetition, which is
+	 * quadratic or worse on input that does not match.
+	 */
+	Polynomial,
+
+	/** Input may be split in exponentially many ways before a match fails. */
+	Exponential;
+
+	/**
+	 * Returns the complexity with a specified name, ignoring case, or
+	 * <code>null</code> if no such complexity exists.
+	 *
+	 * @param name of the complexity.
+	 * @return the complexity with the specified name, or <code>null</code>.
+	 */
+	public static GrammarComplexity from(String name) {
+		for (GrammarComplexity complexity : values())
+			if (complexity.name().equalsIgnoreCase(name))
+				return complexity;
+		return null;
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.noodleofdeath.pastaparser.model.grammar.linter;
+
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+
+/** Finding reported by a {@link GrammarLinter} for a single grammar rule. */
+public final class GrammarLint {
+
+	/** Top level rule the finding was reported for. */
+	private final GrammarRule rule;
+
+	/** Kind of this finding. */
+	private final GrammarLintKind kind;
+
+	/** Estimated complexity of the reported pattern. */
+	private final GrammarComplexity complexity;
+
+	/** Description of the reported pattern. */
+	private final String message;
+
+	/**
+	 * @param rule       top level rule the finding was reported for.
+	 * @param kind       of the finding.
+	 * @param complexity estimated complexity of the reported pattern.
+	 * @param message    description of the reported pattern.
+	 */
+	public GrammarLint(GrammarRule rule, GrammarLintKind kind, GrammarComplexity complexity, String message) {
+		this.rule = rule;
+		this.kind = kind;
+		this.complexity = complexity;
+		this.message = message;
+	}
+
+	/** @return top level rule the finding was reported for. */
+	public GrammarRule rule() {
+		return rule;
+	}
+
+	/** @return kind of this finding. */
+	public GrammarLintKind kind() {
+		return kind;
+	}
+
+	/** @return estimated complexity of the reported pattern. */
+	public GrammarComplexity complexity() {
+		return complexity;
+	}
+
+	/** @return description of the reported pattern. */
+	public String message() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s [%s] %s", rule.id(), kind, complexity, message);
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.noodleofdeath.pastaparser.model.grammar.linter;
+
+/** Enumerated type for the patterns a {@link GrammarLinter} reports. */
+public enum GrammarLintKind {
+
+	/**
+	 * An unbounded repetition contains another unbounded repetition, such as
+	 * <code>((A | B) (C | D)*)+</code> or <code>(a+)+</code>.
+	 */
+	NestedRepeat,
+
+	/**
+	 * Alternatives of an unbounded repetition can begin with the same character
+	 * or token, so a failed alternative is retried by the next one at the same
+	 * offset, such as <code>(BLOCK | ~R_BRACE)*</code> or <code>(a|ab)*</code>.
+	 */
+	OverlappingAlternatives,
+
+	/**
+	 * An unbounded repetition of an inverted atom, such as
+	 * <code>(~END_TAG)*</code>, which attempts the inverted atom once per
+	 * character or token it consumes.
+	 */
+	InvertedRepeat,
+
+	/**
+	 * Adjacent unbounded repetitions of a pattern can match the same
+	 * characters, such as <code>\w*\w*</code>, so every split between them is
+	 * tried before the pattern fails.
+	 */
+	AdjacentRepeats,
+
+	/**
+	 * An unbounded repetition of a pattern can match line terminators and is
+	 * followed by a part that can fail, such as <code>"[^"]*"</code>, so an
+	 * unterminated match scans to the end of the input from every offset it is
+	 * attempted at.
+	 */
+	UnboundedScan;
+
+}
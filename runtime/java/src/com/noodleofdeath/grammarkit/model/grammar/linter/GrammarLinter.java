@@ -0,0 +1,36 @@
+package com.noodleofdeath.pastaparser.model.grammar.linter;
+
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+
+/**
+ * Specifications for a static checker that reports grammar rules and regular
+ * expressions whose matching time can grow faster than linearly in the length
+ * of their input, so that such grammars can be fixed or rejected before they
+ * are used to lex or parse untrusted input.
+ */
+public interface GrammarLinter {
+
+	/**
+	 * Checks every rule of a specified grammar.
+	 *
+	 * @param grammar to check.
+	 * @return findings of the check, most complex first.
+	 */
+	public abstract List<GrammarLint> lint(Grammar grammar);
+
+	/**
+	 * @param lints to search.
+	 * @return highest complexity of the specified findings, or
+	 *         {@link GrammarComplexity#Linear} if there are none.
+	 */
+	public static GrammarComplexity MaxComplexity(List<GrammarLint> lints) {
+		GrammarComplexity complexity = GrammarComplexity.Linear;
+		for (GrammarLint lint : lints)
+			if (lint.complexity().compareTo(complexity) > 0)
+				complexity = lint.complexity();
+		return complexity;
+	}
+
+}
@@ -0,0 +1,483 @@
+package com.noodleofdeath.pastaparser.model.grammar.linter.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarRecursion;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.impl.BaseGrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarComplexity;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLint;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLintKind;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLinter;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
+
+/**
+ * Base implementation of {@link GrammarLinter}.
+ *
+ * Complexities are estimated for the ordered choice semantics of the text
+ * lexer and parser, which never give back the repetitions of a quantified
+ * atom but retry the next alternative of a group at the same offset when an
+ * alternative fails. Repetitions therefore only cost more than linear time
+ * when an alternative can fail after consuming input, or when it is a
+ * recursive rule that is retried at every nested offset. Regular expressions
+ * of lexer rules are checked for the classic backtracking patterns of
+ * {@link java.util.regex.Pattern}.
+ *
+ * This class can be run as a tool with a grammar search path followed by the
+ * ids of the grammars to check, optionally preceded by
+ * <code>-max=Linear|Polynomial|Exponential</code>; it prints every finding and
+ * exits with status 1 if any finding exceeds that complexity, which defaults to
+ * {@link GrammarComplexity#Polynomial}.
+ */
+public class BaseGrammarLinter implements GrammarLinter {
+
+	/**
+	 * Analysis that exposes the measures of single atoms to this linter by
+	 * overriding them in its package.
+	 */
+	protected static class Analysis extends BaseGrammarAnalysis {
+
+		/**
+		 * @param grammar to analyze.
+		 */
+		protected Analysis(Grammar grammar) {
+			super(grammar);
+		}
+
+		@Override
+		protected GrammarRule referencedRule(GrammarRule atom, boolean lexer) {
+			return super.referencedRule(atom, lexer);
+		}
+
+		@Override
+		protected int minLength(GrammarRule atom, boolean lexer) {
+			return super.minLength(atom, lexer);
+		}
+
+		@Override
+		protected int maxLength(GrammarRule atom, boolean lexer) {
+			return super.maxLength(atom, lexer);
+		}
+
+		@Override
+		protected Set<String> sequenceFirst(GrammarRule head, boolean lexer) {
+			return super.sequenceFirst(head, lexer);
+		}
+
+	}
+
+	/** Analysis of the grammar currently being checked. */
+	protected Analysis analysis;
+
+	/** Top level rule currently being checked. */
+	protected GrammarRule rule;
+
+	/** Findings of the grammar currently being checked. */
+	protected List<GrammarLint> lints;
+
+	@Override
+	public List<GrammarLint> lint(Grammar grammar) {
+		analysis = new Analysis(grammar);
+		lints = new ArrayList<>();
+		Set<GrammarRule> rules = Collections.newSetFromMap(new IdentityHashMap<>());
+		rules.addAll(grammar.rules());
+		rules.addAll(grammar.ruleMap().values());
+		for (GrammarRule rule : rules) {
+			this.rule = rule;
+			boolean lexer = rule.ruleType() != GrammarRuleType.ParserRule;
+			for (GrammarRule alternative : rule.subrules())
+				check(alternative, lexer, false);
+		}
+		List<GrammarLint> lints = this.lints;
+		Collections.sort(lints, new Comparator<GrammarLint>() {
+			@Override
+			public int compare(GrammarLint lhs, GrammarLint rhs) {
+				return rhs.complexity().compareTo(lhs.complexity());
+			}
+		});
+		analysis = null;
+		rule = null;
+		this.lints = null;
+		return lints;
+	}
+
+	/**
+	 * Checks a sequence of atoms and the groups nested in it.
+	 *
+	 * @param head     of the sequence.
+	 * @param lexer    <code>true</code> if the sequence belongs to a lexer rule.
+	 * @param repeated <code>true</code> if the sequence is part of an unbounded
+	 *                 repetition.
+	 */
+	protected void check(GrammarRule head, boolean lexer, boolean repeated) {
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			boolean unbounded = atom.quantifier().upperBound() == GrammarAnalysis.Unbounded;
+			if (lexer && atom.componentType() == GrammarRuleComponentType.Expression && atom.literal() == null)
+				checkPattern(atom);
+			if (unbounded && atom.inverted())
+				checkInverted(atom, lexer);
+			if (unbounded && repeated)
+				report(GrammarLintKind.NestedRepeat,
+						sequenceMinLength(atom.next(), lexer) > 0 ? GrammarComplexity.Polynomial
+								: GrammarComplexity.Linear,
+						String.format("%s repeats inside another unbounded repetition", Describe(atom)));
+			if (atom.componentType() != GrammarRuleComponentType.Composite || atom.dictionary() != null)
+				continue;
+			if (unbounded && !atom.inverted())
+				checkAlternatives(atom, lexer);
+			for (GrammarRule alternative : atom.subrules())
+				check(alternative, lexer, repeated || unbounded);
+		}
+	}
+
+	/**
+	 * Reports alternatives of an unbounded repetition that can begin with the
+	 * same character or token. Only the earlier alternative is retried when it
+	 * fails, so its cost determines the complexity of the finding.
+	 *
+	 * @param group unbounded repetition of a group.
+	 * @param lexer <code>true</code> if the group belongs to a lexer rule.
+	 */
+	protected void checkAlternatives(GrammarRule group, boolean lexer) {
+		List<GrammarRule> alternatives = group.subrules();
+		GrammarComplexity complexity = null;
+		int lhs = 0, rhs = 0;
+		for (int i = 0; i < alternatives.size(); ++i) {
+			GrammarRule alternative = alternatives.get(i);
+			GrammarComplexity cost = sequenceMaxLength(alternative, lexer) < GrammarAnalysis.Unbounded
+					? GrammarComplexity.Linear
+					: recursive(alternative, lexer) ? GrammarComplexity.Exponential : GrammarComplexity.Polynomial;
+			if (cost == GrammarComplexity.Linear || (complexity != null && cost.compareTo(complexity) <= 0))
+				continue;
+			for (int j = i + 1; j < alternatives.size(); ++j) {
+				if (!overlaps(alternative, alternatives.get(j), lexer))
+					continue;
+				complexity = cost;
+				lhs = i + 1;
+				rhs = j + 1;
+				break;
+			}
+		}
+		if (complexity != null)
+			report(GrammarLintKind.OverlappingAlternatives, complexity,
+					String.format("alternatives %d and %d of %s can begin with the same %s", lhs, rhs,
+							Describe(group), lexer ? "character" : "token"));
+	}
+
+	/**
+	 * Reports an unbounded repetition of an inverted atom, which attempts the
+	 * inverted atom at every character or token it consumes.
+	 *
+	 * @param atom  inverted atom with an unbounded quantifier.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 */
+	protected void checkInverted(GrammarRule atom, boolean lexer) {
+		int maxLength = invertedMaxLength(atom, lexer);
+		report(GrammarLintKind.InvertedRepeat,
+				maxLength == GrammarAnalysis.Unbounded ? GrammarComplexity.Polynomial : GrammarComplexity.Linear,
+				String.format("%s attempts a match of up to %s %s at every %s it consumes", Describe(atom),
+						maxLength == GrammarAnalysis.Unbounded ? "unbounded" : String.valueOf(maxLength),
+						lexer ? "characters" : "tokens", lexer ? "character" : "token"));
+	}
+
+	/**
+	 * Reports the backtracking patterns of the regular expression of a lexer
+	 * rule atom.
+	 *
+	 * @param atom with a regular expression.
+	 */
+	protected void checkPattern(GrammarRule atom) {
+		List<PatternStructure.Finding> findings;
+		try {
+			findings = new PatternStructure(atom.value(), atom.pattern().flags()).check();
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			return;
+		}
+		for (PatternStructure.Finding finding : findings) {
+			String description;
+			switch (finding.kind) {
+			case NestedRepeat:
+				description = "nests unbounded repetitions that can match the same characters";
+				break;
+			case OverlappingAlternatives:
+				description = "repeats alternatives that can begin with the same character";
+				break;
+			case AdjacentRepeats:
+				description = "has adjacent unbounded repetitions that can match the same characters";
+				break;
+			default:
+				description = "can scan across lines to the end of the input before it fails";
+				break;
+			}
+			report(finding.kind, finding.complexity, String.format("pattern '%s' %s", atom.value(), description));
+		}
+	}
+
+	/**
+	 * @param lhs   head of an alternative.
+	 * @param rhs   head of a later alternative.
+	 * @param lexer <code>true</code> if the alternatives belong to a lexer rule.
+	 * @return <code>true</code> if the specified alternatives may begin with the
+	 *         same character or token.
+	 */
+	protected boolean overlaps(GrammarRule lhs, GrammarRule rhs, boolean lexer) {
+		if (lexer)
+			return firstCharacters(lhs).intersects(firstCharacters(rhs));
+		Set<String> lhsFirst = analysis.sequenceFirst(lhs, false);
+		Set<String> rhsFirst = analysis.sequenceFirst(rhs, false);
+		if (lhsFirst == null || rhsFirst == null)
+			return true;
+		return !Collections.disjoint(lhsFirst, rhsFirst);
+	}
+
+	/**
+	 * @param head of a sequence of a lexer rule.
+	 * @return characters a non-empty match of the specified sequence can begin
+	 *         with.
+	 */
+	protected BitSet firstCharacters(GrammarRule head) {
+		return firstCharacters(head, Collections.newSetFromMap(new IdentityHashMap<>()));
+	}
+
+	/**
+	 * @param head     of a sequence of a lexer rule.
+	 * @param visiting rules whose FIRST set is being computed.
+	 * @return characters a non-empty match of the specified sequence can begin
+	 *         with.
+	 */
+	private BitSet firstCharacters(GrammarRule head, Set<GrammarRule> visiting) {
+		BitSet first = new BitSet();
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			first.or(unitFirstCharacters(atom, visiting));
+			if (analysis.minLength(atom, true) > 0)
+				break;
+		}
+		return first;
+	}
+
+	/**
+	 * @param atom     of a lexer rule.
+	 * @param visiting rules whose FIRST set is being computed.
+	 * @return characters a non-empty match of the specified atom can begin with.
+	 */
+	private BitSet unitFirstCharacters(GrammarRule atom, Set<GrammarRule> visiting) {
+		if (atom.inverted())
+			return PatternStructure.All();
+		BitSet first = new BitSet();
+		switch (atom.componentType()) {
+		case Composite:
+			if (atom.dictionary() != null) {
+				for (String word : atom.dictionary().words())
+					if (word.length() > 0)
+						first.set(word.charAt(0));
+				return first;
+			}
+			for (GrammarRule alternative : atom.subrules())
+				first.or(firstCharacters(alternative, visiting));
+			return first;
+		case LexerRule:
+		case LexerFragment:
+			GrammarRule reference = analysis.referencedRule(atom, true);
+			if (reference == null)
+				return PatternStructure.All();
+			if (analysis.firstCharacters(reference) != null)
+				return analysis.firstCharacters(reference);
+			if (!visiting.add(reference))
+				return first;
+			for (GrammarRule alternative : reference.subrules())
+				first.or(firstCharacters(alternative, visiting));
+			visiting.remove(reference);
+			return first;
+		case Literal:
+		case Expression:
+			if (atom.literal() != null) {
+				if (atom.literal().length() > 0)
+					first.set(atom.literal().charAt(0));
+				return first;
+			}
+			try {
+				PatternStructure structure = new PatternStructure(atom.value(), atom.pattern().flags());
+				for (List<PatternStructure.Node> branch : structure.branches)
+					first.or(PatternStructure.First(branch, 0));
+				return first;
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				return PatternStructure.All();
+			}
+		default:
+			return PatternStructure.All();
+		}
+	}
+
+	/**
+	 * @param head  of a sequence.
+	 * @param lexer <code>true</code> if the sequence belongs to a lexer rule.
+	 * @return <code>true</code> if the specified sequence references a recursive
+	 *         rule, directly or within a group.
+	 */
+	protected boolean recursive(GrammarRule head, boolean lexer) {
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			GrammarRule reference = analysis.referencedRule(atom, lexer);
+			if (reference != null && analysis.recursion(reference) != GrammarRecursion.None)
+				return true;
+			if (atom.componentType() == GrammarRuleComponentType.Composite)
+				for (GrammarRule alternative : atom.subrules())
+					if (recursive(alternative, lexer))
+						return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param atom  inverted atom.
+	 * @param lexer <code>true</code> if the atom belongs to a lexer rule.
+	 * @return most characters or tokens the atom attempts to match before it
+	 *         consumes a single one.
+	 */
+	protected int invertedMaxLength(GrammarRule atom, boolean lexer) {
+		GrammarRule reference = analysis.referencedRule(atom, lexer);
+		if (reference != null)
+			return analysis.maxLength(reference);
+		switch (atom.componentType()) {
+		case Composite:
+			if (atom.dictionary() != null)
+				return 1;
+			int maxLength = 0;
+			for (GrammarRule alternative : atom.subrules())
+				maxLength = Math.max(maxLength, sequenceMaxLength(alternative, lexer));
+			return maxLength;
+		case Literal:
+		case Expression:
+			if (!lexer)
+				return 1;
+			if (atom.literal() != null)
+				return atom.literal().length();
+			try {
+				PatternStructure structure = new PatternStructure(atom.value(), atom.pattern().flags());
+				int patternMaxLength = 0;
+				for (List<PatternStructure.Node> branch : structure.branches)
+					for (PatternStructure.Node node : branch)
+						patternMaxLength = PatternStructure.Add(patternMaxLength, PatternStructure.MaxLength(node));
+				return patternMaxLength;
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				return GrammarAnalysis.Unbounded;
+			}
+		default:
+			return 1;
+		}
+	}
+
+	/**
+	 * @param head  of a sequence, or <code>null</code>.
+	 * @param lexer <code>true</code> if the sequence belongs to a lexer rule.
+	 * @return fewest characters or tokens the specified sequence consumes.
+	 */
+	protected int sequenceMinLength(GrammarRule head, boolean lexer) {
+		int length = 0;
+		for (GrammarRule atom = head; atom != null; atom = atom.next())
+			length = PatternStructure.Add(length, analysis.minLength(atom, lexer));
+		return length;
+	}
+
+	/**
+	 * @param head  of a sequence, or <code>null</code>.
+	 * @param lexer <code>true</code> if the sequence belongs to a lexer rule.
+	 * @return most characters or tokens the specified sequence consumes.
+	 */
+	protected int sequenceMaxLength(GrammarRule head, boolean lexer) {
+		int length = 0;
+		for (GrammarRule atom = head; atom != null; atom = atom.next())
+			length = PatternStructure.Add(length, analysis.maxLength(atom, lexer));
+		return length;
+	}
+
+	/**
+	 * Records a finding for the rule currently being checked.
+	 *
+	 * @param kind       of the finding.
+	 * @param complexity of the finding.
+	 * @param message    of the finding.
+	 */
+	protected void report(GrammarLintKind kind, GrammarComplexity complexity, String message) {
+		lints.add(new GrammarLint(rule, kind, complexity, message));
+	}
+
+	/**
+	 * @param atom to describe.
+	 * @return description of the specified atom, excluding its next siblings.
+	 */
+	protected static String Describe(GrammarRule atom) {
+		String description;
+		switch (atom.componentType()) {
+		case Composite:
+			if (atom.dictionary() != null) {
+				description = String.format("%s%s", atom.value(), atom.quantifier());
+				break;
+			}
+			List<String> alternatives = new ArrayList<>();
+			for (GrammarRule alternative : atom.subrules())
+				alternatives.add(alternative.toString());
+			description = String.format("(%s)%s", String.join(" | ", alternatives), atom.quantifier());
+			break;
+		case Literal:
+		case Expression:
+			description = String.format("'%s'%s", atom.value(), atom.quantifier());
+			break;
+		default:
+			description = String.format("%s%s", atom.value(), atom.quantifier());
+			break;
+		}
+		return atom.inverted() ? "~" + description : description;
+	}
+
+	/**
+	 * Checks grammars and prints every finding.
+	 *
+	 * @param args optional <code>-max=</code> complexity, followed by a grammar
+	 *             search path and the ids of the grammars to check.
+	 */
+	public static void main(String[] args) {
+		GrammarComplexity maxComplexity = GrammarComplexity.Polynomial;
+		int index = 0;
+		if (args.length > 0 && args[0].startsWith("-max=")) {
+			maxComplexity = GrammarComplexity.from(args[0].substring(5));
+			if (maxComplexity == null) {
+				System.err.println(String.format("ERROR: Unknown complexity \"%s\"", args[0].substring(5)));
+				System.exit(2);
+			}
+			++index;
+		}
+		if (args.length < index + 2) {
+			System.err.println(String.format("Usage: %s [-max=Linear|Polynomial|Exponential] <search path> <grammar id>...",
+					BaseGrammarLinter.class.getName()));
+			System.exit(2);
+		}
+		BaseGrammarLoader loader = new BaseGrammarLoader(args[index]);
+		GrammarLinter linter = new BaseGrammarLinter();
+		int status = 0;
+		for (int i = index + 1; i < args.length; ++i) {
+			Grammar grammar = loader.load(args[i]);
+			if (grammar == null) {
+				System.err.println(String.format("ERROR: Could not load grammar \"%s\"", args[i]));
+				status = 2;
+				continue;
+			}
+			List<GrammarLint> lints = linter.lint(grammar);
+			for (GrammarLint lint : lints)
+				System.out.println(String.format("%s: %s", args[i], lint));
+			if (status == 0 && GrammarLinter.MaxComplexity(lints).compareTo(maxComplexity) > 0)
+				status = 1;
+		}
+		System.exit(status);
+	}
+
+}
@@ -0,0 +1,923 @@
+package com.noodleofdeath.pastaparser.model.grammar.linter.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarComplexity;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLintKind;
+
+/**
+ * Syntax tree of a {@link java.util.regex.Pattern} that is precise enough to
+ * find the backtracking patterns reported by {@link BaseGrammarLinter}.
+ *
+ * Character sets are approximated over the basic multilingual plane; unknown
+ * properties, back references and similar constructs are assumed to match any
+ * character, which can only cause more findings, never fewer.
+ */
+class PatternStructure {
+
+	/** Number of characters in a character set. */
+	static final int Characters = 0x10000;
+
+	/** Length or repetition count without an upper bound. */
+	static final int Unbounded = Integer.MAX_VALUE;
+
+	/** Characters that terminate a line. */
+	static final BitSet LineTerminators = Set("\n\r\u0085\u2028\u2029");
+
+	/** Enumerated type for the kind of a node. */
+	enum Kind {
+
+		/** Matches a single character of a set. */
+		Characters,
+
+		/** Matches one of several sequences. */
+		Group,
+
+		/** Matches without consuming characters. */
+		Anchor,
+
+		/** Matches without consuming characters at the end of the input. */
+		EndAnchor,
+
+		/** Matches a back reference, which may be any string. */
+		Reference,
+
+	}
+
+	/** Node of the syntax tree. */
+	static class Node {
+
+		/** Kind of this node. */
+		final Kind kind;
+
+		/** Characters matched by this node, if it is a character node. */
+		BitSet characters;
+
+		/** Alternative sequences of this node, if it is a group. */
+		List<List<Node>> branches;
+
+		/** Minimum and maximum number of repetitions of this node. */
+		int min = 1, max = 1;
+
+		/** <code>true</code> if repetitions of this node are never given back. */
+		boolean possessive;
+
+		/**
+		 * @param kind of the node.
+		 */
+		Node(Kind kind) {
+			this.kind = kind;
+		}
+
+		/** @return <code>true</code> if this node repeats without an upper bound. */
+		boolean unbounded() {
+			return max == Unbounded;
+		}
+
+	}
+
+	/** Finding of a pattern check. */
+	static class Finding {
+
+		/** Kind of this finding. */
+		final GrammarLintKind kind;
+
+		/** Estimated complexity of this finding. */
+		final GrammarComplexity complexity;
+
+		/**
+		 * @param kind       of the finding.
+		 * @param complexity of the finding.
+		 */
+		Finding(GrammarLintKind kind, GrammarComplexity complexity) {
+			this.kind = kind;
+			this.complexity = complexity;
+		}
+
+	}
+
+	/** Pattern this structure was parsed from. */
+	final String pattern;
+
+	/** Top level alternatives of the pattern. */
+	final List<List<Node>> branches;
+
+	/** Findings of {@link #check()}. */
+	private final List<Finding> findings = new ArrayList<>();
+
+	/** Position of the parser in {@link #pattern}. */
+	private int position = 0;
+
+	/** <code>true</code> while the <code>s</code> flag is in effect. */
+	private boolean dotAll;
+
+	/** <code>true</code> while the <code>i</code> flag is in effect. */
+	private boolean ignoreCase;
+
+	/** <code>true</code> while the <code>x</code> flag is in effect. */
+	private boolean comments;
+
+	/**
+	 * Parses a specified pattern.
+	 *
+	 * @param pattern to parse.
+	 * @param flags   of the pattern, as returned by {@link Pattern#flags()}.
+	 * @throws IllegalArgumentException if the pattern cannot be parsed.
+	 */
+	PatternStructure(String pattern, int flags) {
+		this.pattern = pattern;
+		dotAll = (flags & Pattern.DOTALL) != 0;
+		ignoreCase = (flags & Pattern.CASE_INSENSITIVE) != 0;
+		comments = (flags & Pattern.COMMENTS) != 0;
+		branches = parseAlternatives();
+		if (position < pattern.length())
+			throw new IllegalArgumentException(String.format("Unbalanced ')' at %d", position));
+	}
+
+	// MARK: - Parsing
+
+	/** @return alternatives up to the end of the current group. */
+	private List<List<Node>> parseAlternatives() {
+		boolean dotAll = this.dotAll, ignoreCase = this.ignoreCase, comments = this.comments;
+		List<List<Node>> branches = new ArrayList<>();
+		branches.add(parseSequence());
+		while (position < pattern.length() && pattern.charAt(position) == '|') {
+			++position;
+			branches.add(parseSequence());
+		}
+		this.dotAll = dotAll;
+		this.ignoreCase = ignoreCase;
+		this.comments = comments;
+		return branches;
+	}
+
+	/** @return sequence up to the next alternative or the end of the group. */
+	private List<Node> parseSequence() {
+		List<Node> sequence = new ArrayList<>();
+		while (position < pattern.length()) {
+			char ch = pattern.charAt(position);
+			if (ch == '|' || ch == ')')
+				break;
+			if (comments && (Character.isWhitespace(ch) || ch == '#')) {
+				if (ch == '#')
+					while (position < pattern.length() && pattern.charAt(position) != '\n')
+						++position;
+				++position;
+				continue;
+			}
+			Node node = parseAtom();
+			if (node != null) {
+				parseQuantifier(node);
+				sequence.add(node);
+			}
+		}
+		return sequence;
+	}
+
+	/** @return next atom, or <code>null</code> if it only changed flags. */
+	private Node parseAtom() {
+		char ch = pattern.charAt(position++);
+		switch (ch) {
+		case '(':
+			return parseGroup();
+		case '[':
+			return Characters(parseClass());
+		case '.':
+			BitSet any = All();
+			if (!dotAll)
+				any.andNot(LineTerminators);
+			return Characters(any);
+		case '^':
+			return new Node(Kind.Anchor);
+		case '$':
+			return new Node(Kind.EndAnchor);
+		case '\\':
+			return parseEscape();
+		default:
+			return Characters(Character(ch));
+		}
+	}
+
+	/** @return group starting after its opening parenthesis. */
+	private Node parseGroup() {
+		Kind kind = Kind.Group;
+		boolean atomic = false;
+		boolean dotAll = this.dotAll, ignoreCase = this.ignoreCase, comments = this.comments;
+		if (pattern.startsWith("?", position)) {
+			++position;
+			if (pattern.startsWith(":", position)) {
+				++position;
+			} else if (pattern.startsWith("=", position) || pattern.startsWith("!", position)) {
+				++position;
+				kind = Kind.Anchor;
+			} else if (pattern.startsWith("<=", position) || pattern.startsWith("<!", position)) {
+				position += 2;
+				kind = Kind.Anchor;
+			} else if (pattern.startsWith(">", position)) {
+				++position;
+				atomic = true;
+			} else if (pattern.startsWith("<", position)) {
+				position = Expect('>', pattern, position) + 1;
+			} else {
+				boolean enable = true;
+				while (position < pattern.length() && pattern.charAt(position) != ')'
+						&& pattern.charAt(position) != ':') {
+					char flag = pattern.charAt(position++);
+					if (flag == '-')
+						enable = false;
+					else if (flag == 's')
+						this.dotAll = enable;
+					else if (flag == 'i')
+						this.ignoreCase = enable;
+					else if (flag == 'x')
+						this.comments = enable;
+				}
+				if (position >= pattern.length())
+					throw new IllegalArgumentException("Unclosed group");
+				if (pattern.charAt(position++) == ')')
+					return null;
+			}
+		}
+		Node node = new Node(kind);
+		node.branches = parseAlternatives();
+		node.possessive = atomic;
+		if (position >= pattern.length() || pattern.charAt(position) != ')')
+			throw new IllegalArgumentException("Unclosed group");
+		++position;
+		this.dotAll = dotAll;
+		this.ignoreCase = ignoreCase;
+		this.comments = comments;
+		return node;
+	}
+
+	/**
+	 * Parses the quantifier following a specified node, if any.
+	 *
+	 * @param node to quantify.
+	 */
+	private void parseQuantifier(Node node) {
+		if (position >= pattern.length())
+			return;
+		char ch = pattern.charAt(position);
+		int min, max;
+		if (ch == '*') {
+			min = 0;
+			max = Unbounded;
+		} else if (ch == '+') {
+			min = 1;
+			max = Unbounded;
+		} else if (ch == '?') {
+			min = 0;
+			max = 1;
+		} else if (ch == '{' && position + 1 < pattern.length() && Character.isDigit(pattern.charAt(position + 1))) {
+			int end = Expect('}', pattern, position);
+			String[] bounds = pattern.substring(position + 1, end).split(",", -1);
+			min = Integer.parseInt(bounds[0]);
+			max = bounds.length < 2 ? min : bounds[1].isEmpty() ? Unbounded : Integer.parseInt(bounds[1]);
+			position = end;
+		} else {
+			return;
+		}
+		++position;
+		node.min = min;
+		node.max = max;
+		if (position < pattern.length()) {
+			if (pattern.charAt(position) == '+') {
+				node.possessive = true;
+				++position;
+			} else if (pattern.charAt(position) == '?') {
+				++position;
+			}
+		}
+	}
+
+	/** @return node of the escape sequence after a backslash. */
+	private Node parseEscape() {
+		if (position >= pattern.length())
+			throw new IllegalArgumentException("Trailing backslash");
+		char ch = pattern.charAt(position);
+		switch (ch) {
+		case 'b':
+		case 'B':
+		case 'A':
+		case 'G':
+			++position;
+			return new Node(Kind.Anchor);
+		case 'z':
+		case 'Z':
+			++position;
+			return new Node(Kind.EndAnchor);
+		case 'Q':
+			int end = pattern.indexOf("\\E", ++position);
+			String quote = pattern.substring(position, end < 0 ? pattern.length() : end);
+			position = end < 0 ? pattern.length() : end + 2;
+			Node group = new Node(Kind.Group);
+			List<Node> sequence = new ArrayList<>();
+			for (int i = 0; i < quote.length(); ++i)
+				sequence.add(Characters(Character(quote.charAt(i))));
+			group.branches = new ArrayList<>();
+			group.branches.add(sequence);
+			return group;
+		case 'k':
+			position = Expect('>', pattern, position) + 1;
+			return new Node(Kind.Reference);
+		case 'R':
+			++position;
+			Node lineBreak = Characters(LineTerminators);
+			lineBreak.characters.set('\u000B');
+			lineBreak.characters.set('\f');
+			lineBreak.max = 2;
+			return lineBreak;
+		case 'X':
+			++position;
+			Node grapheme = Characters(All());
+			grapheme.max = Unbounded;
+			return grapheme;
+		default:
+			if (ch >= '1' && ch <= '9') {
+				while (position < pattern.length() && Character.isDigit(pattern.charAt(position)))
+					++position;
+				return new Node(Kind.Reference);
+			}
+			return Characters(parseClassEscape());
+		}
+	}
+
+	/** @return characters of a bracketed class starting after its bracket. */
+	private BitSet parseClass() {
+		boolean negated = pattern.startsWith("^", position);
+		if (negated)
+			++position;
+		BitSet characters = parseClassItems(true);
+		if (negated)
+			characters.flip(0, Characters);
+		return characters;
+	}
+
+	/**
+	 * @param leading <code>true</code> if a closing bracket at the current
+	 *                position is a literal character.
+	 * @return characters of the items of a bracketed class up to and including
+	 *         its closing bracket.
+	 */
+	private BitSet parseClassItems(boolean leading) {
+		BitSet characters = new BitSet(Characters);
+		while (true) {
+			if (position >= pattern.length())
+				throw new IllegalArgumentException("Unclosed character class");
+			char ch = pattern.charAt(position);
+			if (ch == ']' && !leading) {
+				++position;
+				return characters;
+			}
+			leading = false;
+			if (ch == '[') {
+				++position;
+				characters.or(parseClass());
+				continue;
+			}
+			if (pattern.startsWith("&&", position)) {
+				position += 2;
+				characters.and(parseClassItems(false));
+				return characters;
+			}
+			++position;
+			int lower = ch;
+			boolean ignoreCase = this.ignoreCase;
+			this.ignoreCase = false;
+			BitSet set = ch == '\\' ? parseClassEscape() : Character(ch);
+			if (ch == '\\')
+				lower = set.cardinality() == 1 ? set.nextSetBit(0) : -1;
+			if (lower > -1 && pattern.startsWith("-", position) && position + 1 < pattern.length()
+					&& pattern.charAt(position + 1) != ']') {
+				char upper = pattern.charAt(++position);
+				++position;
+				if (upper == '\\')
+					upper = (char) parseClassEscape().nextSetBit(0);
+				if (upper >= lower) {
+					set = new BitSet(Characters);
+					set.set(lower, upper + 1);
+				}
+			}
+			this.ignoreCase = ignoreCase;
+			characters.or(ignoreCase ? IgnoreCase(set) : set);
+		}
+	}
+
+	/** @return characters of an escape sequence that may appear in a class. */
+	private BitSet parseClassEscape() {
+		char ch = pattern.charAt(position++);
+		BitSet set;
+		switch (ch) {
+		case 'd':
+		case 'D':
+			set = Range('0', '9');
+			break;
+		case 'w':
+		case 'W':
+			set = Range('a', 'z');
+			set.or(Range('A', 'Z'));
+			set.or(Range('0', '9'));
+			set.set('_');
+			break;
+		case 's':
+		case 'S':
+			set = Set(" \t\n\u000B\f\r");
+			break;
+		case 'h':
+		case 'H':
+			set = Set(" \t\u00A0\u1680\u180E\u202F\u205F\u3000");
+			set.set(0x2000, 0x200B);
+			break;
+		case 'v':
+		case 'V':
+			set = Set("\n\u000B\f\r\u0085\u2028\u2029");
+			break;
+		case 'p':
+		case 'P':
+			String name;
+			if (pattern.startsWith("{", position)) {
+				int end = Expect('}', pattern, position);
+				name = pattern.substring(position + 1, end);
+				position = end + 1;
+			} else {
+				name = pattern.substring(position, ++position);
+			}
+			set = Property(name);
+			break;
+		case 'x':
+			int code;
+			if (pattern.startsWith("{", position)) {
+				int end = Expect('}', pattern, position);
+				code = Integer.parseInt(pattern.substring(position + 1, end), 16);
+				position = end + 1;
+			} else {
+				code = Integer.parseInt(pattern.substring(position, position + 2), 16);
+				position += 2;
+			}
+			return Character(code < Characters ? (char) code : '\uFFFF');
+		case 'u':
+			code = Integer.parseInt(pattern.substring(position, position + 4), 16);
+			position += 4;
+			return Character((char) code);
+		case '0':
+			int start = position;
+			while (position < pattern.length() && position - start < 3 && pattern.charAt(position) >= '0'
+					&& pattern.charAt(position) <= '7')
+				++position;
+			return Character((char) Integer.parseInt(pattern.substring(start, position), 8));
+		case 'c':
+			return Character((char) (pattern.charAt(position++) ^ 64));
+		case 't':
+			return Character('\t');
+		case 'n':
+			return Character('\n');
+		case 'r':
+			return Character('\r');
+		case 'f':
+			return Character('\f');
+		case 'a':
+			return Character('\u0007');
+		case 'e':
+			return Character('\u001B');
+		default:
+			return Character(ch);
+		}
+		if (Character.isUpperCase(ch))
+			set.flip(0, Characters);
+		return set;
+	}
+
+	/**
+	 * @param ch to match.
+	 * @return characters matching a specified character under the current
+	 *         flags.
+	 */
+	private BitSet Character(char ch) {
+		BitSet set = new BitSet(Characters);
+		set.set(ch);
+		return ignoreCase ? IgnoreCase(set) : set;
+	}
+
+	// MARK: - Character Sets
+
+	/** @return set of every character. */
+	static BitSet All() {
+		BitSet set = new BitSet(Characters);
+		set.set(0, Characters);
+		return set;
+	}
+
+	/**
+	 * @param characters to add.
+	 * @return set of the specified characters.
+	 */
+	static BitSet Set(String characters) {
+		BitSet set = new BitSet(Characters);
+		for (int i = 0; i < characters.length(); ++i)
+			set.set(characters.charAt(i));
+		return set;
+	}
+
+	/**
+	 * @param lower first character of the range.
+	 * @param upper last character of the range.
+	 * @return set of the specified range of characters.
+	 */
+	static BitSet Range(char lower, char upper) {
+		BitSet set = new BitSet(Characters);
+		set.set(lower, upper + 1);
+		return set;
+	}
+
+	/**
+	 * @param set to extend.
+	 * @return the specified set extended by the other case of its letters.
+	 */
+	static BitSet IgnoreCase(BitSet set) {
+		BitSet result = (BitSet) set.clone();
+		for (int ch = set.nextSetBit(0); ch > -1; ch = set.nextSetBit(ch + 1)) {
+			result.set(Character.toUpperCase((char) ch));
+			result.set(Character.toLowerCase((char) ch));
+		}
+		return result;
+	}
+
+	/**
+	 * @param name of a Unicode property or POSIX class.
+	 * @return characters with the specified property, or every character if the
+	 *         property is not known.
+	 */
+	static BitSet Property(String name) {
+		if (name.startsWith("Is"))
+			name = name.substring(2);
+		else if (name.startsWith("java"))
+			name = name.substring(4);
+		BitSet set = new BitSet(Characters);
+		for (int ch = 0; ch < Characters; ++ch) {
+			boolean member;
+			switch (name) {
+			case "L":
+			case "Alpha":
+			case "Alphabetic":
+			case "Letter":
+				member = Character.isLetter(ch);
+				break;
+			case "Lu":
+			case "Upper":
+			case "Uppercase":
+			case "UpperCase":
+				member = Character.isUpperCase(ch);
+				break;
+			case "Ll":
+			case "Lower":
+			case "Lowercase":
+			case "LowerCase":
+				member = Character.isLowerCase(ch);
+				break;
+			case "N":
+			case "Nd":
+			case "Digit":
+				member = Character.isDigit(ch);
+				break;
+			case "Alnum":
+			case "LetterOrDigit":
+				member = Character.isLetterOrDigit(ch);
+				break;
+			case "Space":
+			case "White_Space":
+			case "Whitespace":
+				member = Character.isWhitespace(ch);
+				break;
+			case "Punct":
+				member = ch < 128 && "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~".indexOf(ch) > -1;
+				break;
+			case "ASCII":
+				member = ch < 128;
+				break;
+			default:
+				return All();
+			}
+			if (member)
+				set.set(ch);
+		}
+		return set;
+	}
+
+	/**
+	 * @param end     character to find.
+	 * @param pattern to search.
+	 * @param from    position to search from.
+	 * @return position of the specified character.
+	 * @throws IllegalArgumentException if the character does not occur.
+	 */
+	private static int Expect(char end, String pattern, int from) {
+		int position = pattern.indexOf(end, from);
+		if (position < 0)
+			throw new IllegalArgumentException(String.format("Missing '%c' after %d", end, from));
+		return position;
+	}
+
+	/**
+	 * @param characters to match.
+	 * @return node matching one of the specified characters.
+	 */
+	private static Node Characters(BitSet characters) {
+		Node node = new Node(Kind.Characters);
+		node.characters = characters;
+		return node;
+	}
+
+	// MARK: - Measures
+
+	/**
+	 * @param node to measure, including its quantifier.
+	 * @return fewest characters the specified node consumes.
+	 */
+	static int MinLength(Node node) {
+		return node.min == 0 ? 0 : Multiply(UnitMinLength(node), node.min);
+	}
+
+	/**
+	 * @param node to measure, excluding its quantifier.
+	 * @return fewest characters a single repetition of the specified node
+	 *         consumes.
+	 */
+	static int UnitMinLength(Node node) {
+		switch (node.kind) {
+		case Characters:
+			return 1;
+		case Group:
+			int minLength = Unbounded;
+			for (List<Node> branch : node.branches)
+				minLength = Math.min(minLength, MinLength(branch, 0));
+			return minLength;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * @param sequence to measure.
+	 * @param from     index of the first node to measure.
+	 * @return fewest characters the specified part of the sequence consumes.
+	 */
+	static int MinLength(List<Node> sequence, int from) {
+		int length = 0;
+		for (int i = from; i < sequence.size(); ++i)
+			length = Add(length, MinLength(sequence.get(i)));
+		return length;
+	}
+
+	/**
+	 * @param node to measure, including its quantifier.
+	 * @return most characters the specified node consumes.
+	 */
+	static int MaxLength(Node node) {
+		if (node.max == 0)
+			return 0;
+		int unitMaxLength;
+		switch (node.kind) {
+		case Characters:
+			unitMaxLength = 1;
+			break;
+		case Group:
+			unitMaxLength = 0;
+			for (List<Node> branch : node.branches) {
+				int length = 0;
+				for (Node part : branch)
+					length = Add(length, MaxLength(part));
+				unitMaxLength = Math.max(unitMaxLength, length);
+			}
+			break;
+		case Reference:
+			return Unbounded;
+		default:
+			return 0;
+		}
+		return unitMaxLength == 0 ? 0 : Multiply(unitMaxLength, node.max);
+	}
+
+	/**
+	 * @param node whose FIRST set to compute.
+	 * @return characters a non-empty match of the specified node can begin with.
+	 */
+	static BitSet First(Node node) {
+		switch (node.kind) {
+		case Characters:
+			return node.characters;
+		case Group:
+			BitSet first = new BitSet(Characters);
+			for (List<Node> branch : node.branches)
+				first.or(First(branch, 0));
+			return first;
+		case Reference:
+			return All();
+		default:
+			return new BitSet(Characters);
+		}
+	}
+
+	/**
+	 * @param sequence whose FIRST set to compute.
+	 * @param from     index of the first node of the sequence to consider.
+	 * @return characters a non-empty match of the specified part of the
+	 *         sequence can begin with.
+	 */
+	static BitSet First(List<Node> sequence, int from) {
+		BitSet first = new BitSet(Characters);
+		for (int i = from; i < sequence.size(); ++i) {
+			Node node = sequence.get(i);
+			first.or(First(node));
+			if (MinLength(node) > 0)
+				break;
+		}
+		return first;
+	}
+
+	/**
+	 * @param node to search.
+	 * @return every character a match of the specified node can contain.
+	 */
+	static BitSet Contents(Node node) {
+		switch (node.kind) {
+		case Characters:
+			return node.characters;
+		case Group:
+			BitSet contents = new BitSet(Characters);
+			for (List<Node> branch : node.branches)
+				for (Node part : branch)
+					contents.or(Contents(part));
+			return contents;
+		case Reference:
+			return All();
+		default:
+			return new BitSet(Characters);
+		}
+	}
+
+	/**
+	 * @param lhs
+	 * @param rhs
+	 * @return sum of the specified lengths, saturated at {@link #Unbounded}.
+	 */
+	static int Add(int lhs, int rhs) {
+		return lhs == Unbounded || rhs == Unbounded || (long) lhs + rhs >= Unbounded ? Unbounded : lhs + rhs;
+	}
+
+	/**
+	 * @param lhs
+	 * @param rhs
+	 * @return product of the specified lengths, saturated at {@link #Unbounded}.
+	 */
+	static int Multiply(int lhs, int rhs) {
+		return lhs == Unbounded || rhs == Unbounded || (long) lhs * rhs >= Unbounded ? Unbounded : lhs * rhs;
+	}
+
+	// MARK: - Checks
+
+	/** @return findings of every backtracking pattern in this structure. */
+	List<Finding> check() {
+		findings.clear();
+		for (List<Node> branch : branches)
+			check(branch, new BitSet(Characters), false, false, false);
+		return findings;
+	}
+
+	/**
+	 * Checks a sequence of nodes.
+	 *
+	 * @param sequence to check.
+	 * @param follow   characters that can follow the sequence.
+	 * @param repeated <code>true</code> if the sequence is part of an unbounded
+	 *                 repetition.
+	 * @param atomic   <code>true</code> if the sequence is never backtracked into.
+	 * @param canFail  <code>true</code> if the pattern can still fail after the
+	 *                 sequence has matched.
+	 */
+	private void check(List<Node> sequence, BitSet follow, boolean repeated, boolean atomic, boolean canFail) {
+		for (int i = 0; i < sequence.size(); ++i) {
+			Node node = sequence.get(i);
+			BitSet after = First(sequence, i + 1);
+			if (MinLength(sequence, i + 1) == 0)
+				after.or(follow);
+			boolean failsAfter = CanFail(sequence, i + 1, canFail);
+			boolean backtracks = node.unbounded() && !node.possessive && !atomic && MaxLength(node) > 0;
+			if (backtracks) {
+				BitSet contents = Contents(node);
+				if (repeated && contents.intersects(after))
+					report(GrammarLintKind.NestedRepeat, GrammarComplexity.Exponential);
+				else if (!repeated && AdjacentRepeat(sequence, i, contents))
+					report(GrammarLintKind.AdjacentRepeats, GrammarComplexity.Polynomial);
+				if (failsAfter && contents.intersects(LineTerminators))
+					report(GrammarLintKind.UnboundedScan, GrammarComplexity.Polynomial);
+				if (node.kind == Kind.Group && node.branches.size() > 1)
+					checkAlternatives(node);
+			}
+			if (node.kind == Kind.Group) {
+				BitSet inner = after;
+				if (node.max > 1) {
+					inner = (BitSet) after.clone();
+					inner.or(First(node));
+				}
+				for (List<Node> branch : node.branches)
+					check(branch, inner, repeated || backtracks, atomic || node.possessive, failsAfter);
+			}
+		}
+	}
+
+	/**
+	 * Reports alternatives of an unbounded repetition that can begin with the
+	 * same character.
+	 *
+	 * @param node unbounded repetition of a group.
+	 */
+	private void checkAlternatives(Node node) {
+		for (int i = 0; i < node.branches.size(); ++i) {
+			List<Node> lhs = node.branches.get(i);
+			for (int j = i + 1; j < node.branches.size(); ++j) {
+				List<Node> rhs = node.branches.get(j);
+				if (!First(lhs, 0).intersects(First(rhs, 0)))
+					continue;
+				boolean single = MaxLength(lhs) == 1 && MaxLength(rhs) == 1;
+				report(GrammarLintKind.OverlappingAlternatives,
+						single ? GrammarComplexity.Exponential : GrammarComplexity.Polynomial);
+			}
+		}
+	}
+
+	/**
+	 * @param sequence to measure.
+	 * @return most characters the specified sequence consumes.
+	 */
+	private static int MaxLength(List<Node> sequence) {
+		int length = 0;
+		for (Node node : sequence)
+			length = Add(length, MaxLength(node));
+		return length;
+	}
+
+	/**
+	 * @param sequence containing an unbounded repetition.
+	 * @param index    of the unbounded repetition.
+	 * @param contents characters the repetition can match.
+	 * @return <code>true</code> if another unbounded repetition that can match
+	 *         the same characters follows after optional nodes only.
+	 */
+	private static boolean AdjacentRepeat(List<Node> sequence, int index, BitSet contents) {
+		for (int i = index + 1; i < sequence.size(); ++i) {
+			Node node = sequence.get(i);
+			if (node.unbounded() && !node.possessive && contents.intersects(Contents(node)))
+				return true;
+			if (MinLength(node) > 0)
+				return false;
+		}
+		return false;
+	}
+
+	/**
+	 * @param sequence to check.
+	 * @param from     index of the first node after the current one.
+	 * @param canFail  <code>true</code> if the pattern can fail after the
+	 *                 sequence.
+	 * @return <code>true</code> if the rest of the pattern can fail at the end of
+	 *         the input, which is not the case if it ends with an alternative
+	 *         that matches the end of the input.
+	 */
+	private static boolean CanFail(List<Node> sequence, int from, boolean canFail) {
+		for (int i = from; i < sequence.size(); ++i) {
+			Node node = sequence.get(i);
+			if (node.kind == Kind.EndAnchor)
+				return false;
+			if (node.kind == Kind.Group)
+				for (List<Node> branch : node.branches)
+					if (branch.size() > 0 && branch.get(0).kind == Kind.EndAnchor)
+						return false;
+			if (MinLength(node) > 0)
+				return true;
+		}
+		return canFail;
+	}
+
+	/**
+	 * Records a finding, keeping only the most complex finding of each kind.
+	 *
+	 * @param kind       of the finding.
+	 * @param complexity of the finding.
+	 */
+	private void report(GrammarLintKind kind, GrammarComplexity complexity) {
+		for (int i = 0; i < findings.size(); ++i) {
+			Finding finding = findings.get(i);
+			if (finding.kind != kind)
+				continue;
+			if (finding.complexity.compareTo(complexity) < 0)
+				findings.set(i, new Finding(kind, complexity));
+			return;
+		}
+		findings.add(new Finding(kind, complexity));
+	}
+
+}
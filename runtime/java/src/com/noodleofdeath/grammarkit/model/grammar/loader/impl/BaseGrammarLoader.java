@@ -4,9 +4,13 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -19,12 +23,23 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import com.noodleofdeath.pastaparser.Quantifier;
+import com.noodleofdeath.pastaparser.jfr.Recorder;
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
 import com.noodleofdeath.pastaparser.model.grammar.GrammarRuleGenerator;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarRecursion;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.impl.BaseGrammarDictionary;
+import com.noodleofdeath.pastaparser.model.grammar.exception.GrammarComplexityException;
 import com.noodleofdeath.pastaparser.model.grammar.exception.GrammarException;
 import com.noodleofdeath.pastaparser.model.grammar.exception.GrammarInitializationException;
 import com.noodleofdeath.pastaparser.model.grammar.impl.BaseGrammar;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarComplexity;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLint;
+import com.noodleofdeath.pastaparser.model.grammar.linter.GrammarLinter;
 import com.noodleofdeath.pastaparser.model.grammar.loader.GrammarLoader;
+import com.noodleofdeath.pastaparser.model.grammar.optimizer.GrammarOptimizer;
+import com.noodleofdeath.pastaparser.model.grammar.optimizer.impl.BaseGrammarOptimizer;
 import com.noodleofdeath.pastaparser.model.grammar.pattern.GrammarPattern;
 import com.noodleofdeath.pastaparser.model.grammar.pattern.GrammarPattern.Flag;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
@@ -39,6 +54,24 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 	 */
 	protected String[] searchPaths;
 
+	/** Optimizer applied to every grammar loaded by this loader, if any. */
+	protected GrammarOptimizer optimizer = new BaseGrammarOptimizer(this);
+
+	/** Linter applied to every grammar loaded by this loader, if any. */
+	protected GrammarLinter linter = null;
+
+	/** Highest complexity of a finding of {@link #linter} that is accepted. */
+	protected GrammarComplexity maxComplexity = GrammarComplexity.Exponential;
+
+	/** Warnings about the grammar last loaded and its parent grammars. */
+	protected final List<String> warnings = new ArrayList<>();
+
+	/**
+	 * Findings of {@link #linter} worse than linear in the grammar last loaded
+	 * and its parent grammars.
+	 */
+	protected final List<GrammarLint> lints = new ArrayList<>();
+
 	/**
 	 * 
 	 *
@@ -69,13 +102,149 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 		return String.format("%s/%s", path, PACKAGE_CONFIG_FILE);
 	}
 
+	/**
+	 * Returns the fixed string matched by a specified regular expression, if the
+	 * expression consists only of plain characters and escaped metacharacters.
+	 * 
+	 * @param pattern to parse.
+	 * @return the fixed string matched by the specified pattern, or
+	 *         <code>null</code> if the pattern can match anything else.
+	 */
+	public static String ParseLiteral(String pattern) {
+		if (pattern == null || pattern.length() < 1)
+			return null;
+		StringBuilder literal = new StringBuilder(pattern.length());
+		for (int i = 0; i < pattern.length(); ++i) {
+			char ch = pattern.charAt(i);
+			if (ch == '\\') {
+				if (++i >= pattern.length())
+					return null;
+				ch = pattern.charAt(i);
+				switch (ch) {
+				case 'n':
+					literal.append('\n');
+					break;
+				case 'r':
+					literal.append('\r');
+					break;
+				case 't':
+					literal.append('\t');
+					break;
+				case 'f':
+					literal.append('\f');
+					break;
+				default:
+					if (Character.isLetterOrDigit(ch))
+						return null;
+					literal.append(ch);
+					break;
+				}
+			} else if (".[]{}()*+?^$|".indexOf(ch) > -1) {
+				return null;
+			} else {
+				literal.append(ch);
+			}
+		}
+		return literal.toString();
+	}
+
 	@Override
 	public String[] searchPaths() {
 		return searchPaths;
 	}
 
+	/**
+	 * @return optimizer applied to every grammar loaded by this loader, if any.
+	 */
+	public GrammarOptimizer optimizer() {
+		return optimizer;
+	}
+
+	/**
+	 * @param optimizer to apply to every grammar loaded by this loader, or
+	 *                  <code>null</code> to load grammars unoptimized.
+	 */
+	public void setOptimizer(GrammarOptimizer optimizer) {
+		this.optimizer = optimizer;
+	}
+
+	/**
+	 * @return linter applied to every grammar loaded by this loader, if any.
+	 */
+	public GrammarLinter linter() {
+		return linter;
+	}
+
+	/**
+	 * @param linter to apply to every grammar loaded by this loader, or
+	 *               <code>null</code> to load grammars unchecked.
+	 */
+	public void setLinter(GrammarLinter linter) {
+		this.linter = linter;
+	}
+
+	/**
+	 * @return highest complexity of a finding of the linter of this loader that
+	 *         is accepted.
+	 */
+	public GrammarComplexity maxComplexity() {
+		return maxComplexity;
+	}
+
+	/**
+	 * @param maxComplexity highest complexity of a finding of the linter of this
+	 *                      loader that is accepted; grammars with a more complex
+	 *                      finding fail to load.
+	 */
+	public void setMaxComplexity(GrammarComplexity maxComplexity) {
+		this.maxComplexity = maxComplexity;
+	}
+
+	/**
+	 * Returns the warnings about the grammar last loaded by this loader and its
+	 * parent grammars, such as left recursive rules whose left recursive
+	 * alternatives never match, or the reason a grammar could not be loaded,
+	 * such as undefined rule references. Loading never prints warnings.
+	 * 
+	 * @return warnings of the last load.
+	 */
+	public List<String> warnings() {
+		return Collections.unmodifiableList(warnings);
+	}
+
+	/**
+	 * Returns the findings of the linter of this loader that are worse than
+	 * linear in the grammar last loaded by this loader and its parent grammars,
+	 * including accepted findings. If a finding exceeds the maximum complexity,
+	 * the grammar is rejected with a {@link GrammarComplexityException} and
+	 * {@link #load(String)} returns <code>null</code>.
+	 * 
+	 * @return findings of the last load.
+	 */
+	public List<GrammarLint> lints() {
+		return Collections.unmodifiableList(lints);
+	}
+
 	@Override
 	public Grammar load(String id) {
+		warnings.clear();
+		lints.clear();
+		Object event = Recorder.Instance.beginGrammarLoad();
+		Grammar grammar = loadGrammar(id);
+		Recorder.Instance.endGrammarLoad(event, id, grammar != null ? grammar.ruleMap().size() : 0, grammar != null);
+		return grammar;
+	}
+
+	/**
+	 * Loads a grammar without clearing the warnings and findings of this
+	 * loader, so parent grammars are loaded as part of the grammar that
+	 * extends them.
+	 * 
+	 * @param id of the grammar to load.
+	 * @return grammar with the specified id, or <code>null</code> if it cannot
+	 *         be loaded.
+	 */
+	private Grammar loadGrammar(String id) {
 
 		File file = new File("");
 		for (String searchPath : searchPaths) {
@@ -87,7 +256,13 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 		try {
 			Document definition = DocumentBuilderFactory.newInstance().newDocumentBuilder()
 					.parse(new File(file.getPath()));
-			return load(definition);
+			Grammar grammar = load(definition);
+			grammar.setId(id);
+			return grammar;
+		} catch (GrammarComplexityException e) {
+			// Rejected findings are reported through lints().
+		} catch (GrammarException e) {
+			warnings.add(String.format("Cannot load grammar \"%s\". %s", id, e.getMessage()));
 		} catch (ParserConfigurationException e) {
 			e.printStackTrace();
 		} catch (SAXException e) {
@@ -115,12 +290,14 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 
 		Grammar grammar = new BaseGrammar();
 		GrammarRule rootRule = new BaseGrammarRule();
-		HashMap<String, GrammarRule> ruleMap = new LinkedHashMap<>();
+		Map<String, GrammarRule> ruleMap = new LinkedHashMap<>();
 
 		String parentName = root.getAttribute(XMLAttribute.Extends);
 		Grammar parentGrammar = null;
 		if (parentName != null && parentName.length() > 0) {
-			parentGrammar = load(parentName);
+			parentGrammar = loadGrammar(parentName);
+			if (parentGrammar == null)
+				throw new GrammarException(String.format("Cannot load parent grammar \"%s\".", parentName));
 			rootRule = parentGrammar.rootRule();
 			ruleMap = parentGrammar.ruleMap();
 		}
@@ -149,7 +326,7 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 					? GrammarRuleType.LexerRule
 					: GrammarRuleType.ParserRule;
 			rule.setRuleType(ruleType);
-			if (!rule.options().contains(XMLAttribute.Omit))
+			if (!rule.omit())
 				rootRule.addChild(rule);
 			ruleMap.put(rule.id(), rule);
 		}
@@ -158,6 +335,13 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 		grammar.setRuleMap(ruleMap);
 		grammar.sortRules();
 
+		if (optimizer != null)
+			optimizer.optimize(grammar);
+		link(grammar);
+		checkRecursion(grammar);
+		if (linter != null)
+			checkComplexity(grammar);
+
 		return grammar;
 
 	}
@@ -169,9 +353,11 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 		if (defNode == null)
 			return null;
 		NodeList defNodes = null;
+		boolean dictionary = false;
 		if (defNode.getNodeType() == Node.ELEMENT_NODE)
 			defNodes = ((Element) defNode).getElementsByTagName(XMLTag.Word);
 		if (defNodes != null && defNodes.getLength() > 0) {
+			dictionary = true;
 			List<String> defs = new ArrayList<>();
 			for (int j = 0; j < defNodes.getLength(); j++)
 				defs.add(String.format("'%s'", defNodes.item(j).getTextContent().replaceAll("\\r?\\n|\\s\\s+", " ")));
@@ -180,8 +366,6 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 			definition = defNode.getTextContent().replaceAll("\\r?\\n|\\s\\s+", " ");
 		}
 		GrammarRule rule = parseCompositeRule(id, definition, true, null, rootRule, grammar);
-		if (checkFatal(rule))
-			return null;
 		String _order = node.getAttribute(XMLAttribute.Order);
 		int order = _order != null ? Integer.parseInt(_order) : Integer.MAX_VALUE;
 		rule.setOrder(order);
@@ -189,9 +373,31 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 		rule.setCategories(categories);
 		List<String> options = Arrays.asList(node.getAttribute(XMLAttribute.Options).split("[ ,]"));
 		rule.setOptions(options);
+		if (dictionary || options.contains("dictionary"))
+			rule.setDictionary(parseDictionary(rule));
 		return rule;
 	}
 
+	/**
+	 * Compiles the alternatives of a specified rule into a dictionary.
+	 * 
+	 * @param rule to compile.
+	 * @return the compiled dictionary, or <code>null</code> if any alternative of
+	 *         the specified rule is not a single fixed string.
+	 */
+	protected GrammarDictionary parseDictionary(GrammarRule rule) {
+		GrammarDictionary dictionary = new BaseGrammarDictionary();
+		for (GrammarRule subrule : rule.subrules()) {
+			String word = subrule.componentType() == GrammarRuleComponentType.Literal && subrule.next() == null
+					&& !subrule.inverted() && subrule.quantifier() == Quantifier.Once
+					&& subrule.subrules().size() == 0 ? ParseLiteral(subrule.value()) : null;
+			if (word == null)
+				return null;
+			dictionary.add(word);
+		}
+		return dictionary.words().size() > 0 ? dictionary : null;
+	}
+
 	/**
 	 * @param id
 	 * @param atom
@@ -313,6 +519,8 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 
 		} else {
 			rule = generateRule(id, atom, grammar);
+			if (componentType == GrammarRuleComponentType.Literal)
+				rule.setLiteral(ParseLiteral(atom));
 		}
 
 		rule.setRuleComponentType(componentType);
@@ -396,17 +604,98 @@ public class BaseGrammarLoader implements GrammarLoader, GrammarRuleGenerator {
 	}
 
 	/**
+	 * Resolves every lexer, fragment, and parser rule reference of a specified
+	 * grammar to its target rule, so lexers and parsers can follow
+	 * {@link GrammarRule#reference()} instead of looking rules up by identifier.
+	 * 
+	 * @param grammar to link.
+	 * @throws GrammarException if any reference cannot be resolved.
+	 */
+	protected void link(Grammar grammar) throws GrammarException {
+		List<String> unresolved = new ArrayList<>();
+		Set<GrammarRule> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (GrammarRule rule : grammar.rules())
+			link(grammar, rule, visited, unresolved);
+		for (GrammarRule rule : grammar.ruleMap().values())
+			link(grammar, rule, visited, unresolved);
+		if (unresolved.size() > 0)
+			throw new GrammarException(
+					String.format("Encountered undefined rule references: %s", String.join(", ", unresolved)));
+	}
+
+	/**
+	 * @param grammar
 	 * @param rule
-	 * @return
+	 * @param visited
+	 * @param unresolved
 	 */
-	protected static boolean checkFatal(GrammarRule rule) {
-		if (rule.recursive() && rule.recursiveFatal()) {
-			System.err.println(String.format(
-					"WARNING: Encountered a fatal recursive rule \"%s\" defined by \"%s\". Skipping this rule.",
-					rule.id(), rule));
-			return true;
+	private static void link(Grammar grammar, GrammarRule rule, Set<GrammarRule> visited, List<String> unresolved) {
+		for (; rule != null && visited.add(rule); rule = rule.next()) {
+			switch (rule.componentType()) {
+			case LexerRule:
+			case LexerFragment:
+			case ParserRule:
+				GrammarRule reference = grammar.ruleMap().get(rule.value());
+				if (reference == null)
+					unresolved.add(String.format("%s -> %s", rule.id(), rule.value()));
+				rule.setReference(reference);
+				break;
+			default:
+				break;
+			}
+			for (GrammarRule subrule : rule.subrules())
+				link(grammar, subrule, visited, unresolved);
+		}
+	}
+
+	/**
+	 * Adds a warning for every left recursive rule of a specified grammar to
+	 * {@link #warnings()}. Lexers and parsers refuse to reenter a left recursive
+	 * rule at the same offset, so the left recursive alternatives of such a rule
+	 * never match. Rules of a parent grammar, which were checked when it was
+	 * loaded, are warned about once.
+	 * 
+	 * @param grammar to check.
+	 */
+	protected void checkRecursion(Grammar grammar) {
+		GrammarAnalysis analysis = grammar.analysis();
+		for (GrammarRule rule : grammar.ruleMap().values()) {
+			if (analysis.recursion(rule) != GrammarRecursion.Left)
+				continue;
+			String consequence = analysis.minLength(rule) == GrammarAnalysis.Unbounded ? "This rule never matches."
+					: "Its left recursive alternatives never match.";
+			String warning = String.format("Encountered a left recursive rule \"%s\" defined by \"%s\". %s",
+					rule.id(), rule, consequence);
+			if (!warnings.contains(warning))
+				warnings.add(warning);
+		}
+	}
+
+	/**
+	 * Adds every finding of the linter of this loader that is worse than linear
+	 * to {@link #lints()} and rejects a specified grammar if any finding exceeds
+	 * the maximum complexity of this loader. Findings of a parent grammar,
+	 * which was checked when it was loaded, are added once.
+	 * 
+	 * @param grammar to check.
+	 * @throws GrammarComplexityException if any finding exceeds the maximum
+	 *                                    complexity.
+	 */
+	protected void checkComplexity(Grammar grammar) throws GrammarComplexityException {
+		List<GrammarLint> rejected = new ArrayList<>();
+		Set<String> found = new HashSet<>();
+		for (GrammarLint lint : lints)
+			found.add(lint.toString());
+		for (GrammarLint lint : linter.lint(grammar)) {
+			if (lint.complexity() == GrammarComplexity.Linear)
+				continue;
+			if (found.add(lint.toString()))
+				lints.add(lint);
+			if (lint.complexity().compareTo(maxComplexity) > 0)
+				rejected.add(lint);
 		}
-		return false;
+		if (rejected.size() > 0)
+			throw new GrammarComplexityException(maxComplexity, rejected);
 	}
 
 	@Override
@@ -0,0 +1,19 @@
+package com.noodleofdeath.pastaparser.model.grammar.optimizer;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+
+/**
+ * Specifications for a grammar optimizer that rewrites the rule graph of a
+ * loaded grammar into an equivalent graph that is cheaper to match.
+ */
+public interface GrammarOptimizer {
+
+	/**
+	 * Optimizes every rule of a specified grammar in place.
+	 * 
+	 * @param grammar to optimize.
+	 * @return number of grammar rules that were rewritten.
+	 */
+	public abstract int optimize(Grammar grammar);
+
+}
@@ -0,0 +1,467 @@
+package com.noodleofdeath.pastaparser.model.grammar.optimizer.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.noodleofdeath.pastaparser.Quantifier;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.GrammarRuleGenerator;
+import com.noodleofdeath.pastaparser.model.grammar.optimizer.GrammarOptimizer;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
+
+/**
+ * Base implementation of {@link GrammarOptimizer}.
+ * 
+ * Every rewrite performed by this optimizer preserves the ordered choice
+ * semantics of the text lexer and parser, in which a group only accepts an
+ * alternative that matched at least one token and every atom that is not
+ * optional consumes at least one token.
+ */
+public class BaseGrammarOptimizer implements GrammarOptimizer {
+
+	/** Maximum number of atoms a fragment may have to be inlined. */
+	public static final int DefaultInlineLimit = 4;
+
+	/** Generator used to create the rules introduced by this optimizer. */
+	protected GrammarRuleGenerator generator;
+
+	/** Maximum number of atoms a fragment may have to be inlined. */
+	protected int inlineLimit = DefaultInlineLimit;
+
+	/** Grammar currently being optimized. */
+	protected Grammar grammar;
+
+	/** Number of rewrites performed so far. */
+	protected int rewrites = 0;
+
+	/**
+	 * Constructs a new grammar optimizer with an initial rule generator.
+	 * 
+	 * @param generator used to create the rules introduced by this optimizer.
+	 */
+	public BaseGrammarOptimizer(GrammarRuleGenerator generator) {
+		this.generator = generator;
+	}
+
+	/** @return maximum number of atoms a fragment may have to be inlined. */
+	public int inlineLimit() {
+		return inlineLimit;
+	}
+
+	/** @param inlineLimit maximum number of atoms a fragment may have to be inlined. */
+	public void setInlineLimit(int inlineLimit) {
+		this.inlineLimit = inlineLimit;
+	}
+
+	@Override
+	public int optimize(Grammar grammar) {
+		this.grammar = grammar;
+		int count = 0;
+		for (GrammarRule rule : grammar.ruleMap().values()) {
+			int before = rewrites;
+			optimizeAlternatives(rule, rule.ruleType());
+			if (rewrites > before)
+				++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Optimizes each alternative of a specified group and then factors and
+	 * reorders the alternatives themselves.
+	 * 
+	 * @param group    whose alternatives to optimize.
+	 * @param ruleType of the top level rule the group belongs to.
+	 */
+	protected void optimizeAlternatives(GrammarRule group, GrammarRuleType ruleType) {
+		List<GrammarRule> alternatives = new ArrayList<>();
+		for (GrammarRule alternative : group.subrules())
+			alternatives.add(optimizeChain(alternative, ruleType));
+		alternatives = factorPrefixes(alternatives, ruleType);
+		if (ruleType == GrammarRuleType.ParserRule)
+			hoistAlternatives(alternatives);
+		group.children().clear();
+		for (GrammarRule alternative : alternatives)
+			group.addChild(alternative);
+	}
+
+	/**
+	 * Optimizes a sequence of atoms linked by {@link GrammarRule#next()}.
+	 * 
+	 * @param head     of the sequence to optimize.
+	 * @param ruleType of the top level rule the sequence belongs to.
+	 * @return the head of the optimized sequence.
+	 */
+	protected GrammarRule optimizeChain(GrammarRule head, GrammarRuleType ruleType) {
+
+		List<GrammarRule> atoms = new ArrayList<>();
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			List<GrammarRule> inlined = inline(atom, ruleType);
+			if (inlined != null) {
+				atoms.addAll(inlined);
+				++rewrites;
+			} else {
+				atoms.add(atom);
+			}
+		}
+
+		for (int i = 0; i < atoms.size(); ++i) {
+			GrammarRule atom = atoms.get(i);
+			if (atom.componentType() != GrammarRuleComponentType.Composite)
+				continue;
+			optimizeAlternatives(atom, ruleType);
+			GrammarRule collapsed = collapse(atom);
+			if (collapsed != atom) {
+				atoms.set(i, collapsed);
+				++rewrites;
+			}
+		}
+
+		if (ruleType == GrammarRuleType.LexerRule) {
+			for (int i = 0; i + 1 < atoms.size();) {
+				GrammarRule merged = merge(atoms.get(i), atoms.get(i + 1));
+				if (merged != null) {
+					atoms.set(i, merged);
+					atoms.remove(i + 1);
+					++rewrites;
+				} else {
+					++i;
+				}
+			}
+		}
+
+		return link(atoms);
+
+	}
+
+	/**
+	 * Inlines the fragment referenced by a specified atom.
+	 * 
+	 * @param atom     to inline.
+	 * @param ruleType of the top level rule the atom belongs to.
+	 * @return the atoms replacing the specified atom, or <code>null</code> if the
+	 *         atom cannot be inlined.
+	 */
+	protected List<GrammarRule> inline(GrammarRule atom, GrammarRuleType ruleType) {
+
+		boolean reference = ruleType == GrammarRuleType.ParserRule
+				? atom.componentType() == GrammarRuleComponentType.ParserRule
+				: atom.componentType().equals(GrammarRuleComponentType.LexerRule,
+						GrammarRuleComponentType.LexerFragment);
+		if (!reference)
+			return null;
+
+		GrammarRule fragment = grammar.ruleMap().get(atom.value());
+		if (fragment == null || fragment.subrules().size() != 1 || !fragment(fragment))
+			return null;
+
+		List<GrammarRule> body = new ArrayList<>();
+		for (GrammarRule part = fragment.subrules().get(0); part != null; part = part.next()) {
+			if (part.subrules().size() > 0 || (ruleType == GrammarRuleType.ParserRule
+					? part.componentType() == GrammarRuleComponentType.ParserRule
+					: part.componentType().equals(GrammarRuleComponentType.LexerRule,
+							GrammarRuleComponentType.LexerFragment))
+					&& part.value().equals(fragment.id()))
+				return null;
+			body.add(part);
+		}
+		if (body.size() > inlineLimit || body.get(0).quantifier().optional())
+			return null;
+
+		List<GrammarRule> atoms = new ArrayList<>();
+		if (body.size() == 1 && body.get(0).quantifier() == Quantifier.Once && !body.get(0).inverted()) {
+			GrammarRule copy = copy(body.get(0), atom);
+			copy.setQuantifier(atom.quantifier());
+			copy.setInverted(atom.inverted());
+			atoms.add(copy);
+			return atoms;
+		}
+
+		if (atom.quantifier() != Quantifier.Once || atom.inverted())
+			return null;
+		for (GrammarRule part : body)
+			atoms.add(copy(part, atom));
+		return atoms;
+
+	}
+
+	/**
+	 * Replaces a group that wraps a single atom with that atom.
+	 * 
+	 * @param group to collapse.
+	 * @return the atom replacing the group, or the group itself if it cannot be
+	 *         collapsed.
+	 */
+	protected GrammarRule collapse(GrammarRule group) {
+		if (group.inverted() || group.subrules().size() != 1)
+			return group;
+		GrammarRule child = group.subrules().get(0);
+		if (child.next() != null || child.quantifier().optional())
+			return group;
+		if (group.quantifier() == Quantifier.Once) {
+			child.setParent(null);
+			return child;
+		}
+		if (child.quantifier() == Quantifier.Once && !child.inverted()) {
+			child.setQuantifier(group.quantifier());
+			child.setParent(null);
+			return child;
+		}
+		return group;
+	}
+
+	/**
+	 * Merges two adjacent lexer atoms into a single expression.
+	 * 
+	 * @param lhs first atom.
+	 * @param rhs atom immediately following <code>lhs</code>.
+	 * @return the merged atom, or <code>null</code> if the atoms cannot be merged.
+	 */
+	protected GrammarRule merge(GrammarRule lhs, GrammarRule rhs) {
+		if (!(mergeable(lhs) && mergeable(rhs)))
+			return null;
+		GrammarRuleComponentType componentType = lhs.componentType() == GrammarRuleComponentType.Literal
+				&& rhs.componentType() == GrammarRuleComponentType.Literal ? GrammarRuleComponentType.Literal
+						: GrammarRuleComponentType.Expression;
+		boolean literal = lhs.literal() != null && rhs.literal() != null;
+		GrammarRule merged = generator.generateRule(lhs.id(),
+				literal ? lhs.value() + rhs.value() : String.format("(?>%s)(?>%s)", lhs.value(), rhs.value()),
+				componentType, grammar);
+		merged.setRuleComponentType(componentType);
+		if (literal)
+			merged.setLiteral(lhs.literal() + rhs.literal());
+		merged.setGrammar(lhs.grammar());
+		merged.setRootAncestor(lhs.rootAncestor());
+		return merged;
+	}
+
+	/**
+	 * Factors the leading atom shared by adjacent alternatives into a single
+	 * alternative followed by a group of the remainders.
+	 * 
+	 * @param alternatives to factor.
+	 * @param ruleType     of the top level rule the alternatives belong to.
+	 * @return the factored alternatives.
+	 */
+	protected List<GrammarRule> factorPrefixes(List<GrammarRule> alternatives, GrammarRuleType ruleType) {
+		List<GrammarRule> factored = new ArrayList<>();
+		for (int i = 0; i < alternatives.size();) {
+			GrammarRule head = alternatives.get(i);
+			int j = i + 1;
+			while (factorable(head) && j < alternatives.size() && factorable(alternatives.get(j))
+					&& equivalent(head, alternatives.get(j)))
+				++j;
+			if (j - i < 2) {
+				factored.add(head);
+				++i;
+				continue;
+			}
+			GrammarRule group = generator.generateRule(head.id());
+			group.setGrammar(head.grammar());
+			group.setRuleComponentType(GrammarRuleComponentType.Composite);
+			group.setRootAncestor(head.rootAncestor());
+			for (int k = i; k < j; ++k) {
+				GrammarRule remainder = alternatives.get(k).next();
+				remainder.setPrev(null);
+				group.addChild(remainder);
+			}
+			List<GrammarRule> remainders = factorPrefixes(new ArrayList<>(group.subrules()), ruleType);
+			group.children().clear();
+			for (GrammarRule remainder : remainders)
+				group.addChild(remainder);
+			head.setNext(group);
+			factored.add(head);
+			++rewrites;
+			i = j;
+		}
+		return factored;
+	}
+
+	/**
+	 * Moves alternatives that cannot match empty input ahead of preceding
+	 * alternatives that can, whenever both alternatives provably begin with
+	 * different tokens and therefore can never both match.
+	 * 
+	 * @param alternatives to reorder.
+	 */
+	protected void hoistAlternatives(List<GrammarRule> alternatives) {
+		for (int i = 1; i < alternatives.size(); ++i) {
+			GrammarRule alternative = alternatives.get(i);
+			if (nullable(alternative))
+				continue;
+			Set<String> first = firstTokens(alternative, new HashSet<String>());
+			if (first == null)
+				continue;
+			int j = i;
+			while (j > 0 && nullable(alternatives.get(j - 1))) {
+				Set<String> previous = firstTokens(alternatives.get(j - 1), new HashSet<String>());
+				if (previous == null || !disjoint(first, previous))
+					break;
+				--j;
+			}
+			if (j < i) {
+				alternatives.remove(i);
+				alternatives.add(j, alternative);
+				++rewrites;
+			}
+		}
+	}
+
+	/**
+	 * Computes the set of lexer rule identifiers a non-empty match of a specified
+	 * parser sequence can begin with.
+	 * 
+	 * @param head     of the sequence.
+	 * @param visiting identifiers of the parser rules currently being expanded.
+	 * @return the set of lexer rule identifiers, or <code>null</code> if the set
+	 *         cannot be determined.
+	 */
+	protected Set<String> firstTokens(GrammarRule head, Set<String> visiting) {
+		Set<String> first = new HashSet<>();
+		for (GrammarRule atom = head; atom != null; atom = atom.next()) {
+			if (atom.inverted())
+				return null;
+			switch (atom.componentType()) {
+			case LexerRule:
+			case LexerFragment:
+				first.add(atom.value());
+				break;
+			case ParserRule:
+				GrammarRule ref = grammar.ruleMap().get(atom.value());
+				if (ref == null || !visiting.add(ref.id()))
+					return null;
+				for (GrammarRule alternative : ref.subrules()) {
+					Set<String> set = firstTokens(alternative, visiting);
+					if (set == null)
+						return null;
+					first.addAll(set);
+				}
+				visiting.remove(ref.id());
+				break;
+			case Composite:
+				for (GrammarRule alternative : atom.subrules()) {
+					Set<String> set = firstTokens(alternative, visiting);
+					if (set == null)
+						return null;
+					first.addAll(set);
+				}
+				break;
+			default:
+				return null;
+			}
+			if (!atom.quantifier().optional())
+				break;
+		}
+		return first;
+	}
+
+	/**
+	 * @param head of a sequence.
+	 * @return <code>true</code> if every atom of the sequence is optional.
+	 */
+	protected static boolean nullable(GrammarRule head) {
+		for (GrammarRule atom = head; atom != null; atom = atom.next())
+			if (!atom.quantifier().optional())
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param rule to check.
+	 * @return <code>true</code> if a specified rule is a fragment.
+	 */
+	protected static boolean fragment(GrammarRule rule) {
+		return rule.ruleType() == GrammarRuleType.LexerFragment || rule.omit();
+	}
+
+	/**
+	 * @param atom to check.
+	 * @return <code>true</code> if a specified atom is a leaf atom whose leading
+	 *         position can be factored out of its alternative.
+	 */
+	protected static boolean factorable(GrammarRule atom) {
+		return atom.subrules().size() == 0 && atom.next() != null && !atom.next().quantifier().optional();
+	}
+
+	/**
+	 * @param lhs atom to compare.
+	 * @param rhs atom to compare.
+	 * @return <code>true</code> if both leaf atoms always match identically.
+	 */
+	protected static boolean equivalent(GrammarRule lhs, GrammarRule rhs) {
+		return lhs.componentType() == rhs.componentType() && lhs.inverted() == rhs.inverted()
+				&& lhs.value().equals(rhs.value()) && lhs.quantifier().toString().equals(rhs.quantifier().toString());
+	}
+
+	/**
+	 * @param atom to check.
+	 * @return <code>true</code> if a specified atom can be concatenated with an
+	 *         adjacent atom into a single expression.
+	 */
+	protected static boolean mergeable(GrammarRule atom) {
+		if (!atom.componentType().equals(GrammarRuleComponentType.Literal, GrammarRuleComponentType.Expression)
+				|| atom.inverted() || atom.quantifier() != Quantifier.Once || atom.subrules().size() > 0)
+			return false;
+		if (atom.literal() != null)
+			return true;
+		String value = atom.value();
+		return !(value.contains("|") || value.contains("^") || value.contains("(?<") || value.contains("\\b")
+				|| value.contains("\\B") || value.contains("\\A") || value.contains("\\G"));
+	}
+
+	/**
+	 * @param lhs set to compare.
+	 * @param rhs set to compare.
+	 * @return <code>true</code> if the specified sets share no element.
+	 */
+	protected static boolean disjoint(Set<String> lhs, Set<String> rhs) {
+		for (String element : lhs)
+			if (rhs.contains(element))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Creates a detached copy of a specified atom and its subrules.
+	 * 
+	 * @param atom     to copy.
+	 * @param position atom whose position in the rule graph the copy will take.
+	 * @return the copy.
+	 */
+	protected GrammarRule copy(GrammarRule atom, GrammarRule position) {
+		GrammarRule copy = generator.generateRule(position.id(), atom.value(), atom.componentType(), grammar);
+		copy.setRuleComponentType(atom.componentType());
+		copy.setLiteral(atom.literal());
+		copy.setReference(atom.reference());
+		copy.setGrammar(position.grammar());
+		copy.setQuantifier(atom.quantifier());
+		copy.setInverted(atom.inverted());
+		copy.setRootAncestor(position.rootAncestor());
+		for (GrammarRule alternative : atom.subrules()) {
+			List<GrammarRule> atoms = new ArrayList<>();
+			for (GrammarRule part = alternative; part != null; part = part.next())
+				atoms.add(copy(part, position));
+			copy.addChild(link(atoms));
+		}
+		return copy;
+	}
+
+	/**
+	 * Links a list of atoms into a sequence.
+	 * 
+	 * @param atoms to link.
+	 * @return the head of the sequence.
+	 */
+	protected static GrammarRule link(List<GrammarRule> atoms) {
+		for (int i = 0; i < atoms.size(); ++i)
+			atoms.get(i).setNext(i + 1 < atoms.size() ? atoms.get(i + 1) : null);
+		if (atoms.size() > 0)
+			atoms.get(0).setPrev(null);
+		return atoms.size() > 0 ? atoms.get(0) : null;
+	}
+
+}
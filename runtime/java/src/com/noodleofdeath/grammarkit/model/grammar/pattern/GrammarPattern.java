@@ -25,7 +25,7 @@ public enum GrammarPattern {
 	Atom("(?:" + Empty + "|" + Literal + "|" + Expression + "|" + Word + "|" + Group + ")"),
 
 	/**   */
-	Quantifier("(?:(?:[\\*\\+\\?]|\\{\\s*\\d?(?:\\s*,\\s*\\d?)?\\s*\\})\\??)"),
+	Quantifier("(?:(?:[\\*\\+\\?]|\\{\\s*\\d*(?:\\s*,\\s*\\d*)?\\s*\\})\\??)"),
 
 	/**   */
 	CGFragment("(?:fragment\\s+(\\w+))"),
@@ -0,0 +1,73 @@
+package com.noodleofdeath.pastaparser.model.grammar.profiler;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+
+/**
+ * Specifications for a profiler that a lexer or parser notifies of every
+ * attempt to match a top level or referenced grammar rule. Profiling is opt-in:
+ * lexers and parsers without a profiler do not measure anything.
+ *
+ * Attempts are reported as nested pairs of {@link #willAttempt(GrammarRule, int)}
+ * and {@link #didAttempt(GrammarRule, int, long, int)} calls from a single
+ * thread at a time.
+ */
+public interface GrammarProfiler {
+
+	/**
+	 * Called when a lexer or parser begins reading a new input. Offsets
+	 * attempted before are forgotten for rules of the same kind, so that
+	 * {@link RuleProfile#repeats()} only counts repeats within one input.
+	 * 
+	 * @param lexer <code>true</code> if a lexer begins tokenizing;
+	 *              <code>false</code>, if a parser begins parsing.
+	 */
+	public abstract void didBegin(boolean lexer);
+
+	/**
+	 * Called before a rule is attempted at an offset.
+	 * 
+	 * @param rule   that is attempted.
+	 * @param offset character or token offset the rule is attempted at.
+	 * @return value to pass to {@link #didAttempt(GrammarRule, int, long, int)}.
+	 */
+	public abstract long willAttempt(GrammarRule rule, int offset);
+
+	/**
+	 * Called after a rule was attempted at an offset.
+	 * 
+	 * @param rule    that was attempted.
+	 * @param offset  character or token offset the rule was attempted at.
+	 * @param started value returned by the matching call to
+	 *                {@link #willAttempt(GrammarRule, int)}.
+	 * @param length  number of characters or tokens matched, or
+	 *                <code>-1</code> if the rule did not match.
+	 */
+	public abstract void didAttempt(GrammarRule rule, int offset, long started, int length);
+
+	/** @return profiles of every attempted rule, by descending self time. */
+	public abstract List<RuleProfile> profiles();
+
+	/** Discards every profile recorded so far. */
+	public abstract void reset();
+
+	/**
+	 * Writes a human readable table of {@link #profiles()}.
+	 * 
+	 * @param out to write to.
+	 * @throws IOException if writing fails.
+	 */
+	public abstract void report(Appendable out) throws IOException;
+
+	/**
+	 * Writes {@link #profiles()} as tab separated values with a header line,
+	 * with times in nanoseconds.
+	 * 
+	 * @param out to write to.
+	 * @throws IOException if writing fails.
+	 */
+	public abstract void dump(Appendable out) throws IOException;
+
+}
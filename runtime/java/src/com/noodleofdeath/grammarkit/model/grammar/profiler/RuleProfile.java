@@ -0,0 +1,51 @@
+package com.noodleofdeath.pastaparser.model.grammar.profiler;
+
+/**
+ * Specifications for the statistics a {@link GrammarProfiler} records for a
+ * single grammar rule. Lengths are measured in characters for lexer rules and
+ * in tokens for parser rules.
+ */
+public interface RuleProfile {
+
+	/** @return id of the profiled rule. */
+	public abstract String ruleId();
+
+	/**
+	 * @return <code>true</code> if the profiled rule is matched against
+	 *         characters; <code>false</code>, if against tokens.
+	 */
+	public abstract boolean lexer();
+
+	/** @return number of times the rule was attempted. */
+	public abstract long attempts();
+
+	/** @return number of attempts that matched. */
+	public abstract long matches();
+
+	/** @return number of attempts that did not match. */
+	public default long failures() {
+		return attempts() - matches();
+	}
+
+	/**
+	 * @return number of attempts at an offset the rule was already attempted
+	 *         at in the same input, which is work lost to backtracking.
+	 */
+	public abstract long repeats();
+
+	/** @return total length of all matches. */
+	public abstract long consumed();
+
+	/**
+	 * @return nanoseconds spent in attempts of the rule, including the rules
+	 *         it references.
+	 */
+	public abstract long totalTime();
+
+	/**
+	 * @return nanoseconds spent in attempts of the rule, excluding the
+	 *         profiled rules it references.
+	 */
+	public abstract long selfTime();
+
+}
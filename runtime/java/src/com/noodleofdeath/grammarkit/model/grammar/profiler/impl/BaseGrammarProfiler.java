@@ -0,0 +1,183 @@
+package com.noodleofdeath.pastaparser.model.grammar.profiler.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.noodleofdeath.pastaparser.model.grammar.profiler.GrammarProfiler;
+import com.noodleofdeath.pastaparser.model.grammar.profiler.RuleProfile;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
+
+/**
+ * Base implementation of {@link GrammarProfiler}.
+ *
+ * Rules are profiled by id. Self time is computed with a stack of the time
+ * spent in nested attempts, so an attempt is charged only for the work that is
+ * not charged to a rule it references. This profiler is not thread safe; a
+ * lexer and a parser may share it only while they run on the same thread.
+ */
+public class BaseGrammarProfiler implements GrammarProfiler {
+
+	/** Profile of a single rule. */
+	protected static class Profile implements RuleProfile {
+
+		/** Id of the profiled rule. */
+		protected final String ruleId;
+
+		/** <code>true</code> if the rule is matched against characters. */
+		protected final boolean lexer;
+
+		/** Offsets the rule was attempted at in the current input. */
+		protected final BitSet offsets = new BitSet();
+
+		/** Statistics of the rule. */
+		protected long attempts, matches, repeats, consumed, totalTime, selfTime;
+
+		/**
+		 * @param ruleId
+		 * @param lexer
+		 */
+		protected Profile(String ruleId, boolean lexer) {
+			this.ruleId = ruleId;
+			this.lexer = lexer;
+		}
+
+		@Override
+		public String ruleId() {
+			return ruleId;
+		}
+
+		@Override
+		public boolean lexer() {
+			return lexer;
+		}
+
+		@Override
+		public long attempts() {
+			return attempts;
+		}
+
+		@Override
+		public long matches() {
+			return matches;
+		}
+
+		@Override
+		public long repeats() {
+			return repeats;
+		}
+
+		@Override
+		public long consumed() {
+			return consumed;
+		}
+
+		@Override
+		public long totalTime() {
+			return totalTime;
+		}
+
+		@Override
+		public long selfTime() {
+			return selfTime;
+		}
+
+	}
+
+	/** Orders profiles by descending self time. */
+	private static final Comparator<RuleProfile> BySelfTime = new Comparator<RuleProfile>() {
+
+		@Override
+		public int compare(RuleProfile a, RuleProfile b) {
+			return Long.compare(b.selfTime(), a.selfTime());
+		}
+
+	};
+
+	/** Profiles of every attempted rule, by rule id. */
+	protected final Map<String, Profile> profiles = new LinkedHashMap<>();
+
+	/** Time spent in nested attempts, for every attempt in progress. */
+	private long[] nestedTimes = new long[64];
+
+	/** Number of attempts in progress. */
+	private int depth = 0;
+
+	@Override
+	public void didBegin(boolean lexer) {
+		for (Profile profile : profiles.values())
+			if (profile.lexer == lexer)
+				profile.offsets.clear();
+	}
+
+	@Override
+	public long willAttempt(GrammarRule rule, int offset) {
+		if (depth == nestedTimes.length)
+			nestedTimes = Arrays.copyOf(nestedTimes, depth << 1);
+		nestedTimes[depth++] = 0;
+		return System.nanoTime();
+	}
+
+	@Override
+	public void didAttempt(GrammarRule rule, int offset, long started, int length) {
+		long time = System.nanoTime() - started;
+		long nestedTime = nestedTimes[--depth];
+		if (depth > 0)
+			nestedTimes[depth - 1] += time;
+		Profile profile = profiles.get(rule.id());
+		if (profile == null)
+			profiles.put(rule.id(), profile = new Profile(rule.id(), rule.ruleType() != GrammarRuleType.ParserRule));
+		profile.attempts += 1;
+		if (profile.offsets.get(offset))
+			profile.repeats += 1;
+		else
+			profile.offsets.set(offset);
+		if (length > -1) {
+			profile.matches += 1;
+			profile.consumed += length;
+		}
+		profile.totalTime += time;
+		profile.selfTime += time - nestedTime;
+	}
+
+	@Override
+	public List<RuleProfile> profiles() {
+		List<RuleProfile> profiles = new ArrayList<RuleProfile>(this.profiles.values());
+		Collections.sort(profiles, BySelfTime);
+		return profiles;
+	}
+
+	@Override
+	public void reset() {
+		profiles.clear();
+		depth = 0;
+	}
+
+	@Override
+	public void report(Appendable out) throws IOException {
+		String format = "%-32s %5s %10s %10s %10s %10s %10s %10s %10s%n";
+		out.append(String.format(format, "rule", "kind", "attempts", "matches", "failures", "repeats", "consumed",
+				"total ms", "self ms"));
+		for (RuleProfile profile : profiles())
+			out.append(String.format(format, profile.ruleId(), profile.lexer() ? "lexer" : "parser",
+					profile.attempts(), profile.matches(), profile.failures(), profile.repeats(), profile.consumed(),
+					String.format("%.3f", profile.totalTime() / 1e6), String.format("%.3f", profile.selfTime() / 1e6)));
+	}
+
+	@Override
+	public void dump(Appendable out) throws IOException {
+		out.append("rule\tkind\tattempts\tmatches\tfailures\trepeats\tconsumed\ttotal_ns\tself_ns\n");
+		for (RuleProfile profile : profiles())
+			out.append(String.format("%s\t%s\t%d\t%d\t%d\t%d\t%d\t%d\t%d\n", profile.ruleId(),
+					profile.lexer() ? "lexer" : "parser", profile.attempts(), profile.matches(), profile.failures(),
+					profile.repeats(), profile.consumed(), profile.totalTime(), profile.selfTime()));
+	}
+
+}
@@ -1,11 +1,15 @@
 package com.noodleofdeath.pastaparser.model.grammar.rule;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
 import com.noodleofdeath.pastaparser.model.graph.GrammarTree;
 
 /**
@@ -15,6 +19,37 @@ import com.noodleofdeath.pastaparser.model.graph.GrammarTree;
  */
 public interface GrammarRule extends GrammarTree<GrammarRule>, ChildQueue {
 
+	/**
+	 * Options with the same id in every grammar, indexed by option id. Analyses
+	 * assign ids to the other options of a grammar after these.
+	 */
+	public static final List<String> ReservedOptions = Collections
+			.unmodifiableList(Arrays.asList("skip", "omit", "retokenize"));
+
+	/** Bit of the <code>skip</code> option in an option mask. */
+	public static final long SkipOption = 1L << 0;
+
+	/** Bit of the <code>omit</code> option in an option mask. */
+	public static final long OmitOption = 1L << 1;
+
+	/** Bit of the <code>retokenize</code> option in an option mask. */
+	public static final long RetokenizeOption = 1L << 2;
+
+	/**
+	 * @param options to convert.
+	 * @return bits of the {@link #ReservedOptions} among the specified options.
+	 */
+	public static long OptionMask(List<String> options) {
+		long mask = 0;
+		if (options != null)
+			for (String option : options) {
+				int id = ReservedOptions.indexOf(option);
+				if (id > -1)
+					mask |= 1L << id;
+			}
+		return mask;
+	}
+
 	/**   */
 	public default void consumeQueue() {
 		for (GrammarRule rule : queue())
@@ -49,7 +84,7 @@ public interface GrammarRule extends GrammarTree<GrammarRule>, ChildQueue {
 	
 	public List<GrammarRule> subrules(GrammarRuleType ruleType);
 	
-	public HashMap<GrammarRuleType, ArrayList<GrammarRule>> ruleMap();
+	public Map<GrammarRuleType, List<GrammarRule>> ruleMap();
 
 	/**
 	 * Gets the unique identifier of this grammar rule.
@@ -85,6 +120,48 @@ public interface GrammarRule extends GrammarTree<GrammarRule>, ChildQueue {
 	 */
 	public abstract void setValue(String value);
 
+	/**
+	 * Gets the fixed string matched by the value of this grammar rule, if its
+	 * value is a plain string that only contains escaped metacharacters. Rules
+	 * with a fixed string are matched by character comparison instead of
+	 * {@link #pattern()}.
+	 * 
+	 * @return fixed string matched by this grammar rule, or <code>null</code> if
+	 *         the value of this grammar rule is not a plain string.
+	 */
+	public abstract String literal();
+
+	/**
+	 * Sets the fixed string matched by the value of this grammar rule.
+	 * 
+	 * @param literal to set for this grammar rule.
+	 */
+	public abstract void setLiteral(String literal);
+
+	/**
+	 * Gets the compiled regular expression of the value of this grammar rule.
+	 * 
+	 * @return compiled regular expression of the value of this grammar rule.
+	 */
+	public abstract Pattern pattern();
+
+	/**
+	 * Gets the rule referenced by this grammar rule, if this grammar rule is a
+	 * reference to a lexer, fragment, or parser rule. References are resolved
+	 * once when a grammar is linked after loading.
+	 * 
+	 * @return rule referenced by this grammar rule, or <code>null</code> if this
+	 *         grammar rule is not a reference or has not been linked.
+	 */
+	public abstract GrammarRule reference();
+
+	/**
+	 * Sets the rule referenced by this grammar rule.
+	 * 
+	 * @param reference to set for this grammar rule.
+	 */
+	public abstract void setReference(GrammarRule reference);
+
 	/**
 	 * <code>true</code> if this rule is an exclusion rule; <code>false</code>,
 	 * otherwise.
@@ -143,20 +220,53 @@ public interface GrammarRule extends GrammarTree<GrammarRule>, ChildQueue {
 	 */
 	public abstract void setOptions(List<String> options);
 
+	/**
+	 * Gets the {@link #ReservedOptions} of this grammar rule as bits indexed by
+	 * option id, so the lexer, parser and engine test them without searching
+	 * {@link #options()}.
+	 * 
+	 * @return option mask of this grammar rule.
+	 */
+	public abstract long optionMask();
+
 	/**
 	 * @return
 	 */
 	public default boolean skip() {
-		return options().contains("skip");
+		return (optionMask() & SkipOption) != 0;
 	}
 
 	/**
 	 * @return
 	 */
 	public default boolean omit() {
-		return options().contains("omit");
+		return (optionMask() & OmitOption) != 0;
 	}
 
+	/**
+	 * @return <code>true</code> if the tokens of this grammar rule are tokenized
+	 *         again after parsing; <code>false</code>, otherwise.
+	 */
+	public default boolean retokenize() {
+		return (optionMask() & RetokenizeOption) != 0;
+	}
+
+	/**
+	 * Gets the dictionary this grammar rule was compiled into, if one exists.
+	 * When present, the dictionary matches exactly the words of the alternatives
+	 * of this grammar rule.
+	 * 
+	 * @return dictionary of this grammar rule, if one exists.
+	 */
+	public abstract GrammarDictionary dictionary();
+
+	/**
+	 * Sets the dictionary this grammar rule was compiled into.
+	 * 
+	 * @param dictionary to set for this grammar rule.
+	 */
+	public abstract void setDictionary(GrammarDictionary dictionary);
+
 	/** @return */
 	public abstract GrammarRuleCommand command();
 
@@ -236,13 +346,13 @@ public interface GrammarRule extends GrammarTree<GrammarRule>, ChildQueue {
 		List<GrammarRule> subrules = children();
 		subrules.sort(comparator);
 		for (GrammarRule subrule : subrules) {
-			ArrayList<GrammarRule> rules = ruleMap().get(subrule.ruleType()) != null
+			List<GrammarRule> rules = ruleMap().get(subrule.ruleType()) != null
 					? new ArrayList<>(ruleMap().get(subrule.ruleType()))
 					: new ArrayList<>();
 			rules.add(subrule);
 			ruleMap().put(subrule.ruleType(), rules);
 		}
-		for (ArrayList<GrammarRule> list : ruleMap().values())
+		for (List<GrammarRule> list : ruleMap().values())
 			list.sort(comparator);
 		return subrules;
 	}
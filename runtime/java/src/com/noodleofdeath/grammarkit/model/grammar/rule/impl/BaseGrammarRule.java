@@ -1,11 +1,13 @@
 package com.noodleofdeath.pastaparser.model.grammar.rule.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
 import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleCommand;
@@ -30,10 +32,19 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 	/** Immediate atomic value of this grammar rule. */
 	protected String value = null;
 
+	/** Fixed string matched by the value of this grammar rule, if one exists. */
+	protected String literal = null;
+
+	/** Compiled regular expression of the value of this grammar rule. */
+	protected volatile Pattern pattern = null;
+
+	/** Rule referenced by this grammar rule, if one exists. */
+	protected GrammarRule reference = null;
+
 	/**
 	 * 
 	 */
-	protected HashMap<GrammarRuleType, ArrayList<GrammarRule>> ruleMap = new LinkedHashMap<>();
+	protected Map<GrammarRuleType, List<GrammarRule>> ruleMap = new LinkedHashMap<>();
 
 	/**
 	 * <code>true</code> if this rule is an exclusion rule; <code>false</code>,
@@ -50,6 +61,12 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 	/** Option flags of this grammar rule. */
 	protected List<String> options = new ArrayList<>();
 
+	/**
+	 * Reserved options of the option flags last set on this grammar rule as an
+	 * option mask.
+	 */
+	protected long optionMask = 0;
+
 	/** Type of this grammar rule. Default is {@link GrammarRuleType#Unknown}. */
 	protected GrammarRuleType ruleType = GrammarRuleType.Unknown;
 
@@ -58,6 +75,9 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 	 */
 	protected GrammarRuleComponentType componentType = GrammarRuleComponentType.Unknown;
 
+	/** Dictionary this grammar rule was compiled into, if one exists. */
+	protected GrammarDictionary dictionary = null;
+
 	/** Command of this grammar rule, if one exists. */
 	protected GrammarRuleCommand command = null;
 
@@ -124,13 +144,24 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 
 	@Override
 	public String toString() {
+		return ToString(this);
+	}
+
+	/**
+	 * Returns the string representation of a specified grammar rule, including
+	 * its subrules and next siblings.
+	 * 
+	 * @param rule to describe.
+	 * @return string representation of the specified grammar rule.
+	 */
+	static String ToString(GrammarRule rule) {
 
 		String stringValue = "";
 
-		switch (componentType) {
+		switch (rule.componentType()) {
 
 		case Literal:
-			stringValue += String.format("'%s'%s", value, quantifier());
+			stringValue += String.format("'%s'%s", rule.value(), rule.quantifier());
 			break;
 
 		case Composite:
@@ -139,23 +170,23 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 		case LexerRule:
 		case LexerFragment:
 		default:
-			stringValue += String.format("%s%s", value, quantifier());
+			stringValue += String.format("%s%s", rule.value(), rule.quantifier());
 			break;
 
 		}
 
-		if (subrules().size() > 0) {
+		if (rule.subrules().size() > 0) {
 			List<String> strings = new ArrayList<>();
-			for (GrammarRule subrule : subrules())
+			for (GrammarRule subrule : rule.subrules())
 				strings.add(subrule.toString());
-			stringValue += String.format(" (%s)%s", String.join(" | ", strings), quantifier());
+			stringValue += String.format(" (%s)%s", String.join(" | ", strings), rule.quantifier());
 		}
 
-		if (next() != null)
-			stringValue += String.format(" %s", next());
-		if (command != null)
-			stringValue += String.format(" -> %s", command);
-		if (inverted())
+		if (rule.next() != null)
+			stringValue += String.format(" %s", rule.next());
+		if (rule.command() != null)
+			stringValue += String.format(" -> %s", rule.command());
+		if (rule.inverted())
 			stringValue = String.format("~%s", stringValue);
 
 		return stringValue.trim();
@@ -168,7 +199,7 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 	}
 
 	@Override
-	public HashMap<GrammarRuleType, ArrayList<GrammarRule>> ruleMap() {
+	public Map<GrammarRuleType, List<GrammarRule>> ruleMap() {
 		return ruleMap;
 	}
 
@@ -215,6 +246,35 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 	@Override
 	public void setValue(String value) {
 		this.value = value;
+		this.pattern = null;
+	}
+
+	@Override
+	public String literal() {
+		return literal;
+	}
+
+	@Override
+	public void setLiteral(String literal) {
+		this.literal = literal;
+	}
+
+	@Override
+	public Pattern pattern() {
+		Pattern pattern = this.pattern;
+		if (pattern == null)
+			this.pattern = pattern = Pattern.compile(value);
+		return pattern;
+	}
+
+	@Override
+	public GrammarRule reference() {
+		return reference;
+	}
+
+	@Override
+	public void setReference(GrammarRule reference) {
+		this.reference = reference;
 	}
 
 	@Override
@@ -275,6 +335,22 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 	@Override
 	public void setOptions(List<String> options) {
 		this.options = options;
+		optionMask = GrammarRule.OptionMask(options);
+	}
+
+	@Override
+	public long optionMask() {
+		return optionMask;
+	}
+
+	@Override
+	public GrammarDictionary dictionary() {
+		return dictionary;
+	}
+
+	@Override
+	public void setDictionary(GrammarDictionary dictionary) {
+		this.dictionary = dictionary;
 	}
 
 	@Override
@@ -304,7 +380,8 @@ public class BaseGrammarRule extends AbstractGrammarTree<GrammarRule> implements
 
 	@Override
 	public void setNext(GrammarRule next) {
-		next.setPrev(this);
+		if (next != null)
+			next.setPrev(this);
 		this.next = next;
 	}
 
@@ -0,0 +1,446 @@
+package com.noodleofdeath.pastaparser.model.grammar.rule.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.noodleofdeath.pastaparser.Quantifier;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.impl.FrozenGrammarDictionary;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRule;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleCommand;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleComponentType;
+import com.noodleofdeath.pastaparser.model.grammar.rule.GrammarRuleType;
+
+/**
+ * Immutable implementation of {@link GrammarRule} created by
+ * {@link Grammar#freeze()}. Every field is final and every list is an
+ * unmodifiable copy, so a frozen rule graph published through the final fields
+ * of its frozen grammar is safe to read from any thread. Mutators throw
+ * {@link UnsupportedOperationException}.
+ */
+public final class FrozenGrammarRule implements GrammarRule {
+
+	/** Parent grammar associated with this grammar rule. */
+	private final Grammar grammar;
+
+	/** Unique identifier for this grammar rule. */
+	private final String id;
+
+	/** Immediate atomic value of this grammar rule. */
+	private final String value;
+
+	/** Fixed string matched by the value of this grammar rule, if one exists. */
+	private final String literal;
+
+	/** Precompiled regular expression of the value of this grammar rule. */
+	private final Pattern pattern;
+
+	/** Rule referenced by this grammar rule, if one exists. */
+	private final GrammarRule reference;
+
+	/** Subrules of this grammar rule grouped by rule type. */
+	private final Map<GrammarRuleType, List<GrammarRule>> ruleMap;
+
+	/** Children of this grammar rule. */
+	private final List<GrammarRule> children;
+
+	/**
+	 * <code>true</code> if this rule is an exclusion rule; <code>false</code>,
+	 * otherwise.
+	 */
+	private final boolean inverted;
+
+	/** Order of this grammar rule. */
+	private final int order;
+
+	/** Categories associated with this grammar rule. */
+	private final List<String> categories;
+
+	/** Option flags of this grammar rule. */
+	private final List<String> options;
+
+	/** Reserved options of this grammar rule as an option mask. */
+	private final long optionMask;
+
+	/** Type of this grammar rule. */
+	private final GrammarRuleType ruleType;
+
+	/** Component type of this grammar rule. */
+	private final GrammarRuleComponentType componentType;
+
+	/** Quantifier of this grammar rule. */
+	private final Quantifier quantifier;
+
+	/** Dictionary this grammar rule was compiled into, if one exists. */
+	private final GrammarDictionary dictionary;
+
+	/** Command of this grammar rule, if one exists. */
+	private final GrammarRuleCommand command;
+
+	/** Parent of this grammar rule, if one exists. */
+	private final GrammarRule parent;
+
+	/** Root ancestor of this grammar rule, if one exists. */
+	private final GrammarRule rootAncestor;
+
+	/** Previous sibling of this grammar rule, if one exists. */
+	private final GrammarRule prev;
+
+	/** Next sibling of this grammar rule, if one exists. */
+	private final GrammarRule next;
+
+	/**
+	 * Constructs a frozen copy of a specified grammar rule and, recursively, of
+	 * every rule it links to.
+	 *
+	 * @param rule    to copy.
+	 * @param grammar to set as the parent grammar of the copy.
+	 * @param copies  of the rules copied so far, keyed by their originals.
+	 */
+	private FrozenGrammarRule(GrammarRule rule, Grammar grammar, Map<GrammarRule, GrammarRule> copies) {
+
+		copies.put(rule, this);
+
+		this.grammar = grammar;
+		id = rule.id();
+		value = rule.value();
+		literal = rule.literal();
+		inverted = rule.inverted();
+		order = rule.order();
+		ruleType = rule.ruleType();
+		componentType = rule.componentType();
+		quantifier = rule.quantifier();
+		command = rule.command();
+		categories = rule.categories() != null ? Collections.unmodifiableList(new ArrayList<>(rule.categories()))
+				: Collections.emptyList();
+		options = rule.options() != null ? Collections.unmodifiableList(new ArrayList<>(rule.options()))
+				: Collections.emptyList();
+		optionMask = GrammarRule.OptionMask(options);
+		dictionary = rule.dictionary() != null ? new FrozenGrammarDictionary(rule.dictionary()) : null;
+		pattern = Compile(rule);
+
+		parent = Freeze(rule.parent(), grammar, copies);
+		rootAncestor = Freeze(rule.rootAncestor(), grammar, copies);
+		prev = Freeze(rule.prev(), grammar, copies);
+		next = Freeze(rule.next(), grammar, copies);
+		reference = Freeze(rule.reference(), grammar, copies);
+
+		List<GrammarRule> children = new ArrayList<>();
+		for (GrammarRule child : rule.children())
+			children.add(Freeze(child, grammar, copies));
+		this.children = Collections.unmodifiableList(children);
+
+		Map<GrammarRuleType, List<GrammarRule>> ruleMap = new EnumMap<>(GrammarRuleType.class);
+		for (GrammarRuleType type : GrammarRuleType.values()) {
+			List<GrammarRule> rules = new ArrayList<>();
+			if (rule.subrules(type) != null)
+				for (GrammarRule subrule : rule.subrules(type))
+					rules.add(Freeze(subrule, grammar, copies));
+			ruleMap.put(type, Collections.unmodifiableList(rules));
+		}
+		this.ruleMap = Collections.unmodifiableMap(ruleMap);
+
+	}
+
+	/**
+	 * Returns the frozen copy of a specified grammar rule, creating it if it has
+	 * not been copied yet.
+	 *
+	 * @param rule    to copy.
+	 * @param grammar to set as the parent grammar of the copy.
+	 * @param copies  of the rules copied so far, keyed by their originals. Should
+	 *                be an identity map shared by every rule of the grammar.
+	 * @return the frozen copy of the specified grammar rule, or
+	 *         <code>null</code> if the rule is <code>null</code>.
+	 */
+	public static GrammarRule Freeze(GrammarRule rule, Grammar grammar, Map<GrammarRule, GrammarRule> copies) {
+		if (rule == null)
+			return null;
+		GrammarRule copy = copies.get(rule);
+		return copy != null ? copy : new FrozenGrammarRule(rule, grammar, copies);
+	}
+
+	/**
+	 * @param rule
+	 * @return compiled pattern of the value of the specified rule, or
+	 *         <code>null</code> if the rule does not match a regular expression.
+	 */
+	private static Pattern Compile(GrammarRule rule) {
+		if (rule.value() == null || rule.literal() != null || !(rule.componentType() == GrammarRuleComponentType.Literal
+				|| rule.componentType() == GrammarRuleComponentType.Expression))
+			return null;
+		try {
+			return rule.pattern();
+		} catch (PatternSyntaxException e) {
+			return null;
+		}
+	}
+
+	/** @return exception thrown by every mutator of a frozen grammar rule. */
+	private static UnsupportedOperationException Frozen() {
+		return new UnsupportedOperationException("Cannot modify a frozen grammar rule");
+	}
+
+	@Override
+	public String toString() {
+		return BaseGrammarRule.ToString(this);
+	}
+
+	@Override
+	public GrammarRule parent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(GrammarRule parent) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRule rootAncestor() {
+		return rootAncestor;
+	}
+
+	@Override
+	public void setRootAncestor(GrammarRule rootAncestor) {
+		throw Frozen();
+	}
+
+	@Override
+	public List<GrammarRule> children() {
+		return children;
+	}
+
+	@Override
+	public boolean addChild(GrammarRule child) {
+		throw Frozen();
+	}
+
+	@Override
+	public void addChild(int index, GrammarRule child) {
+		throw Frozen();
+	}
+
+	@Override
+	public void setChildren(List<GrammarRule> children) {
+		throw Frozen();
+	}
+
+	@Override
+	public boolean removeChild(GrammarRule child) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRule removeChild(int index) {
+		throw Frozen();
+	}
+
+	@Override
+	public Quantifier quantifier() {
+		return quantifier;
+	}
+
+	@Override
+	public void setQuantifier(Quantifier quantifier) {
+		throw Frozen();
+	}
+
+	@Override
+	public boolean enqueue(GrammarRule rule) {
+		throw Frozen();
+	}
+
+	@Override
+	public List<GrammarRule> queue() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void clearQueue() {
+
+	}
+
+	@Override
+	public List<GrammarRule> sortSubrules(Comparator<GrammarRule> comparator) {
+		throw Frozen();
+	}
+
+	@Override
+	public List<GrammarRule> subrules(GrammarRuleType ruleType) {
+		return ruleMap.get(ruleType);
+	}
+
+	@Override
+	public Map<GrammarRuleType, List<GrammarRule>> ruleMap() {
+		return ruleMap;
+	}
+
+	@Override
+	public Grammar grammar() {
+		return grammar;
+	}
+
+	@Override
+	public void setGrammar(Grammar grammar) {
+		throw Frozen();
+	}
+
+	@Override
+	public String id() {
+		return id;
+	}
+
+	@Override
+	public void setId(String id) {
+		throw Frozen();
+	}
+
+	@Override
+	public String value() {
+		return value;
+	}
+
+	@Override
+	public void setValue(String value) {
+		throw Frozen();
+	}
+
+	@Override
+	public String literal() {
+		return literal;
+	}
+
+	@Override
+	public void setLiteral(String literal) {
+		throw Frozen();
+	}
+
+	@Override
+	public Pattern pattern() {
+		return pattern != null ? pattern : Pattern.compile(value);
+	}
+
+	@Override
+	public GrammarRule reference() {
+		return reference;
+	}
+
+	@Override
+	public void setReference(GrammarRule reference) {
+		throw Frozen();
+	}
+
+	@Override
+	public boolean inverted() {
+		return inverted;
+	}
+
+	@Override
+	public void setInverted(boolean inverted) {
+		throw Frozen();
+	}
+
+	@Override
+	public int order() {
+		return order;
+	}
+
+	@Override
+	public void setOrder(int order) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRuleType ruleType() {
+		return ruleType;
+	}
+
+	@Override
+	public void setRuleType(GrammarRuleType ruleType) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRuleComponentType componentType() {
+		return componentType;
+	}
+
+	@Override
+	public void setRuleComponentType(GrammarRuleComponentType componentType) {
+		throw Frozen();
+	}
+
+	@Override
+	public List<String> categories() {
+		return categories;
+	}
+
+	@Override
+	public void setCategories(List<String> categories) {
+		throw Frozen();
+	}
+
+	@Override
+	public List<String> options() {
+		return options;
+	}
+
+	@Override
+	public void setOptions(List<String> options) {
+		throw Frozen();
+	}
+
+	@Override
+	public long optionMask() {
+		return optionMask;
+	}
+
+	@Override
+	public GrammarDictionary dictionary() {
+		return dictionary;
+	}
+
+	@Override
+	public void setDictionary(GrammarDictionary dictionary) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRuleCommand command() {
+		return command;
+	}
+
+	@Override
+	public void setCommand(GrammarRuleCommand command) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRule prev() {
+		return prev;
+	}
+
+	@Override
+	public void setPrev(GrammarRule prev) {
+		throw Frozen();
+	}
+
+	@Override
+	public GrammarRule next() {
+		return next;
+	}
+
+	@Override
+	public void setNext(GrammarRule next) {
+		throw Frozen();
+	}
+
+}
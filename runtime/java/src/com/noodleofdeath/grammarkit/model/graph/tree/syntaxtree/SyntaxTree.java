@@ -74,6 +74,16 @@ public interface SyntaxTree<R> extends RootedTree<SyntaxTree<R>> {
 	 */
 	public abstract boolean addTokens(List<R> tokens);
 
+	/**
+	 * Appends the tokens of a subtree to this tree.
+	 * 
+	 * @param subtree whose tokens to append.
+	 * @return
+	 */
+	public default boolean addTokens(SyntaxTree<R> subtree) {
+		return addTokens(subtree.tokens());
+	}
+
 	/**
 	 * 
 	 */
@@ -12,16 +12,23 @@ public class TextLexerSyntaxTree extends AbstractSyntaxTree<TextToken>
 		implements LexerSyntaxTree<String, TextToken> {
 
 	/**
-	 * 
+	 * Concatenated values of the tokens of this syntax tree. Appending to a
+	 * builder keeps a tree of many single character tokens linear in its length.
 	 */
-	protected String value = "";
+	protected final StringBuilder value = new StringBuilder();
 
 	@Override
 	public boolean addToken(TextToken token) {
-		value += token.value();
+		value.append(token.value());
 		return super.addToken(token);
 	}
 
+	@Override
+	public void clearTokens() {
+		value.setLength(0);
+		super.clearTokens();
+	}
+
 	@Override
 	public int length() {
 		return value.length();
@@ -32,14 +39,14 @@ public class TextLexerSyntaxTree extends AbstractSyntaxTree<TextToken>
 	 */
 	@Override
 	public String value() {
-		return value;
+		return tokens.size() == 1 ? tokens.get(0).value() : value.toString();
 	}
 
 	@Override
 	public TextToken generateToken() {
 		if (tokens.size() < 1)
 			return null;
-		return new BaseTextToken(rule(), value, tokens.get(0).start(), tokens.get(tokens.size() - 1).end());
+		return new BaseTextToken(rule(), value(), tokens.get(0).start(), tokens.get(tokens.size() - 1).end());
 	}
 
 }
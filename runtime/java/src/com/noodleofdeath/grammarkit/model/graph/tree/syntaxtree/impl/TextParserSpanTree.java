@@ -0,0 +1,57 @@
+package com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.impl;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.SyntaxTree;
+
+/**
+ * Parser syntax tree that only counts the tokens it spans. Parsers use it to
+ * match rules no listener observes, so they can advance past the match without
+ * collecting its tokens.
+ */
+public class TextParserSpanTree extends TextParserSyntaxTree {
+
+	/** Number of tokens spanned by this tree. */
+	protected int tokenCount = 0;
+
+	@Override
+	public List<TextToken> tokens() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public boolean addToken(TextToken token) {
+		++tokenCount;
+		return true;
+	}
+
+	@Override
+	public boolean addTokens(List<TextToken> tokens) {
+		tokenCount += tokens.size();
+		return true;
+	}
+
+	@Override
+	public boolean addTokens(SyntaxTree<TextToken> subtree) {
+		tokenCount += subtree.tokenCount();
+		return true;
+	}
+
+	@Override
+	public void clearTokens() {
+		tokenCount = 0;
+	}
+
+	@Override
+	public int tokenCount() {
+		return tokenCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: span {%d}", rule != null ? rule.id() : "No Match", tokenCount());
+	}
+
+}
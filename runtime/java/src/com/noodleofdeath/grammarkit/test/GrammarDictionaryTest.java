@@ -0,0 +1,55 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.GrammarDictionary;
+import com.noodleofdeath.pastaparser.model.grammar.dictionary.impl.BaseGrammarDictionary;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+
+/**
+ * Test of {@link BaseGrammarDictionary} and of dictionary parser rules.
+ *
+ * The fixtures <code>dictionary</code> and <code>dictionary-literal</code> of
+ * <code>test/grammars</code> define the same parser rule once as a dictionary
+ * and once as alternatives of literals, which must match the same tokens.
+ */
+public class GrammarDictionaryTest {
+
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	@Test
+	public void testLookup() {
+		GrammarDictionary dictionary = new BaseGrammarDictionary(Arrays.asList("let", "letter", "var"));
+		assertTrue(dictionary.contains("let"));
+		assertFalse(dictionary.contains("le"));
+		assertFalse(dictionary.contains("lets"));
+		assertTrue(dictionary.containsPrefixOf("let"));
+		assertTrue(dictionary.containsPrefixOf("lets"));
+		assertFalse(dictionary.containsPrefixOf("le"));
+		assertFalse(dictionary.containsPrefixOf("x"));
+		assertEquals("letter", dictionary.match("letter x", 0));
+		assertNull(dictionary.match("lets", 0));
+	}
+
+	@Test
+	public void testDictionaryMatchesLikeLiterals() {
+		String input = "let x; var y; letter z; variable w; lex v; set u;";
+		String expected = "[declaration let x ;, declaration var y ;, declaration letter z ;, declaration variable w ;]";
+		for (String grammarId : new String[] { "dictionary", "dictionary-literal" }) {
+			Grammar grammar = new BaseGrammarLoader(FIXTURES_DIRECTORY).load(grammarId);
+			assertNotNull(grammar);
+			assertEquals(grammarId, grammarId.equals("dictionary"), grammar.rule("keyword").dictionary() != null);
+			assertEquals(grammarId, expected, QuantifierTest.SyntaxTrees(grammar.freeze(), input).toString());
+		}
+	}
+
+}
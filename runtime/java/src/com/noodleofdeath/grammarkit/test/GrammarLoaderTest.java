@@ -0,0 +1,72 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarAnalysis;
+import com.noodleofdeath.pastaparser.model.grammar.analysis.GrammarRecursion;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+
+/**
+ * Test of the warnings of {@link BaseGrammarLoader}.
+ *
+ * The fixture <code>dangling</code> of <code>test/grammars</code> references
+ * an undefined rule, and <code>dangling-child</code> extends it. The fixture
+ * <code>recursion</code> has a right, a center, a left and a non recursive
+ * rule, of which only the left recursive rule is warned about.
+ */
+public class GrammarLoaderTest {
+
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	@Test
+	public void testUndefinedReference() {
+		BaseGrammarLoader loader = new BaseGrammarLoader(FIXTURES_DIRECTORY);
+		assertNull(loader.load("dangling"));
+		List<String> warnings = loader.warnings();
+		assertEquals(warnings.toString(), 1, warnings.size());
+		assertTrue(warnings.get(0), warnings.get(0).startsWith("Cannot load grammar \"dangling\"."));
+		assertTrue(warnings.get(0), warnings.get(0).contains("-> NAME"));
+	}
+
+	@Test
+	public void testUndefinedParentReference() {
+		BaseGrammarLoader loader = new BaseGrammarLoader(FIXTURES_DIRECTORY);
+		assertNull(loader.load("dangling-child"));
+		List<String> warnings = loader.warnings();
+		assertEquals(warnings.toString(), 2, warnings.size());
+		assertTrue(warnings.get(0), warnings.get(0).contains("-> NAME"));
+		assertEquals("Cannot load grammar \"dangling-child\". Cannot load parent grammar \"dangling\".",
+				warnings.get(1));
+	}
+
+	@Test
+	public void testRecursion() {
+		BaseGrammarLoader loader = new BaseGrammarLoader(FIXTURES_DIRECTORY);
+		Grammar grammar = loader.load("recursion");
+		assertNotNull(grammar);
+		grammar = grammar.freeze();
+
+		GrammarAnalysis analysis = grammar.analysis();
+		assertEquals(GrammarRecursion.Right, analysis.recursion(grammar.rule("list")));
+		assertEquals(GrammarRecursion.Center, analysis.recursion(grammar.rule("group")));
+		assertEquals(GrammarRecursion.Left, analysis.recursion(grammar.rule("sum")));
+		assertEquals(GrammarRecursion.None, analysis.recursion(grammar.rule("pair")));
+
+		List<String> warnings = loader.warnings();
+		assertEquals(warnings.toString(), 1, warnings.size());
+		assertTrue(warnings.get(0), warnings.get(0).startsWith("Encountered a left recursive rule \"sum\""));
+
+		// Right and center recursive rules match.
+		assertEquals("[list a , b , c, group ( ( a ) ), pair ( a , b )]",
+				QuantifierTest.SyntaxTrees(grammar, "a, b, c ((a)) (a, b)").toString());
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.engine.impl.BaseTextSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+import com.noodleofdeath.pastaparser.model.grammar.optimizer.GrammarOptimizer;
+import com.noodleofdeath.pastaparser.model.grammar.optimizer.impl.BaseGrammarOptimizer;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Equivalence test of {@link BaseGrammarOptimizer}.
+ *
+ * Every grammar is loaded once with and once without the optimizer, and both
+ * are used to process the samples, an input generated from them and random
+ * sequences of fragments of the optimizer fixture, which are mostly not well
+ * formed. The optimized grammar must generate the same tokens, top level
+ * syntax trees and skipped tokens as the unoptimized grammar.
+ *
+ * The fixture <code>optimizer</code> of <code>test/grammars</code> has rules
+ * that each rewrite of the optimizer applies to, so it must rewrite some of
+ * them. A test whose grammar cannot be loaded is skipped.
+ */
+public class GrammarOptimizerTest {
+
+	private static String SAMPLES_DIRECTORY = System.getProperty("pastaparser.samples", "../../samples");
+	private static String GRAMMARS_DIRECTORY = System.getProperty("pastaparser.grammars", "../../grammars");
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	/** Fewest characters of the input generated from the samples. */
+	public static final int GeneratedLength = 1 << 16;
+
+	/** Number of random inputs processed with every grammar. */
+	public static final int RandomInputs = 64;
+
+	/** Seed of the generated and random inputs. */
+	public static final long Seed = 42L;
+
+	/** Fragments random inputs are composed of. */
+	private static final String[] Fragments = { "let", "var", "return", "x", "self", "value_1", "0x1f", "0x", "12",
+			"7", "->", "-", ">", "...", "..<", "..", "=", "(", ")", "[", "]", "{", "}", ",", ":", ";", ".", "\"",
+			"//", " ", " ", "\n", "\t" };
+
+	@Test
+	public void testOptimizer() throws IOException {
+		testEquivalence("optimizer", 1);
+	}
+
+	@Test
+	public void testSwift() throws IOException {
+		testEquivalence("public.swift-source", 0, "Sample.swift");
+	}
+
+	@Test
+	public void testJava() throws IOException {
+		testEquivalence("com.sun.java-source", 0, "Sample.java");
+	}
+
+	@Test
+	public void testMarkup() throws IOException {
+		testEquivalence("public.html", 0, "Sample.html", "Sample.xml");
+	}
+
+	@Test
+	public void testText() throws IOException {
+		testEquivalence("public.text", 0, "Sample.html", "Sample.java", "Sample.swift", "Sample.xml");
+	}
+
+	/**
+	 * Loads a grammar with and without the optimizer and asserts both process
+	 * the samples, an input generated from them and random inputs alike.
+	 *
+	 * @param grammarId   id of the grammar to load.
+	 * @param minRewrites fewest rules the optimizer must rewrite.
+	 * @param samples     file names of the samples to process.
+	 * @throws IOException if a sample cannot be read.
+	 */
+	protected static void testEquivalence(String grammarId, int minRewrites, String... samples) throws IOException {
+
+		BaseGrammarLoader loader = new BaseGrammarLoader(FIXTURES_DIRECTORY, GRAMMARS_DIRECTORY);
+		final BaseGrammarOptimizer optimizer = new BaseGrammarOptimizer(loader);
+		final int[] rewrites = { 0 };
+		loader.setOptimizer(new GrammarOptimizer() {
+
+			@Override
+			public int optimize(Grammar grammar) {
+				return rewrites[0] = optimizer.optimize(grammar);
+			}
+
+		});
+		Grammar optimized = loader.load(grammarId);
+		assumeTrue(String.format("Could not load grammar \"%s\"", grammarId), optimized != null);
+
+		loader = new BaseGrammarLoader(FIXTURES_DIRECTORY, GRAMMARS_DIRECTORY);
+		loader.setOptimizer(null);
+		Grammar unoptimized = loader.load(grammarId);
+		assumeTrue(String.format("Could not load grammar \"%s\"", grammarId), unoptimized != null);
+
+		optimized = optimized.freeze();
+		unoptimized = unoptimized.freeze();
+		assertTrue(String.format("%s: %d rules rewritten, fewer than %d", grammarId, rewrites[0], minRewrites),
+				rewrites[0] >= minRewrites);
+
+		List<String> texts = new ArrayList<>();
+		for (String sample : samples)
+			texts.add(new String(Files.readAllBytes(Paths.get(SAMPLES_DIRECTORY, sample)), StandardCharsets.UTF_8));
+
+		List<String> inputs = new ArrayList<>(texts);
+		if (!texts.isEmpty())
+			inputs.add(ThroughputRegressionTest.GenerateInput(texts, GeneratedLength, Seed));
+		Random random = new Random(Seed);
+		for (int i = 0; i < RandomInputs; ++i)
+			inputs.add(RandomInput(random, 1 + random.nextInt(256)));
+
+		for (int i = 0; i < inputs.size(); ++i) {
+			String input = inputs.get(i);
+			assertEquals(String.format("%s: input %d \"%s\"", grammarId, i, i < texts.size() ? samples[i] : input),
+					Process(unoptimized, input), Process(optimized, input));
+		}
+
+	}
+
+	/**
+	 * Processes an input with a specified grammar.
+	 *
+	 * @param grammar to process the input with.
+	 * @param input   to process.
+	 * @return description of the tokens, top level syntax trees and skipped
+	 *         tokens generated for the input, one per line.
+	 */
+	protected static String Process(Grammar grammar, String input) {
+		final StringBuilder description = new StringBuilder();
+		BaseTextSyntaxEngine engine = new BaseTextSyntaxEngine(grammar) {
+
+			@Override
+			public void didGenerateSyntaxTree(Parser<String, TextToken> parser,
+					ParserSyntaxTree<TextToken> syntaxTree) {
+				super.didGenerateSyntaxTree(parser, syntaxTree);
+				description.append("tree ").append(syntaxTree).append('\n');
+			}
+
+			@Override
+			public void didSkipToken(Parser<String, TextToken> parser, TextToken token) {
+				super.didSkipToken(parser, token);
+				description.append("skipped ").append(token).append('\n');
+			}
+
+		};
+		TokenStream<String, TextToken> tokenStream = engine.tokenize(input);
+		for (int i = 0; i < tokenStream.length(); ++i)
+			description.append("token ").append(tokenStream.get(i)).append('\n');
+		engine.process(input);
+		return description.toString();
+	}
+
+	/**
+	 * @param random to choose fragments with.
+	 * @param count  number of fragments.
+	 * @return random sequence of fragments.
+	 */
+	protected static String RandomInput(Random random, int count) {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < count; ++i)
+			input.append(Fragments[random.nextInt(Fragments.length)]);
+		return input.toString();
+	}
+
+}
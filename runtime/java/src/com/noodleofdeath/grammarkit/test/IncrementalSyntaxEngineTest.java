@@ -0,0 +1,223 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.noodleofdeath.pastaparser.io.TextEdit;
+import com.noodleofdeath.pastaparser.io.engine.IncrementalSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.engine.impl.BaseTextIncrementalSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.impl.RopeTextDocument;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.IncrementalParserListener;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Edit sequence test of {@link BaseTextIncrementalSyntaxEngine}.
+ *
+ * A sample is processed once and then edited randomly, either with
+ * {@link IncrementalSyntaxEngine#edit(TextEdit)} on a string or by editing a
+ * {@link RopeTextDocument} and calling
+ * {@link IncrementalSyntaxEngine#update(com.noodleofdeath.pastaparser.io.TextDocument)}.
+ * After every edit, the tokens and syntax trees of the engine must equal those
+ * of a new engine that processes the edited text from scratch, and the syntax
+ * trees its listener was notified of adding and not removing must be its
+ * syntax trees. Edits insert fragments of the optimizer fixture or copy text
+ * from elsewhere in the sample, and delete small and large ranges.
+ *
+ * A test whose grammar cannot be loaded is skipped.
+ */
+public class IncrementalSyntaxEngineTest {
+
+	private static String SAMPLES_DIRECTORY = System.getProperty("pastaparser.samples", "../../samples");
+	private static String GRAMMARS_DIRECTORY = System.getProperty("pastaparser.grammars", "../../grammars");
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	/** Number of edits applied to every sample. */
+	public static final int Edits = Integer.getInteger("pastaparser.incremental.edits", 200);
+
+	/** Most edits applied to a document before it is updated. */
+	public static final int MaxPendingEdits = 4;
+
+	/** Seed of the edits. */
+	public static final long Seed = 7L;
+
+	/** Syntax trees added to and not removed from an engine. */
+	protected static class LiveSyntaxTrees implements IncrementalParserListener<String, TextToken> {
+
+		/** Syntax trees added and not removed, by identity. */
+		protected final Set<ParserSyntaxTree<TextToken>> syntaxTrees = Collections
+				.newSetFromMap(new IdentityHashMap<ParserSyntaxTree<TextToken>, Boolean>());
+
+		@Override
+		public void didAddSyntaxTree(IncrementalSyntaxEngine<String, TextToken> engine,
+				ParserSyntaxTree<TextToken> syntaxTree) {
+			assertTrue(String.format("%s was added twice", syntaxTree), syntaxTrees.add(syntaxTree));
+		}
+
+		@Override
+		public void didRemoveSyntaxTree(IncrementalSyntaxEngine<String, TextToken> engine,
+				ParserSyntaxTree<TextToken> syntaxTree) {
+			assertTrue(String.format("%s was removed but not added", syntaxTree), syntaxTrees.remove(syntaxTree));
+		}
+
+		/**
+		 * @param engine whose syntax trees to compare.
+		 * @return <code>true</code> if the syntax trees added and not removed are
+		 *         the syntax trees of the specified engine.
+		 */
+		protected boolean matches(IncrementalSyntaxEngine<String, TextToken> engine) {
+			if (syntaxTrees.size() != engine.syntaxTrees().size())
+				return false;
+			for (ParserSyntaxTree<TextToken> syntaxTree : engine.syntaxTrees())
+				if (!syntaxTrees.contains(syntaxTree))
+					return false;
+			return true;
+		}
+
+	}
+
+	@Test
+	public void testOptimizer() throws IOException {
+		testEdits("optimizer", GrammarOptimizerTest.RandomInput(new Random(Seed), 512));
+	}
+
+	@Test
+	public void testSwift() throws IOException {
+		testEdits("public.swift-source", Sample("Sample.swift"));
+	}
+
+	@Test
+	public void testJava() throws IOException {
+		testEdits("com.sun.java-source", Sample("Sample.java"));
+	}
+
+	@Test
+	public void testMarkup() throws IOException {
+		testEdits("public.html", Sample("Sample.html"));
+	}
+
+	@Test
+	public void testText() throws IOException {
+		testEdits("public.text", Sample("Sample.java"));
+	}
+
+	/**
+	 * Applies random edits to a text with a specified grammar, both as a string
+	 * and as a document, and asserts the engine matches a new engine after
+	 * every edit.
+	 *
+	 * @param grammarId id of the grammar to load.
+	 * @param text      to edit.
+	 */
+	protected static void testEdits(String grammarId, String text) {
+
+		Grammar grammar = new BaseGrammarLoader(FIXTURES_DIRECTORY, GRAMMARS_DIRECTORY).load(grammarId);
+		assumeTrue(String.format("Could not load grammar \"%s\"", grammarId), grammar != null);
+		grammar = grammar.freeze();
+
+		Random random = new Random(Seed);
+		BaseTextIncrementalSyntaxEngine engine = new BaseTextIncrementalSyntaxEngine(grammar);
+		LiveSyntaxTrees listener = new LiveSyntaxTrees();
+		engine.addGrammarEventListener(listener);
+		engine.process(text);
+		assertEquivalent(String.format("%s: processed", grammarId), grammar, engine, listener);
+		for (int i = 0; i < Edits; ++i) {
+			TextEdit edit = RandomEdit(random, engine.characterStream());
+			engine.edit(edit);
+			assertEquivalent(String.format("%s: string edit %d %s", grammarId, i, edit), grammar, engine, listener);
+		}
+
+		engine = new BaseTextIncrementalSyntaxEngine(grammar);
+		listener = new LiveSyntaxTrees();
+		engine.addGrammarEventListener(listener);
+		RopeTextDocument document = new RopeTextDocument(text);
+		engine.process(document);
+		assertEquivalent(String.format("%s: processed document", grammarId), grammar, engine, listener);
+		for (int i = 0; i < Edits; ++i) {
+			int count = 1 + random.nextInt(MaxPendingEdits);
+			List<TextEdit> edits = new ArrayList<>();
+			for (int j = 0; j < count; ++j) {
+				TextEdit edit = RandomEdit(random, document);
+				edits.add(edit);
+				if (j == 0 && random.nextInt(4) == 0)
+					engine.edit(edit);
+				else
+					document.apply(edit);
+			}
+			engine.update(document);
+			String label = String.format("%s: document edit %d %s", grammarId, i, edits);
+			assertTrue(label + " detached the document", engine.characterStream() == document);
+			assertTrue(label + " did not clear the edits of the document", document.edits().isEmpty());
+			assertEquivalent(label, grammar, engine, listener);
+		}
+
+	}
+
+	/**
+	 * Asserts an engine has the tokens and syntax trees of a new engine that
+	 * processes its character stream, and that a listener was notified of its
+	 * syntax trees.
+	 *
+	 * @param label    of the assertion.
+	 * @param grammar  of the engine.
+	 * @param engine   to check.
+	 * @param listener of the engine.
+	 */
+	protected static void assertEquivalent(String label, Grammar grammar,
+			IncrementalSyntaxEngine<String, TextToken> engine, LiveSyntaxTrees listener) {
+		BaseTextIncrementalSyntaxEngine expected = new BaseTextIncrementalSyntaxEngine(grammar);
+		expected.process(engine.characterStream().toString());
+		assertEquals(label + " tokens", expected.tokens().toString(), engine.tokens().toString());
+		assertEquals(label + " syntax trees", expected.syntaxTrees().toString(), engine.syntaxTrees().toString());
+		assertTrue(label + " notified other syntax trees", listener.matches(engine));
+	}
+
+	/**
+	 * Generates a random edit of a character stream that deletes a small or,
+	 * rarely, a large range, and inserts either fragments of the optimizer
+	 * fixture or a copy of text from elsewhere in the stream.
+	 *
+	 * @param random          to generate the edit with.
+	 * @param characterStream to edit.
+	 * @return random edit of <code>characterStream</code>.
+	 */
+	protected static TextEdit RandomEdit(Random random, CharSequence characterStream) {
+		int length = characterStream.length();
+		int start = random.nextInt(length + 1);
+		int end = Math.min(length, start + (random.nextInt(16) == 0 ? random.nextInt(256) : random.nextInt(8)));
+		String text;
+		if (random.nextInt(3) > 0 || length == 0)
+			text = GrammarOptimizerTest.RandomInput(random, random.nextInt(4));
+		else {
+			int offset = random.nextInt(length);
+			text = characterStream.subSequence(offset, Math.min(length, offset + random.nextInt(32))).toString();
+		}
+		return new TextEdit(start, end, text);
+	}
+
+	/**
+	 * @param sample file name of the sample to read.
+	 * @return text of the specified sample.
+	 * @throws IOException if the sample cannot be read.
+	 */
+	protected static String Sample(String sample) throws IOException {
+		return new String(Files.readAllBytes(Paths.get(SAMPLES_DIRECTORY, sample)), StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.noodleofdeath.pastaparser.io.engine.impl.BaseTextSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.impl.PipedTokenStream;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.io.token.impl.BaseTextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Test of {@link PipedTokenStream} and of
+ * {@link BaseTextSyntaxEngine#processPipelined(CharSequence, int)} with a
+ * capacity smaller than the lookahead of the parser.
+ */
+public class PipedTokenStreamTest {
+
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	/** Number of tokens added by the producers of the tests. */
+	public static final int Tokens = 1000;
+
+	@Test(timeout = 10000)
+	public void testLookaheadBeyondCapacity() {
+		PipedTokenStream<String, TextToken> tokenStream = Produce(4);
+		assertTrue(tokenStream.hasToken(Tokens - 1));
+		assertTrue(tokenStream.capacity() >= Tokens);
+		for (int i = 0; i < Tokens; ++i)
+			assertEquals(String.valueOf(i), tokenStream.get(i).value());
+		tokenStream.commit(Tokens);
+		assertFalse(tokenStream.hasToken(Tokens));
+	}
+
+	@Test(timeout = 10000)
+	public void testBlocksWithinCapacity() {
+		PipedTokenStream<String, TextToken> tokenStream = Produce(4);
+		for (int i = 0; tokenStream.hasToken(i); ++i) {
+			assertEquals(String.valueOf(i), tokenStream.get(i).value());
+			tokenStream.commit(i + 1);
+		}
+		assertEquals(Tokens, tokenStream.length());
+		assertEquals(4, tokenStream.capacity());
+	}
+
+	@Test(timeout = 60000)
+	public void testProcessPipelined() throws IOException {
+		Grammar grammar = new BaseGrammarLoader(FIXTURES_DIRECTORY).load("com.sun.java-source");
+		assertNotNull(grammar);
+		grammar = grammar.freeze();
+		String sample = IncrementalSyntaxEngineTest.Sample("Sample.java");
+		for (int capacity : new int[] { 1, 2, 16 })
+			assertEquals(String.format("capacity %d", capacity), SyntaxTrees(grammar, sample, 0),
+					SyntaxTrees(grammar, sample, capacity));
+	}
+
+	/**
+	 * Starts a producer that adds {@link #Tokens} tokens to a new piped token
+	 * stream and closes it.
+	 *
+	 * @param capacity of the stream.
+	 * @return the stream.
+	 */
+	protected static PipedTokenStream<String, TextToken> Produce(int capacity) {
+		final PipedTokenStream<String, TextToken> tokenStream = new PipedTokenStream<>(capacity);
+		Thread producer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				for (int i = 0; i < Tokens; ++i)
+					tokenStream.addToken(new BaseTextToken(null, String.valueOf(i), i, i + 1));
+				tokenStream.close();
+			}
+
+		});
+		producer.setDaemon(true);
+		producer.start();
+		return tokenStream;
+	}
+
+	/**
+	 * @param grammar  to process with.
+	 * @param input    to process.
+	 * @param capacity of the piped token stream, or <code>0</code> to process
+	 *                 the input without a pipeline.
+	 * @return description of every top level syntax tree of the input.
+	 */
+	protected static List<String> SyntaxTrees(Grammar grammar, String input, int capacity) {
+		final List<String> syntaxTrees = new ArrayList<>();
+		BaseTextSyntaxEngine engine = new BaseTextSyntaxEngine(grammar) {
+
+			@Override
+			public void didGenerateSyntaxTree(Parser<String, TextToken> parser,
+					ParserSyntaxTree<TextToken> syntaxTree) {
+				super.didGenerateSyntaxTree(parser, syntaxTree);
+				syntaxTrees.add(syntaxTree.toString());
+			}
+
+		};
+		if (capacity > 0)
+			engine.processPipelined(input, capacity);
+		else
+			engine.process(input);
+		return syntaxTrees;
+	}
+
+}
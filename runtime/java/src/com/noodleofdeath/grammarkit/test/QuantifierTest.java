@@ -0,0 +1,107 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.noodleofdeath.pastaparser.Quantifier;
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.engine.impl.BaseTextSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/**
+ * Test of ranged {@link Quantifier}s and how the lexer and parser match them.
+ *
+ * The fixture <code>quantifier</code> of <code>test/grammars</code> quantifies
+ * an atom of a lexer rule and of a parser rule with <code>{0}</code>, which
+ * must match nothing rather than forbid the atom.
+ */
+public class QuantifierTest {
+
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	@Test
+	public void testRange() {
+		Quantifier quantifier = Quantifier.from("{2,4}");
+		assertEquals(2, quantifier.lowerBound());
+		assertEquals(4, quantifier.upperBound());
+		assertFalse(quantifier.meets(1));
+		assertTrue(quantifier.meets(4));
+		assertTrue(quantifier.allowsMore(3));
+		assertFalse(quantifier.allowsMore(4));
+		assertEquals(Integer.MAX_VALUE, Quantifier.from("{1,}").upperBound());
+		assertEquals(Quantifier.Once, Quantifier.from("{4,2}"));
+	}
+
+	@Test
+	public void testZero() {
+		Quantifier quantifier = Quantifier.from("{0}");
+		assertEquals(0, quantifier.lowerBound());
+		assertEquals(0, quantifier.upperBound());
+		assertTrue(quantifier.meets(0));
+		assertFalse(quantifier.meets(1));
+		assertFalse(quantifier.allowsMore(0));
+	}
+
+	@Test
+	public void testZeroMatchesNothing() {
+		Grammar grammar = new BaseGrammarLoader(FIXTURES_DIRECTORY).load("quantifier");
+		assertNotNull(grammar);
+		grammar = grammar.freeze();
+
+		// WORD: '[a-z]+' '[0-9]'{0} stops before the digit instead of failing.
+		assertEquals("[WORD ab, NUMBER 1, WORD x]", Tokens(grammar, "ab1 x").toString());
+
+		// word: 'x'{0} WORD matches x as its WORD instead of failing.
+		assertEquals("[word x, number 1, word y]", SyntaxTrees(grammar, "x 1 y").toString());
+	}
+
+	/**
+	 * @param grammar to tokenize with.
+	 * @param input   to tokenize.
+	 * @return lexer rule id and value of every token of the input.
+	 */
+	protected static List<String> Tokens(Grammar grammar, String input) {
+		List<String> tokens = new ArrayList<>();
+		TokenStream<String, TextToken> tokenStream = new BaseTextSyntaxEngine(grammar).tokenize(input);
+		for (int i = 0; i < tokenStream.length(); ++i)
+			tokens.add(tokenStream.get(i).lexerRule().id() + " " + tokenStream.get(i).value());
+		return tokens;
+	}
+
+	/**
+	 * @param grammar to process with.
+	 * @param input   to process.
+	 * @return rule id and token values of every top level syntax tree of the
+	 *         input.
+	 */
+	protected static List<String> SyntaxTrees(Grammar grammar, String input) {
+		final List<String> syntaxTrees = new ArrayList<>();
+		BaseTextSyntaxEngine engine = new BaseTextSyntaxEngine(grammar) {
+
+			@Override
+			public void didGenerateSyntaxTree(Parser<String, TextToken> parser,
+					ParserSyntaxTree<TextToken> syntaxTree) {
+				super.didGenerateSyntaxTree(parser, syntaxTree);
+				StringBuilder description = new StringBuilder(syntaxTree.rule().id());
+				for (TextToken token : syntaxTree.tokens())
+					description.append(' ').append(token.value());
+				syntaxTrees.add(description.toString());
+			}
+
+		};
+		engine.process(input);
+		return syntaxTrees;
+	}
+
+}
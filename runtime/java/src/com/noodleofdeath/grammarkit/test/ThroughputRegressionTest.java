@@ -0,0 +1,407 @@
+package com.noodleofdeath.pastaparser.test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import com.noodleofdeath.pastaparser.io.engine.SyntaxEngine;
+import com.noodleofdeath.pastaparser.io.engine.impl.BaseTextSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.lexer.Lexer;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+
+/**
+ * Throughput regression test of {@link BaseTextSyntaxEngine#process(CharSequence)}
+ * on large inputs generated by combining and mutating the samples directory.
+ *
+ * Every input is measured against an input an eighth of its size generated
+ * from the same samples, so a path that is quadratic in the length of its
+ * input fails on any machine, while the absolute floors only catch gross
+ * regressions. Allocation is counted per thread, so engines are measured on
+ * the calling thread. The live heap is sampled after every garbage collection
+ * while an input is processed, so an engine that retains more than a bounded
+ * amount per character fails the heap ceiling. Inputs of 1 MB are processed by
+ * default; set the system property <code>pastaparser.performance.sizes</code>
+ * to <code>1,10,100</code> to run the full suite.
+ *
+ * Grammars are loaded from the fixtures of <code>test/grammars</code> before
+ * the bundled grammars. A test whose grammar cannot be loaded is skipped.
+ */
+public class ThroughputRegressionTest {
+
+	private static String SAMPLES_DIRECTORY = System.getProperty("pastaparser.samples", "../../samples");
+	private static String GRAMMARS_DIRECTORY = System.getProperty("pastaparser.grammars", "../../grammars");
+	private static String FIXTURES_DIRECTORY = System.getProperty("pastaparser.fixtures", "test/grammars");
+
+	/** Number of characters in a megabyte of generated input. */
+	public static final int Megabyte = 1 << 20;
+
+	/** Sizes of the generated inputs in megabytes. */
+	public static final int[] Sizes = ParseSizes(System.getProperty("pastaparser.performance.sizes", "1"));
+
+	/** Lowest accepted throughput in kilobytes per second. */
+	public static final double MinThroughput = Double
+			.parseDouble(System.getProperty("pastaparser.performance.throughput", "64"));
+
+	/** Highest accepted number of bytes allocated per character of input. */
+	public static final double MaxAllocation = Double
+			.parseDouble(System.getProperty("pastaparser.performance.allocation", "8192"));
+
+	/**
+	 * Highest accepted number of bytes of live heap per character of input,
+	 * above the heap in use before processing it.
+	 */
+	public static final double MaxHeap = Double
+			.parseDouble(System.getProperty("pastaparser.performance.heap", "256"));
+
+	/**
+	 * Highest accepted ratio of the time or allocation per character of an
+	 * input to that of an input an eighth of its size.
+	 */
+	public static final double MaxSlowdown = Double
+			.parseDouble(System.getProperty("pastaparser.performance.slowdown", "3"));
+
+	/** Seed of the generated inputs. */
+	public static final long Seed = Long.getLong("pastaparser.performance.seed", 42L);
+
+	/** Identifiers renamed by the generator, which excludes lower case keywords. */
+	private static final Pattern Identifier = Pattern.compile("\\b[A-Za-z_]\\w*[A-Z0-9_]\\w*\\b");
+
+	/** Time and allocation of a single run of a syntax engine. */
+	protected static class Measurement {
+
+		/** Number of characters processed. */
+		protected final int length;
+
+		/** Nanoseconds spent processing. */
+		protected final long nanos;
+
+		/** Bytes allocated while processing, or <code>-1</code> if unknown. */
+		protected final long allocated;
+
+		/**
+		 * Most bytes of heap in use after a garbage collection while processing,
+		 * above the heap in use before, or <code>-1</code> if no garbage was
+		 * collected.
+		 */
+		protected final long heap;
+
+		/**
+		 * @param length
+		 * @param nanos
+		 * @param allocated
+		 * @param heap
+		 */
+		protected Measurement(int length, long nanos, long allocated, long heap) {
+			this.length = length;
+			this.nanos = nanos;
+			this.allocated = allocated;
+			this.heap = heap;
+		}
+
+		/** @return kilobytes processed per second. */
+		protected double throughput() {
+			return length / 1024.0 / (nanos / 1e9);
+		}
+
+		/** @return nanoseconds spent per character. */
+		protected double nanosPerCharacter() {
+			return (double) nanos / length;
+		}
+
+		/** @return bytes allocated per character, or <code>-1</code> if unknown. */
+		protected double allocationPerCharacter() {
+			return allocated < 0 ? -1 : (double) allocated / length;
+		}
+
+		/**
+		 * @return bytes of live heap per character, or <code>-1</code> if
+		 *         unknown.
+		 */
+		protected double heapPerCharacter() {
+			return heap < 0 ? -1 : (double) heap / length;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"%d characters in %.1f ms, %.1f KB/s, %.1f bytes allocated and %.1f bytes of live heap per character",
+					length, nanos / 1e6, throughput(), allocationPerCharacter(), heapPerCharacter());
+		}
+
+	}
+
+	/**
+	 * Records the most heap in use after any garbage collection while it is
+	 * registered. Notifications are delivered asynchronously, so it waits for
+	 * the notifications of every collection before it stops recording.
+	 */
+	protected static class HeapWatermark implements NotificationListener {
+
+		/** Longest time to wait for pending notifications in milliseconds. */
+		private static final long Timeout = 5000;
+
+		/** Most bytes of heap in use after a garbage collection, or -1. */
+		private long peak = -1;
+
+		/** Number of notifications received. */
+		private long notifications = 0;
+
+		/** Number of collections when recording started. */
+		private long collections = 0;
+
+		/** Starts recording. */
+		protected void register() {
+			collections = Collections();
+			for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+				if (collector instanceof NotificationEmitter)
+					((NotificationEmitter) collector).addNotificationListener(this, null, null);
+		}
+
+		/**
+		 * Stops recording once the notifications of every collection since
+		 * recording started were received, or the timeout elapsed.
+		 *
+		 * @throws InterruptedException if interrupted while waiting.
+		 */
+		protected void unregister() throws InterruptedException {
+			long expected = Collections() - collections;
+			long deadline = System.currentTimeMillis() + Timeout;
+			synchronized (this) {
+				for (long now = System.currentTimeMillis(); notifications < expected
+						&& now < deadline; now = System.currentTimeMillis())
+					wait(deadline - now);
+			}
+			for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+				if (collector instanceof NotificationEmitter)
+					try {
+						((NotificationEmitter) collector).removeNotificationListener(this);
+					} catch (ListenerNotFoundException e) {
+						// Not registered with this collector.
+					}
+		}
+
+		/** @return most bytes of heap in use after a garbage collection, or -1. */
+		protected synchronized long peak() {
+			return peak;
+		}
+
+		@Override
+		public synchronized void handleNotification(Notification notification, Object handback) {
+			if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+				return;
+			long used = 0;
+			for (MemoryUsage usage : GarbageCollectionNotificationInfo
+					.from((CompositeData) notification.getUserData()).getGcInfo().getMemoryUsageAfterGc().values())
+				used += usage.getUsed();
+			peak = Math.max(peak, used);
+			++notifications;
+			notifyAll();
+		}
+
+		/** @return number of garbage collections so far. */
+		private static long Collections() {
+			long count = 0;
+			for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+				count += Math.max(0, collector.getCollectionCount());
+			return count;
+		}
+
+	}
+
+	@Test
+	public void testSwift() throws IOException, InterruptedException {
+		testThroughput("public.swift-source", "Sample.swift");
+	}
+
+	@Test
+	public void testJava() throws IOException, InterruptedException {
+		testThroughput("com.sun.java-source", "Sample.java");
+	}
+
+	@Test
+	public void testMarkup() throws IOException, InterruptedException {
+		testThroughput("public.html", "Sample.html", "Sample.xml");
+	}
+
+	@Test
+	public void testText() throws IOException, InterruptedException {
+		testThroughput("public.text", "Sample.html", "Sample.java", "Sample.swift", "Sample.xml");
+	}
+
+	/**
+	 * Processes generated inputs of every configured size with a specified
+	 * grammar and asserts the throughput, allocation, heap and scaling floors.
+	 *
+	 * @param grammarId id of the grammar to load.
+	 * @param samples   file names of the samples to generate inputs from.
+	 * @throws IOException          if a sample cannot be read.
+	 * @throws InterruptedException if interrupted while measuring.
+	 */
+	protected static void testThroughput(String grammarId, String... samples)
+			throws IOException, InterruptedException {
+
+		Grammar grammar = new BaseGrammarLoader(FIXTURES_DIRECTORY, GRAMMARS_DIRECTORY).load(grammarId);
+		assumeTrue(String.format("Could not load grammar \"%s\"", grammarId), grammar != null);
+		grammar = grammar.freeze();
+
+		List<String> texts = new ArrayList<>();
+		for (String sample : samples)
+			texts.add(new String(Files.readAllBytes(Paths.get(SAMPLES_DIRECTORY, sample)), StandardCharsets.UTF_8));
+
+		SyntaxEngine<String, TextToken, Lexer<String, TextToken>, Parser<String, TextToken>> engine = new BaseTextSyntaxEngine(
+				grammar);
+
+		for (int size : Sizes) {
+			String label = String.format("%s %d MB", grammarId, size);
+			String referenceInput = GenerateInput(texts, size * (Megabyte / 8), Seed);
+			engine.process(referenceInput);
+			Measurement reference = Measure(engine, referenceInput);
+			Measurement measurement = Measure(engine, GenerateInput(texts, size * Megabyte, Seed));
+			double slowdown = measurement.nanosPerCharacter() / reference.nanosPerCharacter();
+			double growth = measurement.allocationPerCharacter() / reference.allocationPerCharacter();
+			System.out.println(String.format("%s: %s, %.2fx the time per character of %d characters", label,
+					measurement, slowdown, reference.length));
+			assertTrue(String.format("%s: throughput %.1f KB/s is below %.1f KB/s", label, measurement.throughput(),
+					MinThroughput), measurement.throughput() >= MinThroughput);
+			assertTrue(String.format("%s: %.1f bytes allocated per character exceed %.1f", label,
+					measurement.allocationPerCharacter(), MaxAllocation),
+					measurement.allocationPerCharacter() <= MaxAllocation);
+			assertTrue(String.format("%s: %.1f bytes of live heap per character exceed %.1f", label,
+					measurement.heapPerCharacter(), MaxHeap), measurement.heapPerCharacter() <= MaxHeap);
+			assertTrue(String.format("%s: time per character grew %.2fx from %d characters, more than %.2fx", label,
+					slowdown, reference.length, MaxSlowdown), slowdown <= MaxSlowdown);
+			assertTrue(String.format("%s: allocation per character grew %.2fx from %d characters, more than %.2fx",
+					label, growth, reference.length, MaxSlowdown), growth <= MaxSlowdown);
+		}
+
+	}
+
+	/**
+	 * Processes a specified input on the current thread.
+	 *
+	 * @param engine to process the input with.
+	 * @param input  to process.
+	 * @return time, allocation and live heap of processing the input.
+	 * @throws InterruptedException if interrupted while waiting for garbage
+	 *                              collection notifications.
+	 */
+	protected static Measurement Measure(SyntaxEngine<String, TextToken, ?, ?> engine, String input)
+			throws InterruptedException {
+		System.gc();
+		long used = HeapUsed();
+		HeapWatermark watermark = new HeapWatermark();
+		watermark.register();
+		long allocated = AllocatedBytes(), nanos;
+		long start = System.nanoTime();
+		try {
+			engine.process(input);
+			nanos = System.nanoTime() - start;
+			if (allocated > -1)
+				allocated = AllocatedBytes() - allocated;
+		} finally {
+			watermark.unregister();
+		}
+		long peak = watermark.peak();
+		return new Measurement(input.length(), nanos, allocated, peak < 0 ? -1 : Math.max(0, peak - used));
+	}
+
+	/** @return bytes of heap in use. */
+	protected static long HeapUsed() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * @return bytes allocated by the current thread so far, or <code>-1</code>
+	 *         if the virtual machine does not count them.
+	 */
+	protected static long AllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return -1;
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Generates an input of at least a specified length by concatenating copies
+	 * of randomly chosen samples. Each copy renames its identifiers with a random
+	 * suffix and repeats some of its lines, so the input is not a plain
+	 * repetition of the samples. Only lines without brackets, quotes or comment
+	 * delimiters are repeated, and copies are never cut short, so the input
+	 * stays as well formed as the samples.
+	 *
+	 * @param samples to combine.
+	 * @param length  fewest characters of the input.
+	 * @param seed    of the mutations.
+	 * @return generated input.
+	 */
+	public static String GenerateInput(List<String> samples, int length, long seed) {
+		Random random = new Random(seed);
+		StringBuilder input = new StringBuilder(length + 4096);
+		while (input.length() < length) {
+			String sample = samples.get(random.nextInt(samples.size()));
+			String suffix = Integer.toString(random.nextInt(1000));
+			Matcher matcher = Identifier.matcher(sample);
+			StringBuffer copy = new StringBuffer(sample.length() + 256);
+			while (matcher.find())
+				matcher.appendReplacement(copy, "$0" + suffix);
+			matcher.appendTail(copy);
+			for (String line : copy.toString().split("\n", -1)) {
+				input.append(line).append('\n');
+				if (random.nextInt(8) == 0 && Repeatable(line))
+					input.append(line).append('\n');
+			}
+		}
+		return input.toString();
+	}
+
+	/**
+	 * @param line to check.
+	 * @return <code>true</code> if the specified line can be repeated without
+	 *         unbalancing a bracket, quote or comment.
+	 */
+	protected static boolean Repeatable(String line) {
+		for (int i = 0; i < line.length(); ++i)
+			if ("{}()[]<>\"'`/*#".indexOf(line.charAt(i)) > -1)
+				return false;
+		return line.trim().length() > 0;
+	}
+
+	/**
+	 * @param sizes comma separated sizes in megabytes.
+	 * @return the specified sizes.
+	 */
+	protected static int[] ParseSizes(String sizes) {
+		String[] values = sizes.split(",");
+		int[] result = new int[values.length];
+		for (int i = 0; i < values.length; ++i)
+			result[i] = Integer.parseInt(values[i].trim());
+		return result;
+	}
+
+}
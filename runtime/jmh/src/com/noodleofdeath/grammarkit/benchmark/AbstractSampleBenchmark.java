@@ -0,0 +1,108 @@
+package com.noodleofdeath.pastaparser.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+import com.noodleofdeath.pastaparser.model.grammar.loader.impl.BaseGrammarLoader;
+
+/**
+ * Base state of the benchmarks that process a file of the samples directory
+ * with the grammar for its file extension. The sample is scaled up by
+ * repeating it <code>scale</code> times.
+ *
+ * Grammars are loaded from the XML fixtures of the runtime tests before the
+ * grammars directory, whose <code>.g</code> sources the loader does not read.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractSampleBenchmark {
+
+	/**
+	 * Directory grammars are loaded from first, set with the system property
+	 * <code>pastaparser.fixtures</code>.
+	 */
+	public static final String FixturesDirectory = System.getProperty("pastaparser.fixtures",
+			"../java/test/grammars");
+
+	/**
+	 * Directory grammars are loaded from if they are not fixtures, set with the
+	 * system property <code>pastaparser.grammars</code>.
+	 */
+	public static final String GrammarsDirectory = System.getProperty("pastaparser.grammars", "../../grammars");
+
+	/**
+	 * Directory samples are read from, set with the system property
+	 * <code>pastaparser.samples</code>.
+	 */
+	public static final String SamplesDirectory = System.getProperty("pastaparser.samples", "../../samples");
+
+	/** File name of the sample to process. */
+	@Param({ "Sample.html", "Sample.java", "Sample.swift", "Sample.xml" })
+	public String sample;
+
+	/** Number of times the sample is repeated. */
+	@Param({ "1", "10", "100" })
+	public int scale;
+
+	/** Frozen grammar for the sample. */
+	protected Grammar grammar;
+
+	/** Sample repeated <code>scale</code> times. */
+	protected String characterStream;
+
+	/**
+	 * @throws IOException if the sample cannot be read.
+	 */
+	@Setup(Level.Trial)
+	public void setUpSample() throws IOException {
+		grammar = LoadGrammar(GrammarId(sample)).freeze();
+		String text = new String(Files.readAllBytes(Paths.get(SamplesDirectory, sample)), StandardCharsets.UTF_8);
+		StringBuilder characterStream = new StringBuilder((text.length() + 1) * scale);
+		for (int i = 0; i < scale; ++i)
+			characterStream.append(text).append('\n');
+		this.characterStream = characterStream.toString();
+	}
+
+	/**
+	 * @param sample file name of a sample.
+	 * @return id of the grammar for the file extension of the specified sample.
+	 */
+	public static String GrammarId(String sample) {
+		String extension = sample.substring(sample.lastIndexOf('.') + 1);
+		switch (extension) {
+		case "html":
+			return "public.html";
+		case "java":
+			return "com.sun.java-source";
+		case "swift":
+			return "public.swift-source";
+		case "xml":
+			return "public.html";
+		default:
+			throw new IllegalArgumentException(String.format("No grammar for sample: %s", sample));
+		}
+	}
+
+	/**
+	 * @param id of the grammar to load.
+	 * @return grammar with the specified id loaded from
+	 *         {@link #FixturesDirectory} or {@link #GrammarsDirectory}.
+	 * @throws IllegalStateException if the grammar cannot be loaded.
+	 */
+	public static Grammar LoadGrammar(String id) {
+		Grammar grammar = new BaseGrammarLoader(FixturesDirectory, GrammarsDirectory).load(id);
+		if (grammar == null)
+			throw new IllegalStateException(
+					String.format("Cannot load grammar %s from %s or %s", id, FixturesDirectory, GrammarsDirectory));
+		return grammar;
+	}
+
+}
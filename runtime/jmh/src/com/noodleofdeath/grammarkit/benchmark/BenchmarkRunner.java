@@ -0,0 +1,24 @@
+package com.noodleofdeath.pastaparser.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the command line options of JMH
+ * and always enables the GC profiler, so every result reports the bytes
+ * allocated per operation next to its time.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * @param args JMH command line options.
+	 * @throws Exception if the benchmarks cannot be run.
+	 */
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build())
+				.run();
+	}
+
+}
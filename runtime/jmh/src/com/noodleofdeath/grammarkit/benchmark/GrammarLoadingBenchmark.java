@@ -0,0 +1,43 @@
+package com.noodleofdeath.pastaparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.noodleofdeath.pastaparser.model.grammar.Grammar;
+
+/** Benchmarks loading every fixture grammar of the runtime tests. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrammarLoadingBenchmark {
+
+	/** Id of the grammar to load. */
+	@Param({ "com.sun.java-source", "optimizer", "public.html", "public.swift-source", "public.text" })
+	public String grammar;
+
+	/** @return loaded grammar. */
+	@Benchmark
+	public Grammar load() {
+		return AbstractSampleBenchmark.LoadGrammar(grammar);
+	}
+
+	/** @return loaded grammar, frozen and analyzed. */
+	@Benchmark
+	public Grammar loadAndFreeze() {
+		return AbstractSampleBenchmark.LoadGrammar(grammar).freeze();
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.noodleofdeath.pastaparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.lexer.Lexer;
+import com.noodleofdeath.pastaparser.io.lexer.impl.BaseTextLexer;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+
+/** Benchmarks {@link BaseTextLexer} on the samples. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark extends AbstractSampleBenchmark {
+
+	/** Lexer under benchmark. */
+	private Lexer<String, TextToken> lexer;
+
+	/** Span buffer large enough for every span of the sample. */
+	private int[] spans;
+
+	/** Sets up the lexer. */
+	@Setup(Level.Trial)
+	public void setUpLexer() {
+		lexer = new BaseTextLexer(grammar);
+		spans = new int[characterStream.length() * 3];
+	}
+
+	/** @return token stream of the sample. */
+	@Benchmark
+	public TokenStream<String, TextToken> tokenize() {
+		return lexer.tokenize(characterStream);
+	}
+
+	/** @return number of spans of the sample. */
+	@Benchmark
+	public int highlight() {
+		return lexer.highlight(characterStream, 0, characterStream.length(), spans);
+	}
+
+}
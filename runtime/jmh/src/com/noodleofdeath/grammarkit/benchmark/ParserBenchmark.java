@@ -0,0 +1,68 @@
+package com.noodleofdeath.pastaparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.noodleofdeath.pastaparser.io.TokenStream;
+import com.noodleofdeath.pastaparser.io.lexer.impl.BaseTextLexer;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.parser.impl.BaseTextParser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.grammar.event.listener.ParserListener;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/** Benchmarks {@link BaseTextParser} on the tokens of the samples. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark extends AbstractSampleBenchmark {
+
+	/** Parser under benchmark. */
+	private Parser<String, TextToken> parser;
+
+	/** Tokens of the sample. */
+	private TokenStream<String, TextToken> tokenStream;
+
+	/** Blackhole of the current invocation. */
+	private Blackhole blackhole;
+
+	/** Sets up the parser and tokenizes the sample. */
+	@Setup(Level.Trial)
+	public void setUpParser() {
+		tokenStream = new BaseTextLexer(grammar).tokenize(characterStream);
+		parser = new BaseTextParser(grammar, new ParserListener<String, TextToken>() {
+
+			@Override
+			public void didGenerateSyntaxTree(Parser<String, TextToken> parser,
+					ParserSyntaxTree<TextToken> syntaxTree) {
+				blackhole.consume(syntaxTree);
+			}
+
+			@Override
+			public void didSkipToken(Parser<String, TextToken> parser, TextToken token) {
+				blackhole.consume(token);
+			}
+
+		});
+	}
+
+	/** @param blackhole to consume the syntax trees with. */
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		parser.parse(tokenStream);
+	}
+
+}
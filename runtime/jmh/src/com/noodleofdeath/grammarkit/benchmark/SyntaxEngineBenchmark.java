@@ -0,0 +1,64 @@
+package com.noodleofdeath.pastaparser.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.noodleofdeath.pastaparser.io.engine.impl.BaseTextSyntaxEngine;
+import com.noodleofdeath.pastaparser.io.parser.Parser;
+import com.noodleofdeath.pastaparser.io.token.TextToken;
+import com.noodleofdeath.pastaparser.model.graph.tree.syntaxtree.ParserSyntaxTree;
+
+/** Benchmarks {@link BaseTextSyntaxEngine} on the samples, end to end. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyntaxEngineBenchmark extends AbstractSampleBenchmark {
+
+	/** Syntax engine under benchmark. */
+	private BaseTextSyntaxEngine engine;
+
+	/** Blackhole of the current invocation. */
+	private Blackhole blackhole;
+
+	/** Sets up the syntax engine. */
+	@Setup(Level.Trial)
+	public void setUpEngine() {
+		engine = new BaseTextSyntaxEngine(grammar) {
+
+			@Override
+			public void didGenerateSyntaxTree(Parser<String, TextToken> parser,
+					ParserSyntaxTree<TextToken> syntaxTree) {
+				blackhole.consume(syntaxTree);
+				super.didGenerateSyntaxTree(parser, syntaxTree);
+			}
+
+		};
+	}
+
+	/** @param blackhole to consume the syntax trees with. */
+	@Benchmark
+	public void process(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		engine.process(characterStream);
+	}
+
+	/** @param blackhole to consume the syntax trees with. */
+	@Benchmark
+	public void processPipelined(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		engine.processPipelined(characterStream);
+	}
+
+}